@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link BenchmarkRunner} entry point of the benchmarks jar. Accepts the regular JMH command line
+ * and always attaches the GC profiler, so every result carries {@code gc.alloc.rate.norm} (bytes
+ * allocated per operation) next to the timing.
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    var commandLineOptions = new CommandLineOptions(args);
+    var options =
+        new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build();
+    new Runner(options).run();
+  }
+}
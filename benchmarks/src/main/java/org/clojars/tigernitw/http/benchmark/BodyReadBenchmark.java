@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.clojars.tigernitw.http.buffer.BufferLease;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a whole body into a {@code String}, as done for non-success and {@code String} responses:
+ * {@link EntityUtils} against a {@link BufferPool}, with and without a known length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyReadBenchmark {
+
+  @Param({"512", "16384", "262144"})
+  private int bodyBytes;
+
+  @Param({"true", "false"})
+  private boolean knownLength;
+
+  private byte[] body;
+  private BufferPool bufferPool;
+
+  @Setup
+  public void setup() {
+    body = new byte[bodyBytes];
+    Arrays.fill(body, (byte) 'x');
+    var bufferPoolConfig = new HttpClientConfiguration.BufferPoolConfig();
+    bufferPoolConfig.setEnabled(true);
+    bufferPool = new BufferPool(bufferPoolConfig);
+  }
+
+  @Benchmark
+  public String entityUtils() throws IOException {
+    return EntityUtils.toString(entity(), StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String bufferPool() throws IOException {
+    try (BufferLease bodyLease = bufferPool.read(entity())) {
+      return bodyLease.toString(StandardCharsets.UTF_8);
+    }
+  }
+
+  private InputStreamEntity entity() {
+    return new InputStreamEntity(new ByteArrayInputStream(body), knownLength ? bodyBytes : -1);
+  }
+}
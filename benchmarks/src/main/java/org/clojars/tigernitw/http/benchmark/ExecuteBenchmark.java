@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.model.HttpMethod;
+import org.clojars.tigernitw.http.model.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Full GET round trip against the stub, dominated by response deserialization. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteBenchmark {
+
+  private static final TypeReference<List<Payload.Item>> ITEMS = new TypeReference<>() {};
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  private Payload payload;
+
+  private StubServer stubServer;
+  private CloseableHttpClient httpClient;
+  private HttpRequest httpRequest;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    stubServer = new StubServer(BenchmarkFixtures.OBJECT_MAPPER);
+    var endpoint = stubServer.endpoint();
+    httpClient = ApacheHttpClient.createClient(BenchmarkFixtures.clientConfiguration(endpoint, 10));
+    httpRequest =
+        HttpRequest.builder()
+            .httpAppConfiguration(BenchmarkFixtures.appConfiguration())
+            .httpClient(httpClient)
+            .endpoint(endpoint)
+            .path("/payload/" + payload.name().toLowerCase())
+            .httpMethod(HttpMethod.GET)
+            .httpHeaders(BenchmarkFixtures.headers())
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    httpClient.close();
+    stubServer.close();
+  }
+
+  @Benchmark
+  public Payload.Item[] executeClass() throws Exception {
+    return ApacheHttpClient.fetchExecutor(httpRequest).execute(Payload.Item[].class, null);
+  }
+
+  @Benchmark
+  public List<Payload.Item> executeTypeReference() throws Exception {
+    return ApacheHttpClient.fetchExecutor(httpRequest).execute(ITEMS, null);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link H2StubServer} in-process cleartext server speaking either HTTP/1.1 or HTTP/2 with prior
+ * knowledge (h2c), so both transports are measured against the same server implementation. Serves
+ * {@code GET /payload/{small|medium|large}} like {@link StubServer}.
+ */
+public class H2StubServer implements AutoCloseable {
+
+  private final HttpAsyncServer server;
+  private final InetSocketAddress address;
+
+  public H2StubServer(ObjectMapper objectMapper, boolean http2) throws Exception {
+    Map<Payload, byte[]> payloads = new EnumMap<>(Payload.class);
+    for (Payload payload : Payload.values()) {
+      payloads.put(payload, payload.bytes(objectMapper));
+    }
+    this.server =
+        H2ServerBootstrap.bootstrap()
+            .setIOReactorConfig(
+                IOReactorConfig.custom()
+                    .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                    .build())
+            .setVersionPolicy(
+                http2 ? HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1)
+            .setH2Config(H2Config.custom().setMaxConcurrentStreams(1000).build())
+            .register("/payload/*", new PayloadHandler(payloads))
+            .create();
+    server.start();
+    this.address =
+        (InetSocketAddress)
+            server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get().getAddress();
+  }
+
+  public HttpClientConfiguration.EndpointConfig endpoint() {
+    return BenchmarkFixtures.endpoint(address.getHostString(), address.getPort());
+  }
+
+  @Override
+  public void close() {
+    server.close(CloseMode.IMMEDIATE);
+  }
+
+  private record PayloadHandler(Map<Payload, byte[]> payloads)
+      implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+    @Override
+    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+        HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+      return new BasicRequestConsumer<>(DiscardingEntityConsumer::new);
+    }
+
+    @Override
+    public void handle(
+        Message<HttpRequest, Void> message, ResponseTrigger responseTrigger, HttpContext context)
+        throws HttpException, IOException {
+      var path = message.getHead().getPath();
+      var name = path.substring("/payload/".length());
+      responseTrigger.submitResponse(
+          AsyncResponseBuilder.create(HttpStatus.SC_OK)
+              .setEntity(
+                  AsyncEntityProducers.create(
+                      payloads.get(Payload.valueOf(name.toUpperCase())),
+                      ContentType.APPLICATION_JSON))
+              .build(),
+          context);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.model.HttpMethod;
+import org.clojars.tigernitw.http.model.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The pooled HTTP/1.1 client against the HTTP/2 client on the h2c {@link H2StubServer}: 64 threads
+ * sharing one client, HTTP/1.1 with a connection per thread, HTTP/2 with two multiplexed
+ * connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class Http2Benchmark {
+
+  @Param({"HTTP_1_1", "HTTP_2"})
+  private String transport;
+
+  @Param({"small", "medium"})
+  private String payload;
+
+  private H2StubServer stubServer;
+  private CloseableHttpClient httpClient;
+  private HttpRequest httpRequest;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    boolean http2 = "HTTP_2".equals(transport);
+    stubServer = new H2StubServer(BenchmarkFixtures.OBJECT_MAPPER, http2);
+    var endpoint = stubServer.endpoint();
+    var httpConfig = BenchmarkFixtures.clientConfiguration(endpoint, 64);
+    if (http2) {
+      var http2Config = new HttpClientConfiguration.Http2Config();
+      http2Config.setEnabled(true);
+      httpConfig.setHttp2(http2Config);
+    }
+    httpClient = ApacheHttpClient.createClient(httpConfig);
+    httpRequest =
+        HttpRequest.builder()
+            .httpAppConfiguration(BenchmarkFixtures.appConfiguration())
+            .httpClient(httpClient)
+            .endpoint(endpoint)
+            .path("/payload/" + payload)
+            .httpMethod(HttpMethod.GET)
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    httpClient.close();
+    stubServer.close();
+  }
+
+  @Benchmark
+  public byte[] fetch() throws Exception {
+    return ApacheHttpClient.fetchExecutor(httpRequest).execute(byte[].class, null);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.util.HttpUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** URI building done by every executor call before the request is sent. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpUtilsBenchmark {
+
+  @Param({"0", "4", "16"})
+  private int queryParamCount;
+
+  private HttpClientConfiguration.EndpointConfig endpoint;
+  private List<QueryParam> queryParams;
+
+  @Setup
+  public void setup() {
+    endpoint = BenchmarkFixtures.endpoint("orders.internal.example.com", 8443);
+    endpoint.setSecure(true);
+    queryParams = BenchmarkFixtures.queryParams(queryParamCount);
+  }
+
+  @Benchmark
+  public URI fetchUrl() throws URISyntaxException {
+    return HttpUtils.fetchUrl(endpoint, "/v1/orders/42/items", queryParams);
+  }
+}
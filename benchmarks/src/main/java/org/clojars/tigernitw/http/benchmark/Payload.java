@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** {@link Payload} JSON bodies of increasing size used as request and response payloads. */
+public enum Payload {
+  SMALL(10),
+  MEDIUM(1_000),
+  LARGE(20_000),
+  ;
+
+  private final int items;
+
+  Payload(int items) {
+    this.items = items;
+  }
+
+  public List<Item> data() {
+    List<Item> data = new ArrayList<>(items);
+    for (int i = 0; i < items; i++) {
+      data.add(new Item(i, "item-name-" + i, "description of the item number " + i, i * 1.5d));
+    }
+    return data;
+  }
+
+  public byte[] bytes(ObjectMapper objectMapper) throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(data());
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Item {
+
+    private int id;
+
+    private String name;
+
+    private String description;
+
+    private double price;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link StubServer} in-process HTTP/1.1 server the benchmarks run against, so the numbers include
+ * the real socket and pool path but no network or downstream noise.
+ *
+ * <ul>
+ *   <li>{@code GET /payload/{small|medium|large}} returns the serialized {@link Payload}
+ *   <li>{@code POST|PUT /ingest} drains the request body and returns a tiny JSON ack
+ * </ul>
+ */
+public class StubServer implements AutoCloseable {
+
+  private static final byte[] ACK = "{\"ok\":true}".getBytes();
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  public StubServer(ObjectMapper objectMapper) throws IOException {
+    Map<Payload, byte[]> payloads = new EnumMap<>(Payload.class);
+    for (Payload payload : Payload.values()) {
+      payloads.put(payload, payload.bytes(objectMapper));
+    }
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.executor = Executors.newFixedThreadPool(128);
+    server.createContext(
+        "/payload/",
+        exchange -> {
+          var name = exchange.getRequestURI().getPath().substring("/payload/".length());
+          respond(exchange, payloads.get(Payload.valueOf(name.toUpperCase())));
+        });
+    server.createContext(
+        "/ingest",
+        exchange -> {
+          try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStreams.DISCARD);
+          }
+          respond(exchange, ACK);
+        });
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public HttpClientConfiguration.EndpointConfig endpoint() {
+    var endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost(server.getAddress().getHostString());
+    endpoint.setPort(server.getAddress().getPort());
+    endpoint.setSecure(false);
+    return endpoint;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+}
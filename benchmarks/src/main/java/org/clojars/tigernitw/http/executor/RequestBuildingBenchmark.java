@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.clojars.tigernitw.http.benchmark.BenchmarkFixtures;
+import org.clojars.tigernitw.http.benchmark.OutputStreams;
+import org.clojars.tigernitw.http.benchmark.Payload;
+import org.clojars.tigernitw.http.model.HttpRequestData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request construction without any I/O: header assembly and POST/PUT body serialization, including
+ * writing the entity the way the connection does. Lives in the executor package to reach {@link
+ * BaseHttpExecutor#addHeaders()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildingBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  private Payload payload;
+
+  @Param({"false", "true"})
+  private boolean chunked;
+
+  private URI uri;
+  private GetHttpExecutor getHttpExecutor;
+  private PostHttpExecutor postHttpExecutor;
+  private PutHttpExecutor putHttpExecutor;
+
+  @Setup
+  public void setup() {
+    var httpAppConfiguration = BenchmarkFixtures.appConfiguration();
+    var endpoint = BenchmarkFixtures.endpoint("localhost", 8080);
+    var httpRequestData =
+        HttpRequestData.builder()
+            .data(payload.data())
+            .contentType(ContentType.APPLICATION_JSON)
+            .chunked(chunked)
+            .build();
+    uri = URI.create("http://localhost:8080/ingest");
+    getHttpExecutor =
+        GetHttpExecutor.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .endpoint(endpoint)
+            .path("/ingest")
+            .httpHeaders(BenchmarkFixtures.headers())
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+    postHttpExecutor =
+        PostHttpExecutor.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .endpoint(endpoint)
+            .path("/ingest")
+            .httpHeaders(BenchmarkFixtures.headers())
+            .httpRequestData(httpRequestData)
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+    putHttpExecutor =
+        PutHttpExecutor.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .endpoint(endpoint)
+            .path("/ingest")
+            .httpHeaders(BenchmarkFixtures.headers())
+            .httpRequestData(httpRequestData)
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+  }
+
+  @Benchmark
+  public Header[] addHeaders() {
+    return getHttpExecutor.addHeaders();
+  }
+
+  @Benchmark
+  public HttpUriRequest postRequestWritten() throws IOException {
+    return written(postHttpExecutor.getRequest(uri));
+  }
+
+  @Benchmark
+  public HttpUriRequest putRequestWritten() throws IOException {
+    return written(putHttpExecutor.getRequest(uri));
+  }
+
+  private static HttpUriRequest written(HttpUriRequest request) throws IOException {
+    ((HttpEntityEnclosingRequest) request).getEntity().writeTo(OutputStreams.DISCARD);
+    return request;
+  }
+}
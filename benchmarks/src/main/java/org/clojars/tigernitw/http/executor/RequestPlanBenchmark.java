@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.Header;
+import org.clojars.tigernitw.http.benchmark.BenchmarkFixtures;
+import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.util.HttpUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-call URI and header building, through {@link HttpUtils#fetchUrl} and the executor's header
+ * assembly versus a precompiled {@link RequestPlan}. Compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPlanBenchmark {
+
+  @Param({"0", "4", "16"})
+  private int queryParamCount;
+
+  private List<QueryParam> queryParams;
+  private GetHttpExecutor getHttpExecutor;
+  private GetHttpExecutor plannedGetHttpExecutor;
+  private RequestPlan requestPlan;
+  private Map<String, String> pathVariables;
+
+  @Setup
+  public void setup() {
+    var httpAppConfiguration = BenchmarkFixtures.appConfiguration();
+    var endpoint = BenchmarkFixtures.endpoint("orders.internal.example.com", 8443);
+    endpoint.setSecure(true);
+    queryParams = BenchmarkFixtures.queryParams(queryParamCount);
+    pathVariables = Map.of("orderId", "42");
+    requestPlan =
+        RequestPlan.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .endpoint(endpoint)
+            .pathTemplate("/v1/orders/{orderId}/items")
+            .httpHeaders(BenchmarkFixtures.headers())
+            .build();
+    getHttpExecutor =
+        GetHttpExecutor.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .endpoint(endpoint)
+            .path("/v1/orders/42/items")
+            .queryParams(queryParams)
+            .httpHeaders(BenchmarkFixtures.headers())
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+    plannedGetHttpExecutor =
+        GetHttpExecutor.builder()
+            .httpAppConfiguration(httpAppConfiguration)
+            .requestPlan(requestPlan)
+            .pathVariables(pathVariables)
+            .queryParams(queryParams)
+            .objectMapper(BenchmarkFixtures.OBJECT_MAPPER)
+            .build();
+  }
+
+  @Benchmark
+  public URI fetchUrl() throws URISyntaxException {
+    return getHttpExecutor.fetchUrl();
+  }
+
+  @Benchmark
+  public URI plannedFetchUrl() throws URISyntaxException {
+    return plannedGetHttpExecutor.fetchUrl();
+  }
+
+  @Benchmark
+  public Header[] addHeaders() {
+    return getHttpExecutor.addHeaders();
+  }
+
+  @Benchmark
+  public Header[] plannedAddHeaders() {
+    return plannedGetHttpExecutor.addHeaders();
+  }
+}
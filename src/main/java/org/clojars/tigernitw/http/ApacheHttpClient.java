@@ -16,22 +16,63 @@
 
 package org.clojars.tigernitw.http;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.HttpResponse;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.protocol.HttpContext;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.HttpProcessorBuilder;
+import org.clojars.tigernitw.http.balancer.LoadBalancer;
+import org.clojars.tigernitw.http.balancer.LoadBalancingTransport;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.cache.ResponseCache;
+import org.clojars.tigernitw.http.coalescing.RequestCoalescer;
+import org.clojars.tigernitw.http.compression.CompressingHttpAsyncClient;
+import org.clojars.tigernitw.http.compression.RequestCompressionInterceptor;
+import org.clojars.tigernitw.http.compression.ResponseDecompressionInterceptor;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.connection.ConnectionLifecycle;
+import org.clojars.tigernitw.http.dns.CachingDnsResolver;
 import org.clojars.tigernitw.http.executor.BaseHttpExecutor;
 import org.clojars.tigernitw.http.executor.GetHttpExecutor;
 import org.clojars.tigernitw.http.executor.PostHttpExecutor;
 import org.clojars.tigernitw.http.executor.PutHttpExecutor;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.http2.Http2HttpClient;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.metrics.InstrumentedHttpClientConnectionManager;
 import org.clojars.tigernitw.http.model.HttpRequest;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.ApacheHttpTransport;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.transport.JdkHttpTransport;
+import org.clojars.tigernitw.http.util.CollectionUtils;
+import org.clojars.tigernitw.http.util.HttpUtils;
 
 @Slf4j
 public class ApacheHttpClient {
@@ -42,48 +83,483 @@ public class ApacheHttpClient {
   private static final int IDLE_TIMEOUT_IN_SEC = 30;
 
   public static CloseableHttpClient createClient(HttpClientConfiguration httpConfig) {
+    return createClient(httpConfig, HttpClientMetrics.NOOP);
+  }
+
+  public static CloseableHttpClient createClient(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var dnsResolver = createDnsResolver(httpConfig.getDns(), metrics);
+    var http2Config = httpConfig.getHttp2();
+    if (Objects.nonNull(http2Config) && http2Config.isEnabled()) {
+      return createHttp2Client(httpConfig, dnsResolver, metrics);
+    }
+    return createClient(
+        httpConfig, createConnectionManager(httpConfig, dnsResolver, metrics), false, metrics);
+  }
+
+  /** Own pool of the client, bound to the metrics. */
+  private static PoolingHttpClientConnectionManager createConnectionManager(
+      HttpClientConfiguration httpConfig, DnsResolver dnsResolver, HttpClientMetrics metrics) {
     var connections =
         httpConfig.getConnections() == 0 ? DEFAULT_CONNECTIONS : httpConfig.getConnections();
+    var connectionManager =
+        createConnectionManager(
+            connections,
+            maxPerRoute(httpConfig, connections),
+            httpConfig.getConnectionLifecycle(),
+            dnsResolver,
+            metrics);
+    metrics.bindConnectionPool(connectionManager, HttpUtils.routes(httpConfig.getEndpoint()));
+    return connectionManager;
+  }
+
+  /** {@code maxPerRoute}, by default an equal slice of the connections for each target. */
+  private static int maxPerRoute(HttpClientConfiguration httpConfig, int connections) {
+    if (httpConfig.getMaxPerRoute() > 0) {
+      return httpConfig.getMaxPerRoute();
+    }
+    var routes = HttpUtils.routes(httpConfig.getEndpoint()).size();
+    return routes > 1 ? Math.max(1, connections / routes) : connections;
+  }
+
+  /**
+   * Pooling connection manager that can be handed to several clients, see {@link
+   * #createClient(HttpClientConfiguration, PoolingHttpClientConnectionManager, boolean,
+   * HttpClientMetrics)}.
+   */
+  public static PoolingHttpClientConnectionManager createConnectionManager(
+      int maxTotal, int defaultMaxPerRoute, HttpClientMetrics metrics) {
+    return createConnectionManager(maxTotal, defaultMaxPerRoute, null, null, metrics);
+  }
+
+  /**
+   * @param connectionLifecycleConfig lifetime and stale check of the connections, the defaults
+   *     apply when {@code null}
+   * @param dnsResolver resolves the hosts connected to, the system resolver when {@code null}
+   */
+  public static PoolingHttpClientConnectionManager createConnectionManager(
+      int maxTotal,
+      int defaultMaxPerRoute,
+      HttpClientConfiguration.ConnectionLifecycleConfig connectionLifecycleConfig,
+      DnsResolver dnsResolver,
+      HttpClientMetrics metrics) {
+    var lifecycleConfig =
+        Objects.requireNonNullElseGet(
+            connectionLifecycleConfig, HttpClientConfiguration.ConnectionLifecycleConfig::new);
+    var socketFactoryRegistry =
+        RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSLConnectionSocketFactory.getSocketFactory())
+            .build();
+    PoolingHttpClientConnectionManager connectionManager =
+        metrics.isEnabled()
+            ? new InstrumentedHttpClientConnectionManager(
+                metrics, socketFactoryRegistry, dnsResolver, lifecycleConfig.getTimeToLiveMs())
+            : new PoolingHttpClientConnectionManager(
+                socketFactoryRegistry,
+                null,
+                null,
+                dnsResolver,
+                lifecycleConfig.getTimeToLiveMs(),
+                TimeUnit.MILLISECONDS);
+    connectionManager.setValidateAfterInactivity(lifecycleConfig.getValidateAfterInactivityMs());
+    connectionManager.setMaxTotal(maxTotal); // Maximum connections
+    connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute); // Maximum connections per route
+    return connectionManager;
+  }
+
+  /**
+   * Client leasing from the given pool. The endpoint route is capped at {@code maxPerRoute} when
+   * set, and a shared pool is left open when the client is closed.
+   */
+  public static CloseableHttpClient createClient(
+      HttpClientConfiguration httpConfig,
+      PoolingHttpClientConnectionManager connectionManager,
+      boolean sharedConnectionManager,
+      HttpClientMetrics metrics) {
+    var connectionLifecycle = connectionLifecycle(httpConfig);
+    var requestConfig = requestConfig(httpConfig);
+
+    if (httpConfig.getMaxPerRoute() > 0) {
+      for (HttpRoute route : HttpUtils.routes(httpConfig.getEndpoint())) {
+        connectionManager.setMaxPerRoute(route, httpConfig.getMaxPerRoute());
+      }
+    }
+
+    // the client's eviction of the pool ends with the client, also when the pool is shared
+    var httpClientBuilder =
+        new ClosingHttpClientBuilder()
+            .closeWith(connectionLifecycle.evict(connectionManager))
+            .setConnectionManager(connectionManager)
+            .setConnectionManagerShared(sharedConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(connectionLifecycle.keepAliveStrategy());
+    var retryConfig = httpConfig.getRetry();
+    if (Objects.nonNull(retryConfig) && retryConfig.isEnabled()) {
+      // the executors retry with backoff and budget, immediate retries underneath would multiply
+      httpClientBuilder.disableAutomaticRetries();
+    }
+    var compressionConfig = httpConfig.getCompression();
+    if (Objects.nonNull(compressionConfig) && compressionConfig.isEnabled()) {
+      // the built-in decoding is replaced by one that can see the size on the wire
+      httpClientBuilder
+          .disableContentCompression()
+          .addInterceptorFirst(new RequestCompressionInterceptor(compressionConfig, metrics))
+          .addInterceptorLast(new ResponseDecompressionInterceptor(metrics));
+      if (compressionConfig.isAcceptCompressedResponses()) {
+        httpClientBuilder.addInterceptorLast(new RequestAcceptEncoding());
+      }
+    }
+    return httpClientBuilder.build();
+  }
+
+  /**
+   * Client multiplexing requests over HTTP/2 connections, running the same compression interceptors
+   * as the pooled client.
+   */
+  public static CloseableHttpClient createHttp2Client(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    return createHttp2Client(httpConfig, createDnsResolver(httpConfig.getDns(), metrics), metrics);
+  }
+
+  public static CloseableHttpClient createHttp2Client(
+      HttpClientConfiguration httpConfig, DnsResolver dnsResolver, HttpClientMetrics metrics) {
+    return new Http2HttpClient(
+        httpConfig.getHttp2(),
+        requestConfig(httpConfig),
+        idleTimeoutMs(httpConfig),
+        httpProcessor(httpConfig, metrics),
+        dnsResolver);
+  }
+
+  public static HttpTransport createTransport(HttpClientConfiguration httpConfig)
+      throws IOReactorException {
+    return createTransport(httpConfig, HttpClientMetrics.NOOP);
+  }
+
+  /**
+   * Engine the executors send the client's requests through, see {@link
+   * HttpClientConfiguration#getTransport()}. The Apache engine builds the blocking client and, when
+   * {@code asyncEnabled}, the non-blocking one. Requests are balanced across the endpoint's {@code
+   * targets} when it lists any.
+   */
+  public static HttpTransport createTransport(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) throws IOReactorException {
+    if (httpConfig.getTransport() == HttpClientConfiguration.Transport.JDK) {
+      var http2Config = httpConfig.getHttp2();
+      return balanced(
+          new JdkHttpTransport(
+              requestConfig(httpConfig),
+              Objects.nonNull(http2Config) && http2Config.isEnabled(),
+              httpProcessor(httpConfig, metrics),
+              asyncHttpProcessor(httpConfig, metrics)),
+          httpConfig,
+          metrics);
+    }
+    // the blocking and the non-blocking client share the cached addresses
+    var dnsResolver = createDnsResolver(httpConfig.getDns(), metrics);
+    var http2Config = httpConfig.getHttp2();
+    if (Objects.nonNull(http2Config) && http2Config.isEnabled()) {
+      return balanced(
+          new ApacheHttpTransport(
+              createHttp2Client(httpConfig, dnsResolver, metrics),
+              createAsyncClientIfEnabled(httpConfig, dnsResolver, metrics)),
+          httpConfig,
+          metrics);
+    }
+    return createTransport(
+        httpConfig,
+        createConnectionManager(httpConfig, dnsResolver, metrics),
+        false,
+        dnsResolver,
+        metrics);
+  }
+
+  /** Apache engine whose blocking client leases from the given pool, which may be shared. */
+  public static HttpTransport createTransport(
+      HttpClientConfiguration httpConfig,
+      PoolingHttpClientConnectionManager connectionManager,
+      boolean sharedConnectionManager,
+      HttpClientMetrics metrics)
+      throws IOReactorException {
+    return createTransport(
+        httpConfig,
+        connectionManager,
+        sharedConnectionManager,
+        createDnsResolver(httpConfig.getDns(), metrics),
+        metrics);
+  }
+
+  private static HttpTransport createTransport(
+      HttpClientConfiguration httpConfig,
+      PoolingHttpClientConnectionManager connectionManager,
+      boolean sharedConnectionManager,
+      DnsResolver dnsResolver,
+      HttpClientMetrics metrics)
+      throws IOReactorException {
+    return balanced(
+        new ApacheHttpTransport(
+            createClient(httpConfig, connectionManager, sharedConnectionManager, metrics),
+            createAsyncClientIfEnabled(httpConfig, dnsResolver, metrics),
+            connectionManager),
+        httpConfig,
+        metrics);
+  }
+
+  /** Balancer across the endpoint's targets, {@code null} unless it lists any. */
+  public static LoadBalancer createLoadBalancer(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var endpoint = httpConfig.getEndpoint();
+    if (Objects.isNull(endpoint) || CollectionUtils.isNullOrEmpty(endpoint.getTargets())) {
+      return null;
+    }
+    var loadBalancer =
+        new LoadBalancer(
+            endpoint.getHost(),
+            HttpUtils.targets(endpoint),
+            Objects.requireNonNullElseGet(
+                httpConfig.getLoadBalancer(), HttpClientConfiguration.LoadBalancerConfig::new),
+            metrics);
+    metrics.bindLoadBalancer(loadBalancer);
+    return loadBalancer;
+  }
+
+  private static HttpTransport balanced(
+      HttpTransport transport, HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var loadBalancer = createLoadBalancer(httpConfig, metrics);
+    return Objects.nonNull(loadBalancer)
+        ? new LoadBalancingTransport(transport, loadBalancer)
+        : transport;
+  }
+
+  /** Resolver caching addresses, {@code null} unless enabled. */
+  public static DnsResolver createDnsResolver(
+      HttpClientConfiguration.DnsConfig dnsConfig, HttpClientMetrics metrics) {
+    if (Objects.isNull(dnsConfig) || !dnsConfig.isEnabled()) {
+      return null;
+    }
+    return new CachingDnsResolver(dnsConfig, metrics);
+  }
+
+  private static CloseableHttpAsyncClient createAsyncClientIfEnabled(
+      HttpClientConfiguration httpConfig, DnsResolver dnsResolver, HttpClientMetrics metrics)
+      throws IOReactorException {
+    return httpConfig.isAsyncEnabled() ? createAsyncClient(httpConfig, dnsResolver, metrics) : null;
+  }
+
+  /** Interceptors of a blocking client built without {@link HttpClientBuilder}. */
+  private static HttpProcessor httpProcessor(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var httpProcessorBuilder = HttpProcessorBuilder.create();
+    var compressionConfig = httpConfig.getCompression();
+    if (Objects.nonNull(compressionConfig) && compressionConfig.isEnabled()) {
+      httpProcessorBuilder
+          .addFirst(new RequestCompressionInterceptor(compressionConfig, metrics))
+          .addLast(new ResponseDecompressionInterceptor(metrics));
+      if (compressionConfig.isAcceptCompressedResponses()) {
+        httpProcessorBuilder.addLast(new RequestAcceptEncoding());
+      }
+    } else {
+      // what the pooled client does by default
+      httpProcessorBuilder.add(new RequestAcceptEncoding()).add(new ResponseContentEncoding());
+    }
+    return httpProcessorBuilder.build();
+  }
+
+  /** Interceptors of a non-blocking client, the executors decode its responses. */
+  private static HttpProcessor asyncHttpProcessor(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var httpProcessorBuilder = HttpProcessorBuilder.create();
+    var compressionConfig = httpConfig.getCompression();
+    if (Objects.nonNull(compressionConfig) && compressionConfig.isEnabled()) {
+      httpProcessorBuilder.addFirst(new RequestCompressionInterceptor(compressionConfig, metrics));
+      if (compressionConfig.isAcceptCompressedResponses()) {
+        httpProcessorBuilder.addLast(new RequestAcceptEncoding());
+      }
+    }
+    return httpProcessorBuilder.build();
+  }
+
+  private static long idleTimeoutMs(HttpClientConfiguration httpConfig) {
+    var idleTimeOut =
+        httpConfig.getIdleTimeOutSeconds() == 0
+            ? IDLE_TIMEOUT_IN_SEC
+            : httpConfig.getIdleTimeOutSeconds();
+    return TimeUnit.SECONDS.toMillis(idleTimeOut);
+  }
+
+  private static ConnectionLifecycle connectionLifecycle(HttpClientConfiguration httpConfig) {
+    return new ConnectionLifecycle(
+        Objects.requireNonNullElseGet(
+            httpConfig.getConnectionLifecycle(),
+            HttpClientConfiguration.ConnectionLifecycleConfig::new),
+        idleTimeoutMs(httpConfig));
+  }
+
+  private static RequestConfig requestConfig(HttpClientConfiguration httpConfig) {
     var connectionTimeout =
         httpConfig.getConnectTimeoutMs() == 0
             ? CONNECTION_TIMEOUT_IN_MS
             : httpConfig.getConnectTimeoutMs();
     var socketTimeout =
         httpConfig.getOpTimeoutMs() == 0 ? OP_TIMEOUT_IN_MS : httpConfig.getOpTimeoutMs();
-    var idleTimeOut =
-        httpConfig.getIdleTimeOutSeconds() == 0
-            ? IDLE_TIMEOUT_IN_SEC
-            : httpConfig.getIdleTimeOutSeconds();
+    return RequestConfig.custom()
+        .setConnectTimeout(connectionTimeout)
+        .setSocketTimeout(socketTimeout)
+        .setConnectionRequestTimeout(connectionTimeout)
+        .build();
+  }
+
+  public static CloseableHttpAsyncClient createAsyncClient(HttpClientConfiguration httpConfig)
+      throws IOReactorException {
+    return createAsyncClient(httpConfig, HttpClientMetrics.NOOP);
+  }
+
+  public static CloseableHttpAsyncClient createAsyncClient(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) throws IOReactorException {
+    return createAsyncClient(httpConfig, createDnsResolver(httpConfig.getDns(), metrics), metrics);
+  }
+
+  /**
+   * @param dnsResolver resolves the hosts connected to, the system resolver when {@code null}; the
+   *     client connects to the first address returned
+   */
+  public static CloseableHttpAsyncClient createAsyncClient(
+      HttpClientConfiguration httpConfig, DnsResolver dnsResolver, HttpClientMetrics metrics)
+      throws IOReactorException {
+    var connections =
+        httpConfig.getConnections() == 0 ? DEFAULT_CONNECTIONS : httpConfig.getConnections();
+    var connectionTimeout =
+        httpConfig.getConnectTimeoutMs() == 0
+            ? CONNECTION_TIMEOUT_IN_MS
+            : httpConfig.getConnectTimeoutMs();
+    var socketTimeout =
+        httpConfig.getOpTimeoutMs() == 0 ? OP_TIMEOUT_IN_MS : httpConfig.getOpTimeoutMs();
+    var maxPerRoute = maxPerRoute(httpConfig, connections);
+    var ioThreads =
+        httpConfig.getIoThreads() == 0
+            ? Runtime.getRuntime().availableProcessors()
+            : httpConfig.getIoThreads();
     var requestConfig =
         RequestConfig.custom()
             .setConnectTimeout(connectionTimeout)
             .setSocketTimeout(socketTimeout)
             .setConnectionRequestTimeout(connectionTimeout)
             .build();
+    var ioReactorConfig =
+        IOReactorConfig.custom()
+            .setIoThreadCount(ioThreads)
+            .setConnectTimeout(connectionTimeout)
+            .setSoTimeout(socketTimeout)
+            .build();
 
-    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-    connectionManager.setMaxTotal(connections); // Maximum connections
-    connectionManager.setDefaultMaxPerRoute(connections); // Maximum connections per route
+    var connectionLifecycle = connectionLifecycle(httpConfig);
+    var eviction = new AtomicReference<Closeable>();
+    PoolingNHttpClientConnectionManager connectionManager =
+        new PoolingNHttpClientConnectionManager(
+            new DefaultConnectingIOReactor(ioReactorConfig),
+            ManagedNHttpClientConnectionFactory.INSTANCE,
+            RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                .build(),
+            null,
+            dnsResolver,
+            connectionLifecycle.getTimeToLiveMs(),
+            TimeUnit.MILLISECONDS) {
+          // the client shuts its pool down when it is closed
+          @Override
+          public void shutdown() throws IOException {
+            eviction.get().close();
+            super.shutdown();
+          }
 
-    ConnectionKeepAliveStrategy keepAliveStrategy =
-        new DefaultConnectionKeepAliveStrategy() {
           @Override
-          public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
-            var keepAlive = super.getKeepAliveDuration(response, context);
-            if (keepAlive == -1) {
-              // Keep connections alive 5 seconds if a keep-alive value has not explicitly set by
-              // the server
-              keepAlive = 5 * 1000;
-            }
-            return keepAlive;
+          public void shutdown(long waitMs) throws IOException {
+            eviction.get().close();
+            super.shutdown(waitMs);
           }
         };
-    return HttpClients.custom()
-        .setConnectionManager(connectionManager)
-        .setDefaultRequestConfig(requestConfig)
-        .setKeepAliveStrategy(keepAliveStrategy)
-        .evictIdleConnections(idleTimeOut, TimeUnit.SECONDS)
-        .build();
+    connectionManager.setMaxTotal(connections); // Maximum connections
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute); // Maximum connections per route
+    metrics.bindConnectionPool(connectionManager, HttpUtils.routes(httpConfig.getEndpoint()));
+
+    var httpAsyncClientBuilder =
+        HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(connectionLifecycle.keepAliveStrategy());
+    var compressionConfig = httpConfig.getCompression();
+    boolean compressRequests = Objects.nonNull(compressionConfig) && compressionConfig.isEnabled();
+    if (compressRequests && compressionConfig.isAcceptCompressedResponses()) {
+      httpAsyncClientBuilder.addInterceptorLast(new RequestAcceptEncoding());
+    }
+    CloseableHttpAsyncClient httpAsyncClient = httpAsyncClientBuilder.build();
+    if (compressRequests) {
+      // an interceptor's entity never reaches the request producer of this client
+      httpAsyncClient = new CompressingHttpAsyncClient(httpAsyncClient, compressionConfig, metrics);
+    }
+    eviction.set(connectionLifecycle.evict(connectionManager));
+    httpAsyncClient.start();
+    return httpAsyncClient;
+  }
+
+  /** Response cache for GET executors, {@code null} unless enabled in the configuration. */
+  public static ResponseCache createResponseCache(HttpClientConfiguration httpConfig) {
+    var cacheConfig = httpConfig.getCache();
+    return Objects.nonNull(cacheConfig) && cacheConfig.isEnabled()
+        ? new ResponseCache(cacheConfig)
+        : null;
+  }
+
+  /** Single-flight coalescer for GET executors, {@code null} unless enabled. */
+  public static RequestCoalescer createRequestCoalescer(HttpClientConfiguration httpConfig) {
+    var coalescingConfig = httpConfig.getCoalescing();
+    return Objects.nonNull(coalescingConfig) && coalescingConfig.isEnabled()
+        ? new RequestCoalescer(coalescingConfig)
+        : null;
+  }
+
+  /** Retry policy with its own budget, {@code null} unless enabled. */
+  public static RetryPolicy createRetryPolicy(HttpClientConfiguration httpConfig) {
+    var retryConfig = httpConfig.getRetry();
+    return Objects.nonNull(retryConfig) && retryConfig.isEnabled()
+        ? new RetryPolicy(retryConfig)
+        : null;
+  }
+
+  /** Hedging policy with its own budget, {@code null} unless enabled. */
+  public static HedgingPolicy createHedgingPolicy(HttpClientConfiguration httpConfig) {
+    var hedgingConfig = httpConfig.getHedging();
+    return Objects.nonNull(hedgingConfig) && hedgingConfig.isEnabled()
+        ? new HedgingPolicy(hedgingConfig)
+        : null;
+  }
+
+  /**
+   * Limiter of the client's endpoint, bound to the metrics; {@code null} unless the adaptive limit
+   * or the circuit breaker is enabled.
+   */
+  public static ConcurrencyLimiter createConcurrencyLimiter(
+      HttpClientConfiguration httpConfig, HttpClientMetrics metrics) {
+    var limiterConfig = httpConfig.getLimiter();
+    var circuitBreakerConfig = httpConfig.getCircuitBreaker();
+    if ((Objects.isNull(limiterConfig) || !limiterConfig.isEnabled())
+        && (Objects.isNull(circuitBreakerConfig) || !circuitBreakerConfig.isEnabled())) {
+      return null;
+    }
+    var host = httpConfig.getEndpoint().getHost();
+    var limiter = new ConcurrencyLimiter(host, limiterConfig, circuitBreakerConfig, metrics);
+    metrics.bindConcurrencyLimiter(host, limiter);
+    return limiter;
+  }
+
+  public static BufferPool createBufferPool(HttpClientConfiguration httpConfig) {
+    var bufferPoolConfig = httpConfig.getBufferPool();
+    if (Objects.isNull(bufferPoolConfig) || !bufferPoolConfig.isEnabled()) {
+      return null;
+    }
+    return new BufferPool(bufferPoolConfig);
   }
 
   public static BaseHttpExecutor fetchExecutor(HttpRequest httpRequest) {
@@ -92,18 +568,32 @@ public class ApacheHttpClient {
         return GetHttpExecutor.builder()
             .httpAppConfiguration(httpRequest.getHttpAppConfiguration())
             .httpClient(httpRequest.getHttpClient())
+            .httpAsyncClient(httpRequest.getHttpAsyncClient())
             .endpoint(httpRequest.getEndpoint())
             .tracingConfig(httpRequest.getTracingConfig())
             .path(httpRequest.getPath())
             .queryParams(httpRequest.getQueryParams())
             .httpHeaders(httpRequest.getHttpHeaders())
             .objectMapper(httpRequest.getObjectMapper())
+            .metrics(httpRequest.getMetrics())
+            .pathTemplate(httpRequest.getPathTemplate())
+            .requestPlan(httpRequest.getRequestPlan())
+            .pathVariables(httpRequest.getPathVariables())
+            .retryPolicy(httpRequest.getRetryPolicy())
+            .hedgingPolicy(httpRequest.getHedgingPolicy())
+            .concurrencyLimiter(httpRequest.getConcurrencyLimiter())
+            .bufferPool(httpRequest.getBufferPool())
+            .transport(httpRequest.getTransport())
+            .deadline(httpRequest.getDeadline())
+            .responseCache(httpRequest.getResponseCache())
+            .requestCoalescer(httpRequest.getRequestCoalescer())
             .build();
       }
       case PUT -> {
         return PutHttpExecutor.builder()
             .httpAppConfiguration(httpRequest.getHttpAppConfiguration())
             .httpClient(httpRequest.getHttpClient())
+            .httpAsyncClient(httpRequest.getHttpAsyncClient())
             .endpoint(httpRequest.getEndpoint())
             .tracingConfig(httpRequest.getTracingConfig())
             .path(httpRequest.getPath())
@@ -111,12 +601,23 @@ public class ApacheHttpClient {
             .httpRequestData(httpRequest.getHttpRequestData())
             .httpHeaders(httpRequest.getHttpHeaders())
             .objectMapper(httpRequest.getObjectMapper())
+            .metrics(httpRequest.getMetrics())
+            .pathTemplate(httpRequest.getPathTemplate())
+            .requestPlan(httpRequest.getRequestPlan())
+            .pathVariables(httpRequest.getPathVariables())
+            .retryPolicy(httpRequest.getRetryPolicy())
+            .hedgingPolicy(httpRequest.getHedgingPolicy())
+            .concurrencyLimiter(httpRequest.getConcurrencyLimiter())
+            .bufferPool(httpRequest.getBufferPool())
+            .transport(httpRequest.getTransport())
+            .deadline(httpRequest.getDeadline())
             .build();
       }
       case POST -> {
         return PostHttpExecutor.builder()
             .httpAppConfiguration(httpRequest.getHttpAppConfiguration())
             .httpClient(httpRequest.getHttpClient())
+            .httpAsyncClient(httpRequest.getHttpAsyncClient())
             .endpoint(httpRequest.getEndpoint())
             .tracingConfig(httpRequest.getTracingConfig())
             .path(httpRequest.getPath())
@@ -124,6 +625,16 @@ public class ApacheHttpClient {
             .httpRequestData(httpRequest.getHttpRequestData())
             .httpHeaders(httpRequest.getHttpHeaders())
             .objectMapper(httpRequest.getObjectMapper())
+            .metrics(httpRequest.getMetrics())
+            .pathTemplate(httpRequest.getPathTemplate())
+            .requestPlan(httpRequest.getRequestPlan())
+            .pathVariables(httpRequest.getPathVariables())
+            .retryPolicy(httpRequest.getRetryPolicy())
+            .hedgingPolicy(httpRequest.getHedgingPolicy())
+            .concurrencyLimiter(httpRequest.getConcurrencyLimiter())
+            .bufferPool(httpRequest.getBufferPool())
+            .transport(httpRequest.getTransport())
+            .deadline(httpRequest.getDeadline())
             .build();
       }
       default -> {
@@ -134,4 +645,13 @@ public class ApacheHttpClient {
       }
     }
   }
+
+  /** Builder whose clients also close the given resources when they are closed. */
+  private static final class ClosingHttpClientBuilder extends HttpClientBuilder {
+
+    private ClosingHttpClientBuilder closeWith(Closeable closeable) {
+      addCloseable(closeable);
+      return this;
+    }
+  }
 }
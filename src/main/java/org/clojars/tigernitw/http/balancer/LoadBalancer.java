@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.balancer;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link LoadBalancer} spreads an endpoint's requests across its targets with the power of two
+ * choices: of two random targets the one with fewer outstanding requests, or the lower latency
+ * weighted by them, gets the request. Targets failing several times in a row are ejected for a
+ * while and admitted again once it has passed. Picking a target takes no lock.
+ */
+@Slf4j
+public class LoadBalancer {
+
+  private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+  @Getter private final String host;
+  @Getter private final List<Target> targets;
+  private final Target[] choices;
+  private final HttpClientConfiguration.LoadBalancerConfig.Strategy strategy;
+  private final double decayNanos;
+  private final int consecutiveFailures;
+  private final long ejectionNanos;
+  private final int maxEjected;
+  private final HttpClientMetrics metrics;
+
+  public LoadBalancer(
+      String host,
+      List<HttpHost> targets,
+      HttpClientConfiguration.LoadBalancerConfig loadBalancerConfig,
+      HttpClientMetrics metrics) {
+    if (targets.isEmpty()) {
+      throw new IllegalArgumentException("no targets to balance " + host + " across");
+    }
+    this.host = host;
+    this.choices = targets.stream().map(Target::new).toArray(Target[]::new);
+    this.targets = List.of(choices);
+    this.strategy = loadBalancerConfig.getStrategy();
+    this.decayNanos = TimeUnit.MILLISECONDS.toNanos(loadBalancerConfig.getDecayMs());
+    this.consecutiveFailures = loadBalancerConfig.getConsecutiveFailures();
+    this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(loadBalancerConfig.getEjectionMs());
+    this.maxEjected = choices.length * loadBalancerConfig.getMaxEjectionPercent() / 100;
+    this.metrics = Objects.nonNull(metrics) ? metrics : HttpClientMetrics.NOOP;
+  }
+
+  /**
+   * Target of the next request, which has to be reported with {@link Target#succeeded}, {@link
+   * Target#failed} or {@link Target#abandoned} once done. Ejected targets are only chosen when all
+   * of them are.
+   */
+  public Target choose() {
+    if (choices.length == 1) {
+      return choices[0].start();
+    }
+    long now = System.nanoTime();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(choices.length);
+    int second = random.nextInt(choices.length - 1);
+    if (second >= first) {
+      second++;
+    }
+    Target a = choices[first];
+    Target b = choices[second];
+    boolean aAdmitted = a.isAdmitted(now);
+    if (aAdmitted != b.isAdmitted(now)) {
+      return (aAdmitted ? a : b).start();
+    }
+    if (!aAdmitted) {
+      for (int i = 1; i < choices.length; i++) {
+        Target next = choices[(first + i) % choices.length];
+        if (next.isAdmitted(now)) {
+          return next.start();
+        }
+      }
+      // every target is ejected, sending beats failing
+      return a.start();
+    }
+    return (cost(a, now) <= cost(b, now) ? a : b).start();
+  }
+
+  private double cost(Target target, long now) {
+    int outstanding = target.outstanding.get();
+    return strategy == HttpClientConfiguration.LoadBalancerConfig.Strategy.PEAK_EWMA
+        ? (target.latencyNanos(now) + 1) * (outstanding + 1)
+        : outstanding;
+  }
+
+  private int ejected(long now) {
+    int ejected = 0;
+    for (Target target : choices) {
+      if (!target.isAdmitted(now)) {
+        ejected++;
+      }
+    }
+    return ejected;
+  }
+
+  public class Target {
+
+    @Getter private final HttpHost httpHost;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+
+    /** {@code System.nanoTime()} the ejection ends at, {@code 0} while admitted. */
+    private final AtomicLong ejectedUntil = new AtomicLong();
+
+    // racing updates may lose a sample, which the average does not miss
+    private volatile double ewmaNanos;
+    private volatile long lastSample = System.nanoTime();
+
+    private Target(HttpHost httpHost) {
+      this.httpHost = httpHost;
+    }
+
+    public int getOutstanding() {
+      return outstanding.get();
+    }
+
+    /** Peak EWMA of the latency, updated whatever the strategy. */
+    public double getLatencyMillis() {
+      return latencyNanos(System.nanoTime()) / 1_000_000;
+    }
+
+    /**
+     * The average as of now, it keeps decaying while no samples arrive so that a target that was
+     * slow, or ejected, gets requests again.
+     */
+    private double latencyNanos(long now) {
+      return ewmaNanos * Math.exp(-Math.max(0, now - lastSample) / decayNanos);
+    }
+
+    public boolean isEjected() {
+      return !isAdmitted(System.nanoTime());
+    }
+
+    private boolean isAdmitted(long now) {
+      long until = ejectedUntil.get();
+      return until == 0 || now - until >= 0;
+    }
+
+    private Target start() {
+      outstanding.incrementAndGet();
+      return this;
+    }
+
+    /** Response of the endpoint, a 5xx counts as a failure. */
+    public void succeeded(long durationNanos, int statusCode) {
+      outstanding.decrementAndGet();
+      sample(durationNanos);
+      if (statusCode >= 500) {
+        onFailure();
+      } else {
+        failures.set(0);
+        ejections.set(0);
+      }
+    }
+
+    /** I/O error or timeout without a response. */
+    public void failed(long durationNanos) {
+      outstanding.decrementAndGet();
+      sample(durationNanos);
+      onFailure();
+    }
+
+    /** Aborted or cancelled before it got a response, tells nothing about the target. */
+    public void abandoned() {
+      outstanding.decrementAndGet();
+    }
+
+    /** Latency rises at once and decays slowly, so a target that turns slow is avoided quickly. */
+    private void sample(long durationNanos) {
+      long now = System.nanoTime();
+      double ewma = ewmaNanos;
+      if (durationNanos > ewma) {
+        ewmaNanos = durationNanos;
+      } else {
+        double weight = Math.exp(-Math.max(0, now - lastSample) / decayNanos);
+        ewmaNanos = ewma * weight + durationNanos * (1 - weight);
+      }
+      lastSample = now;
+    }
+
+    private void onFailure() {
+      if (failures.incrementAndGet() < consecutiveFailures) {
+        return;
+      }
+      long now = System.nanoTime();
+      long until = ejectedUntil.get();
+      if ((until != 0 && now - until < 0) || ejected(now) >= maxEjected) {
+        return;
+      }
+      int multiplier = Math.min(ejections.get() + 1, MAX_EJECTION_MULTIPLIER);
+      if (ejectedUntil.compareAndSet(until, now + ejectionNanos * multiplier)) {
+        ejections.incrementAndGet();
+        failures.set(0);
+        metrics.recordEjection(host, httpHost.toHostString());
+        log.warn(
+            "LoadBalancer :: eject :: {} of {} for {} ms",
+            httpHost.toHostString(),
+            host,
+            TimeUnit.NANOSECONDS.toMillis(ejectionNanos * multiplier));
+      }
+    }
+  }
+}
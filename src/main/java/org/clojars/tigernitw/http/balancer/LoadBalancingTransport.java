@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.balancer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import lombok.Getter;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+
+/**
+ * {@link LoadBalancingTransport} sends each attempt to the target the {@link LoadBalancer} picks,
+ * by pointing the request URI at it, and reports the outcome back. Retries and hedges go through
+ * here again and may land on another target.
+ */
+public class LoadBalancingTransport implements HttpTransport {
+
+  /** Engine the balanced requests are sent with. */
+  @Getter private final HttpTransport transport;
+
+  @Getter private final LoadBalancer loadBalancer;
+
+  public LoadBalancingTransport(HttpTransport transport, LoadBalancer loadBalancer) {
+    this.transport = transport;
+    this.loadBalancer = loadBalancer;
+  }
+
+  @Override
+  public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+    LoadBalancer.Target target = loadBalancer.choose();
+    HttpUriRequest routed = route(request, target);
+    long start = System.nanoTime();
+    CloseableHttpResponse response;
+    try {
+      response = transport.execute(routed);
+    } catch (IOException e) {
+      onFailure(target, start, e);
+      throw e;
+    } catch (RuntimeException e) {
+      target.abandoned();
+      throw e;
+    }
+    target.succeeded(System.nanoTime() - start, response.getStatusLine().getStatusCode());
+    return response;
+  }
+
+  @Override
+  public Future<HttpResponse> execute(
+      HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+    LoadBalancer.Target target = loadBalancer.choose();
+    final HttpUriRequest routed;
+    try {
+      routed = route(request, target);
+    } catch (ClientProtocolException e) {
+      if (Objects.nonNull(callback)) {
+        callback.failed(e);
+      }
+      return CompletableFuture.failedFuture(e);
+    }
+    long start = System.nanoTime();
+    try {
+      return transport.execute(
+          routed,
+          new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+              target.succeeded(System.nanoTime() - start, response.getStatusLine().getStatusCode());
+              if (Objects.nonNull(callback)) {
+                callback.completed(response);
+              }
+            }
+
+            @Override
+            public void failed(Exception e) {
+              onFailure(target, start, e);
+              if (Objects.nonNull(callback)) {
+                callback.failed(e);
+              }
+            }
+
+            @Override
+            public void cancelled() {
+              target.abandoned();
+              if (Objects.nonNull(callback)) {
+                callback.cancelled();
+              }
+            }
+          });
+    } catch (RuntimeException e) {
+      target.abandoned();
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    return transport.isAsyncSupported();
+  }
+
+  @Override
+  public int openConnections(HttpRoute route, int connections, int timeoutMs)
+      throws IOException, InterruptedException {
+    return transport.openConnections(route, connections, timeoutMs);
+  }
+
+  @Override
+  public RequestConfig getDefaultRequestConfig() {
+    return transport.getDefaultRequestConfig();
+  }
+
+  @Override
+  public void close() throws IOException {
+    transport.close();
+  }
+
+  /** Points the request at the target, in place so that aborting the request still reaches it. */
+  private static HttpUriRequest route(HttpUriRequest request, LoadBalancer.Target target)
+      throws ClientProtocolException {
+    try {
+      var uri = URIUtils.rewriteURI(request.getURI(), target.getHttpHost(), URIUtils.NO_FLAGS);
+      if (request instanceof HttpRequestBase requestBase) {
+        requestBase.setURI(uri);
+        return requestBase;
+      }
+      return RequestBuilder.copy(request).setUri(uri).build();
+    } catch (URISyntaxException e) {
+      target.abandoned();
+      throw new ClientProtocolException(e);
+    }
+  }
+
+  /** Timeouts count against the target, aborts and waiting for a pooled connection don't. */
+  private static void onFailure(LoadBalancer.Target target, long start, Exception e) {
+    if (e instanceof InterruptedIOException
+        && !(e instanceof SocketTimeoutException)
+        && (!(e instanceof ConnectTimeoutException)
+            || e instanceof ConnectionPoolTimeoutException)) {
+      target.abandoned();
+    } else {
+      target.failed(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link BufferLease} a response body held in a buffer of a {@link BufferPool}. The buffer goes
+ * back to the pool on {@link #close()}, after which none of the accessors may be used any more; a
+ * caller that keeps the body has to copy it with {@link #toByteArray()} first. A lease has a single
+ * owner and is not thread safe.
+ */
+public final class BufferLease implements AutoCloseable {
+
+  private final BufferPool pool;
+  private final BufferPool.LeakTracker leakTracker;
+  private byte[] buffer;
+  private final int length;
+
+  BufferLease(BufferPool pool, byte[] buffer, int length) {
+    this.pool = pool;
+    this.buffer = buffer;
+    this.length = length;
+    this.leakTracker = pool.track(this, buffer.length);
+  }
+
+  /** The backing buffer, the body is its first {@link #length()} bytes. */
+  public byte[] array() {
+    ensureOpen();
+    return buffer;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public boolean isEmpty() {
+    return length == 0;
+  }
+
+  public InputStream inputStream() {
+    return new ByteArrayInputStream(array(), 0, length);
+  }
+
+  /** A right-sized copy that stays valid after the lease is closed. */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(array(), length);
+  }
+
+  public String toString(Charset charset) {
+    return new String(array(), 0, length, charset);
+  }
+
+  @Override
+  public void close() {
+    if (Objects.isNull(buffer)) {
+      return;
+    }
+    pool.release(buffer);
+    buffer = null;
+    if (Objects.nonNull(leakTracker)) {
+      leakTracker.released();
+    }
+  }
+
+  private void ensureOpen() {
+    if (Objects.isNull(buffer)) {
+      throw new IllegalStateException("buffer lease already released");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BufferLease[length=" + length + (Objects.isNull(buffer) ? ", released]" : "]");
+  }
+}
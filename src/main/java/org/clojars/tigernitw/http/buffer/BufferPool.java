@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link BufferPool} heap buffers for response bodies in power of two size classes from {@code
+ * MIN_BUFFER_BYTES} up to {@code maxBufferBytes}. A body is read into a buffer of the class its
+ * content length fits, or grown class by class when the length is unknown; larger bodies get plain
+ * arrays that are left to the garbage collector. Idle buffers never hold more than {@code
+ * maxPoolBytes}, surplus buffers are dropped on release.
+ */
+@Slf4j
+public class BufferPool {
+
+  private static final int MIN_BUFFER_BYTES = 4096;
+  private static final int MAX_ARRAY_BYTES = Integer.MAX_VALUE - 8;
+
+  private final int maxBufferBytes;
+  private final long maxPoolBytes;
+  private final List<ArrayBlockingQueue<byte[]>> sizeClasses;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final boolean leakDetection;
+
+  public BufferPool(HttpClientConfiguration.BufferPoolConfig bufferPoolConfig) {
+    this.maxBufferBytes =
+        Integer.highestOneBit(Math.max(bufferPoolConfig.getMaxBufferBytes(), MIN_BUFFER_BYTES));
+    this.maxPoolBytes = bufferPoolConfig.getMaxPoolBytes();
+    this.leakDetection = bufferPoolConfig.isLeakDetection();
+    int classes = Integer.numberOfTrailingZeros(maxBufferBytes / MIN_BUFFER_BYTES) + 1;
+    var sizeClasses = new ArrayList<ArrayBlockingQueue<byte[]>>(classes);
+    for (int i = 0; i < classes; i++) {
+      long capacity = Math.max(1, Math.min(maxPoolBytes / ((long) MIN_BUFFER_BYTES << i), 1024));
+      sizeClasses.add(new ArrayBlockingQueue<>((int) capacity));
+    }
+    this.sizeClasses = List.copyOf(sizeClasses);
+  }
+
+  /** Bytes held by idle buffers. */
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  /** Reads the whole entity into a leased buffer, {@code null} when there is no body. */
+  public BufferLease read(HttpEntity entity) throws IOException {
+    if (Objects.isNull(entity)) {
+      return null;
+    }
+    try (InputStream content = entity.getContent()) {
+      if (Objects.isNull(content)) {
+        return null;
+      }
+      long contentLength = entity.getContentLength();
+      byte[] buffer =
+          acquire(contentLength > 0 && contentLength <= maxBufferBytes ? (int) contentLength : 0);
+      int length = 0;
+      try {
+        while (true) {
+          int read = content.read(buffer, length, buffer.length - length);
+          if (read == -1) {
+            break;
+          }
+          length += read;
+          if (length == buffer.length) {
+            // a body filling the buffer exactly must not cost the next size class
+            int next = content.read();
+            if (next == -1) {
+              break;
+            }
+            byte[] larger = acquire((int) Math.min((long) buffer.length * 2, MAX_ARRAY_BYTES));
+            System.arraycopy(buffer, 0, larger, 0, length);
+            release(buffer);
+            buffer = larger;
+            buffer[length++] = (byte) next;
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        release(buffer);
+        throw e;
+      }
+      return new BufferLease(this, buffer, length);
+    }
+  }
+
+  private byte[] acquire(int minCapacity) {
+    if (minCapacity > maxBufferBytes) {
+      return new byte[minCapacity];
+    }
+    int sizeClass = sizeClass(minCapacity);
+    byte[] buffer = sizeClasses.get(sizeClass).poll();
+    if (Objects.isNull(buffer)) {
+      return new byte[MIN_BUFFER_BYTES << sizeClass];
+    }
+    pooledBytes.addAndGet(-buffer.length);
+    return buffer;
+  }
+
+  void release(byte[] buffer) {
+    int size = buffer.length;
+    if (size > maxBufferBytes || Integer.bitCount(size) != 1 || size < MIN_BUFFER_BYTES) {
+      return;
+    }
+    if (pooledBytes.addAndGet(size) > maxPoolBytes
+        || !sizeClasses.get(sizeClass(size)).offer(buffer)) {
+      pooledBytes.addAndGet(-size);
+    }
+  }
+
+  private static int sizeClass(int capacity) {
+    if (capacity <= MIN_BUFFER_BYTES) {
+      return 0;
+    }
+    return 32
+        - Integer.numberOfLeadingZeros(capacity - 1)
+        - Integer.numberOfTrailingZeros(MIN_BUFFER_BYTES);
+  }
+
+  /** Registers the lease with the leak detector, {@code null} when detection is off. */
+  LeakTracker track(BufferLease lease, int size) {
+    if (!leakDetection) {
+      return null;
+    }
+    var tracker = new LeakTracker(size, new Throwable("buffer leased here"));
+    LeakDetector.CLEANER.register(lease, tracker);
+    return tracker;
+  }
+
+  /** Reports a lease that became unreachable without being closed. */
+  static final class LeakTracker implements Runnable {
+
+    private final int size;
+    private final Throwable leasedAt;
+    private volatile boolean released;
+
+    private LeakTracker(int size, Throwable leasedAt) {
+      this.size = size;
+      this.leasedAt = leasedAt;
+    }
+
+    void released() {
+      released = true;
+    }
+
+    @Override
+    public void run() {
+      if (!released) {
+        log.error("BufferPool :: leak :: buffer of {} bytes was never released", size, leasedAt);
+      }
+    }
+  }
+
+  /** Holder so the cleaner thread only starts when leak detection is used. */
+  private static final class LeakDetector {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.cache;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+
+/**
+ * {@link CachePolicy} HTTP caching rules (RFC 9111) of a shared cache, the cache serves every
+ * caller of the client.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CachePolicy {
+
+  static final long NOT_STORABLE = -1;
+
+  private static final String NO_STORE = "no-store";
+  private static final String NO_CACHE = "no-cache";
+  private static final String MAX_AGE = "max-age";
+  private static final String S_MAXAGE = "s-maxage";
+  private static final String PRIVATE = "private";
+  private static final String PUBLIC = "public";
+  private static final String MUST_REVALIDATE = "must-revalidate";
+  private static final String ACCEPT_ENCODING = "accept-encoding";
+  private static final String[] FRESHNESS_HEADERS = {
+    HttpHeaders.CACHE_CONTROL, HttpHeaders.EXPIRES
+  };
+
+  /**
+   * Milliseconds the response stays fresh, {@code 0} when it has to be revalidated before every
+   * reuse and {@link #NOT_STORABLE} when it must not be stored at all.
+   *
+   * @param request the request the response answers, {@code null} when unknown
+   */
+  static long freshnessLifetime(HttpRequest request, HttpResponse response, long now) {
+    if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK
+        || !isVaryCompatible(response)) {
+      return NOT_STORABLE;
+    }
+    return lifetime(request, response, now);
+  }
+
+  /**
+   * Freshness of a stored response confirmed by a {@code 304 Not Modified}, status and {@code Vary}
+   * were checked when it was stored. {@link #NOT_STORABLE} when the origin now forbids storing it.
+   *
+   * @param updated the stored headers updated by the 304, see {@link #updated}
+   */
+  static long revalidatedLifetime(HttpResponse updated, long now) {
+    return lifetime(null, updated, now);
+  }
+
+  /**
+   * The stored headers updated by a {@code 304 Not Modified}: headers of the 304 replace the stored
+   * ones of the same name (RFC 9111 §4.3.4).
+   *
+   * @param storedHeaders the {@link #freshnessHeaders} of the stored response
+   */
+  static HttpResponse updated(HttpResponse notModified, Header[] storedHeaders) {
+    var updated = new BasicHttpResponse(notModified.getStatusLine());
+    for (Header header : storedHeaders) {
+      if (!notModified.containsHeader(header.getName())) {
+        updated.addHeader(header);
+      }
+    }
+    for (Header header : notModified.getAllHeaders()) {
+      updated.addHeader(header);
+    }
+    return updated;
+  }
+
+  /**
+   * Headers of a stored response that still apply after a revalidation, {@code Date} and {@code
+   * Age} describe the stored message itself.
+   */
+  static Header[] freshnessHeaders(HttpResponse response) {
+    return Arrays.stream(FRESHNESS_HEADERS)
+        .flatMap(name -> Arrays.stream(response.getHeaders(name)))
+        .toArray(Header[]::new);
+  }
+
+  private static long lifetime(HttpRequest request, HttpResponse response, long now) {
+    Long maxAgeSeconds = null;
+    Long sharedMaxAgeSeconds = null;
+    boolean noCache = false;
+    boolean sharable = false;
+    for (Header header : response.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+      for (HeaderElement element : header.getElements()) {
+        switch (element.getName().toLowerCase(Locale.ROOT)) {
+          case NO_STORE, PRIVATE -> {
+            return NOT_STORABLE;
+          }
+          case NO_CACHE -> noCache = true;
+          case MAX_AGE -> maxAgeSeconds = parseSeconds(element.getValue());
+          case S_MAXAGE -> {
+            sharedMaxAgeSeconds = parseSeconds(element.getValue());
+            sharable = true;
+          }
+          case PUBLIC, MUST_REVALIDATE -> sharable = true;
+          default -> {
+            // other directives do not concern a client side cache
+          }
+        }
+      }
+    }
+    // a response to an authorized request is only shared when the origin allows it
+    if (Objects.nonNull(request)
+        && request.containsHeader(HttpHeaders.AUTHORIZATION)
+        && !sharable) {
+      return NOT_STORABLE;
+    }
+    if (Objects.nonNull(sharedMaxAgeSeconds)) {
+      maxAgeSeconds = sharedMaxAgeSeconds;
+    }
+    if (noCache) {
+      return 0;
+    }
+    Long ageSeconds = parseSeconds(header(response, HttpHeaders.AGE));
+    long age = Objects.nonNull(ageSeconds) ? ageSeconds * 1000 : 0;
+    if (Objects.nonNull(maxAgeSeconds)) {
+      return Math.max(0, maxAgeSeconds * 1000 - age);
+    }
+    String expiresHeader = header(response, HttpHeaders.EXPIRES);
+    if (Objects.nonNull(expiresHeader)) {
+      // an invalid Expires value, e.g. "0", means already expired
+      Date expires = DateUtils.parseDate(expiresHeader);
+      if (Objects.isNull(expires)) {
+        return 0;
+      }
+      String dateHeader = header(response, HttpHeaders.DATE);
+      Date date = Objects.nonNull(dateHeader) ? DateUtils.parseDate(dateHeader) : null;
+      long origin = Objects.nonNull(date) ? date.getTime() : now;
+      return Math.max(0, expires.getTime() - origin - age);
+    }
+    return 0;
+  }
+
+  static String header(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return Objects.nonNull(header) ? header.getValue() : null;
+  }
+
+  /**
+   * The cache key only holds the headers set by the caller, so only responses not varying on other
+   * headers are stored.
+   */
+  private static boolean isVaryCompatible(HttpResponse response) {
+    for (Header header : response.getHeaders(HttpHeaders.VARY)) {
+      for (HeaderElement element : header.getElements()) {
+        if (!ACCEPT_ENCODING.equalsIgnoreCase(element.getName())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Long parseSeconds(String value) {
+    if (Objects.isNull(value)) {
+      return null;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
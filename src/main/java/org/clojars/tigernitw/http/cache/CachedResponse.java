@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+/**
+ * {@link CachedResponse} a stored successful response: the raw body, its validators and the point
+ * in time until which it may be served without contacting the origin.
+ */
+@Getter
+public class CachedResponse {
+
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final byte[] body;
+  private final String eTag;
+  private final String lastModified;
+  private final long freshUntil;
+  private final Header[] freshnessHeaders;
+  private final Map<JavaType, Object> values;
+
+  CachedResponse(
+      byte[] body,
+      String eTag,
+      String lastModified,
+      long freshUntil,
+      Header[] freshnessHeaders,
+      Map<JavaType, Object> values) {
+    this.body = body;
+    this.eTag = eTag;
+    this.lastModified = lastModified;
+    this.freshUntil = freshUntil;
+    this.freshnessHeaders = freshnessHeaders;
+    this.values = values;
+  }
+
+  static CachedResponse of(
+      HttpResponse response, byte[] body, long freshUntil, boolean cacheDeserialized) {
+    return new CachedResponse(
+        body,
+        CachePolicy.header(response, HttpHeaders.ETAG),
+        CachePolicy.header(response, HttpHeaders.LAST_MODIFIED),
+        freshUntil,
+        CachePolicy.freshnessHeaders(response),
+        cacheDeserialized ? new ConcurrentHashMap<>() : null);
+  }
+
+  /**
+   * Same body with validators and freshness refreshed from a {@code 304 Not Modified}.
+   *
+   * @param updated the stored headers updated by the 304
+   */
+  CachedResponse revalidated(HttpResponse updated, long freshUntil) {
+    var newETag = CachePolicy.header(updated, HttpHeaders.ETAG);
+    var newLastModified = CachePolicy.header(updated, HttpHeaders.LAST_MODIFIED);
+    return new CachedResponse(
+        body,
+        Objects.nonNull(newETag) ? newETag : eTag,
+        Objects.nonNull(newLastModified) ? newLastModified : lastModified,
+        freshUntil,
+        CachePolicy.freshnessHeaders(updated),
+        values);
+  }
+
+  public boolean isFresh(long now) {
+    return now < freshUntil;
+  }
+
+  public boolean hasValidators() {
+    return Objects.nonNull(eTag) || Objects.nonNull(lastModified);
+  }
+
+  /** Turns the request into a conditional one so an unchanged body comes back as a 304. */
+  public void addValidators(HttpRequest request) {
+    if (Objects.nonNull(eTag)) {
+      request.setHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+    }
+    if (Objects.nonNull(lastModified)) {
+      request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+    }
+  }
+
+  /**
+   * Deserialized value for the response type, decoded once per type when the cache keeps
+   * deserialized objects and on every call otherwise.
+   */
+  public <T> T value(JavaType responseType, Decoder<T> decoder) throws Exception {
+    if (Objects.isNull(values)) {
+      return decoder.decode(responseType);
+    }
+    // values are only stored by the decoder of their response type
+    @SuppressWarnings("unchecked")
+    T value = (T) values.get(responseType);
+    if (Objects.isNull(value)) {
+      value = decoder.decode(responseType);
+      if (Objects.nonNull(value)) {
+        values.putIfAbsent(responseType, value);
+      }
+    }
+    return value;
+  }
+
+  int weight() {
+    return body.length + ENTRY_OVERHEAD_BYTES;
+  }
+
+  @FunctionalInterface
+  public interface Decoder<T> {
+
+    T decode(JavaType responseType) throws Exception;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link ResponseCache} size bounded in-memory cache of GET responses honoring {@code
+ * Cache-Control}/{@code Expires} freshness and revalidating stale entries with {@code ETag} and
+ * {@code Last-Modified}. Eviction is frequency aware (W-TinyLFU), so a burst of one-off URLs does
+ * not flush the hot reference data.
+ */
+public class ResponseCache {
+
+  private final Cache<String, CachedResponse> entries;
+  private final int maxEntryBytes;
+  private final boolean cacheDeserialized;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public ResponseCache(HttpClientConfiguration.CacheConfig cacheConfig) {
+    this.entries =
+        Caffeine.newBuilder()
+            .maximumWeight(cacheConfig.getMaxSizeBytes())
+            .<String, CachedResponse>weigher((key, entry) -> entry.weight())
+            .recordStats()
+            .build();
+    this.maxEntryBytes = cacheConfig.getMaxEntryBytes();
+    this.cacheDeserialized = cacheConfig.isCacheDeserialized();
+  }
+
+  /**
+   * Entry usable for the key, either fresh or stale with validators for a conditional request.
+   * Stale entries that cannot be revalidated are dropped.
+   */
+  public CachedResponse lookup(String key, long now) {
+    CachedResponse entry = entries.getIfPresent(key);
+    if (Objects.isNull(entry)) {
+      misses.increment();
+      return null;
+    }
+    if (entry.isFresh(now)) {
+      hits.increment();
+    } else if (!entry.hasValidators()) {
+      entries.invalidate(key);
+      misses.increment();
+      return null;
+    }
+    return entry;
+  }
+
+  /** Stores a full response, returns {@code null} when the response is not cacheable. */
+  public CachedResponse store(String key, HttpResponse response, byte[] body, long now) {
+    return store(key, null, response, body, now);
+  }
+
+  /**
+   * Stores a full response, returns {@code null} when the response is not cacheable.
+   *
+   * @param request the request the response answers, responses to authorized requests are only
+   *     stored when marked sharable
+   */
+  public CachedResponse store(
+      String key, HttpRequest request, HttpResponse response, byte[] body, long now) {
+    if (Objects.isNull(body) || body.length > maxEntryBytes) {
+      return null;
+    }
+    long lifetime = CachePolicy.freshnessLifetime(request, response, now);
+    if (lifetime == CachePolicy.NOT_STORABLE) {
+      return null;
+    }
+    var entry = CachedResponse.of(response, body, now + lifetime, cacheDeserialized);
+    if (lifetime == 0 && !entry.hasValidators()) {
+      return null;
+    }
+    entries.put(key, entry);
+    return entry;
+  }
+
+  /** Refreshes a stale entry after the origin confirmed it with {@code 304 Not Modified}. */
+  public CachedResponse revalidated(
+      String key, CachedResponse entry, HttpResponse notModified, long now) {
+    revalidations.increment();
+    var updated = CachePolicy.updated(notModified, entry.getFreshnessHeaders());
+    long lifetime = CachePolicy.revalidatedLifetime(updated, now);
+    var refreshed = entry.revalidated(updated, now + Math.max(lifetime, 0));
+    if (lifetime == CachePolicy.NOT_STORABLE) {
+      entries.invalidate(key);
+    } else {
+      entries.put(key, refreshed);
+    }
+    return refreshed;
+  }
+
+  /** A stale entry whose conditional request did not come back as a 304 ends up as a miss. */
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void invalidate(String key) {
+    entries.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  public ResponseCacheStats stats() {
+    return ResponseCacheStats.builder()
+        .hitCount(hits.sum())
+        .revalidatedCount(revalidations.sum())
+        .missCount(misses.sum())
+        .evictionCount(entries.stats().evictionCount())
+        .entryCount(entries.estimatedSize())
+        .build();
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.clojars.tigernitw.http.executor.PlannedHttpExecutor;
+import org.clojars.tigernitw.http.model.HttpHeader;
+import org.clojars.tigernitw.http.model.HttpMethod;
+import org.clojars.tigernitw.http.registry.HttpClientRegistry;
+import org.clojars.tigernitw.http.registry.NamedHttpClient;
+
+/**
+ * {@link HttpApiFactory} creates the proxy of an {@link HttpApi} interface. Every method is
+ * validated and compiled into a {@link PlannedHttpExecutor} up front, so a misconfigured interface
+ * fails at startup and a call only binds its arguments.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class HttpApiFactory {
+
+  /** Prefix of the classes generated at build time by {@code HttpApiProcessor}. */
+  public static final String GENERATED_PREFIX = "HttpApi_";
+
+  public static <T> T create(Class<T> apiType, HttpClientRegistry httpClientRegistry) {
+    HttpApi httpApi = apiType.getAnnotation(HttpApi.class);
+    if (Objects.isNull(httpApi)) {
+      throw new IllegalArgumentException(apiType.getName() + " is not annotated with @HttpApi");
+    }
+    return create(apiType, httpClientRegistry.get(httpApi.value()));
+  }
+
+  public static <T> T create(Class<T> apiType, NamedHttpClient namedHttpClient) {
+    if (!apiType.isInterface()) {
+      throw new IllegalArgumentException(apiType.getName() + " is not an interface");
+    }
+    T generated = generated(apiType, namedHttpClient);
+    if (Objects.nonNull(generated)) {
+      return generated;
+    }
+    Map<Method, MethodInvoker> invokers = new HashMap<>();
+    for (Method method : apiType.getMethods()) {
+      if (!Modifier.isStatic(method.getModifiers()) && !method.isDefault()) {
+        invokers.put(method, invoker(method, namedHttpClient));
+      }
+    }
+    log.info(
+        "HttpApiFactory :: create :: {} with {} methods on client {}",
+        apiType.getName(),
+        invokers.size(),
+        namedHttpClient.getName());
+    return apiType.cast(
+        Proxy.newProxyInstance(
+            apiType.getClassLoader(),
+            new Class<?>[] {apiType},
+            new HttpApiInvocationHandler(apiType, Map.copyOf(invokers))));
+  }
+
+  /** Build time generated implementation, {@code null} when the processor did not run. */
+  private static <T> T generated(Class<T> apiType, NamedHttpClient namedHttpClient) {
+    String packagePrefix = apiType.getPackageName().isEmpty() ? "" : apiType.getPackageName() + ".";
+    String generatedName =
+        packagePrefix
+            + GENERATED_PREFIX
+            + apiType.getName().substring(packagePrefix.length()).replace('$', '_');
+    try {
+      Class<?> generatedType = Class.forName(generatedName, true, apiType.getClassLoader());
+      return apiType.cast(
+          generatedType.getConstructor(NamedHttpClient.class).newInstance(namedHttpClient));
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("cannot create " + generatedName, e);
+    }
+  }
+
+  private static MethodInvoker invoker(Method method, NamedHttpClient namedHttpClient) {
+    HttpMethod httpMethod;
+    String pathTemplate;
+    String[] headers;
+    if (method.isAnnotationPresent(Get.class)) {
+      httpMethod = HttpMethod.GET;
+      pathTemplate = method.getAnnotation(Get.class).value();
+      headers = method.getAnnotation(Get.class).headers();
+    } else if (method.isAnnotationPresent(Post.class)) {
+      httpMethod = HttpMethod.POST;
+      pathTemplate = method.getAnnotation(Post.class).value();
+      headers = method.getAnnotation(Post.class).headers();
+    } else if (method.isAnnotationPresent(Put.class)) {
+      httpMethod = HttpMethod.PUT;
+      pathTemplate = method.getAnnotation(Put.class).value();
+      headers = method.getAnnotation(Put.class).headers();
+    } else {
+      throw new IllegalArgumentException(describe(method) + " has no @Get, @Post or @Put");
+    }
+
+    boolean async = CompletableFuture.class.equals(method.getReturnType());
+    JavaType returnType =
+        namedHttpClient.getObjectMapper().constructType(method.getGenericReturnType());
+    var executor =
+        namedHttpClient.plannedExecutor(
+            httpMethod,
+            pathTemplate,
+            staticHeaders(method, headers),
+            async ? returnType.containedTypeOrUnknown(0) : returnType);
+    List<String> variableNames = executor.getRequestPlan().getVariableNames();
+    int[] pathIndexes = new int[variableNames.size()];
+    Arrays.fill(pathIndexes, -1);
+    List<String> queryNames = new ArrayList<>();
+    List<Integer> queryIndexes = new ArrayList<>();
+    List<String> headerNames = new ArrayList<>();
+    List<Integer> headerIndexes = new ArrayList<>();
+    int bodyIndex = -1;
+    Parameter[] parameters = method.getParameters();
+    for (int i = 0; i < parameters.length; i++) {
+      Parameter parameter = parameters[i];
+      if (parameter.isAnnotationPresent(Path.class)) {
+        int variable = variableNames.indexOf(parameter.getAnnotation(Path.class).value());
+        if (variable < 0) {
+          throw new IllegalArgumentException(
+              describe(method) + " has no path variable " + parameter.getAnnotation(Path.class));
+        }
+        pathIndexes[variable] = i;
+      } else if (parameter.isAnnotationPresent(Query.class)) {
+        queryNames.add(parameter.getAnnotation(Query.class).value());
+        queryIndexes.add(i);
+      } else if (parameter.isAnnotationPresent(Header.class)) {
+        headerNames.add(parameter.getAnnotation(Header.class).value());
+        headerIndexes.add(i);
+      } else if (parameter.isAnnotationPresent(Body.class) && bodyIndex < 0) {
+        bodyIndex = i;
+      } else {
+        throw new IllegalArgumentException(
+            describe(method) + " parameter " + i + " needs one of @Path, @Query, @Header, @Body");
+      }
+    }
+    for (int i = 0; i < pathIndexes.length; i++) {
+      if (pathIndexes[i] < 0) {
+        throw new IllegalArgumentException(
+            describe(method) + " does not bind path variable " + variableNames.get(i));
+      }
+    }
+    if (httpMethod != HttpMethod.GET && bodyIndex < 0) {
+      throw new IllegalArgumentException(describe(method) + " needs a @Body parameter");
+    }
+
+    return MethodInvoker.builder()
+        .executor(executor)
+        .async(async)
+        .pathIndexes(pathIndexes)
+        .queryNames(queryNames.toArray(String[]::new))
+        .queryIndexes(queryIndexes.stream().mapToInt(Integer::intValue).toArray())
+        .headerNames(headerNames.toArray(String[]::new))
+        .headerIndexes(headerIndexes.stream().mapToInt(Integer::intValue).toArray())
+        .bodyIndex(bodyIndex)
+        .build();
+  }
+
+  private static List<HttpHeader> staticHeaders(Method method, String[] headers) {
+    List<HttpHeader> httpHeaders = new ArrayList<>(headers.length);
+    for (String header : headers) {
+      int separator = header.indexOf(':');
+      if (separator <= 0) {
+        throw new IllegalArgumentException(
+            describe(method) + " header is not 'Name: value': " + header);
+      }
+      httpHeaders.add(
+          new HttpHeader(
+              header.substring(0, separator).trim(), header.substring(separator + 1).trim()));
+    }
+    return httpHeaders;
+  }
+
+  private static String describe(Method method) {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client;
+
+import lombok.RequiredArgsConstructor;
+import org.clojars.tigernitw.http.registry.HttpClientRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.FactoryBean;
+
+/** Creates the proxy of one {@link HttpApi} interface from the registry client it names. */
+@RequiredArgsConstructor
+public class HttpApiFactoryBean<T> implements FactoryBean<T>, BeanFactoryAware {
+
+  private final Class<T> apiType;
+  private BeanFactory beanFactory;
+
+  @Override
+  public void setBeanFactory(BeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+  }
+
+  @Override
+  public T getObject() {
+    return HttpApiFactory.create(apiType, beanFactory.getBean(HttpClientRegistry.class));
+  }
+
+  @Override
+  public Class<?> getObjectType() {
+    return apiType;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+
+/** Dispatches interface calls to their precompiled {@link MethodInvoker}. */
+@RequiredArgsConstructor
+class HttpApiInvocationHandler implements InvocationHandler {
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private final Class<?> apiType;
+  private final Map<Method, MethodInvoker> invokers;
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    MethodInvoker invoker = invokers.get(method);
+    if (invoker != null) {
+      return invoker.invoke(args == null ? NO_ARGS : args);
+    }
+    if (method.isDefault()) {
+      return InvocationHandler.invokeDefault(proxy, method, args);
+    }
+    return switch (method.getName()) {
+      case "equals" -> proxy == args[0];
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "toString" -> apiType.getName()
+          + "@"
+          + Integer.toHexString(System.identityHashCode(proxy));
+      default -> throw new UnsupportedOperationException(method.toString());
+    };
+  }
+}
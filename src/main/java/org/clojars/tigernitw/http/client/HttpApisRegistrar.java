@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+/** Scans for {@link HttpApi} interfaces and registers a {@link HttpApiFactoryBean} for each. */
+class HttpApisRegistrar implements ImportBeanDefinitionRegistrar {
+
+  @Override
+  public void registerBeanDefinitions(
+      AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+    Map<String, Object> attributes =
+        importingClassMetadata.getAnnotationAttributes(EnableHttpApis.class.getName());
+    String[] basePackages = (String[]) attributes.get("basePackages");
+    List<String> packages =
+        basePackages.length > 0
+            ? Arrays.asList(basePackages)
+            : List.of(ClassUtils.getPackageName(importingClassMetadata.getClassName()));
+
+    var scanner =
+        new ClassPathScanningCandidateComponentProvider(false) {
+          @Override
+          protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+            return beanDefinition.getMetadata().isInterface()
+                && beanDefinition.getMetadata().isIndependent();
+          }
+        };
+    scanner.addIncludeFilter(new AnnotationTypeFilter(HttpApi.class));
+    for (String basePackage : packages) {
+      for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+        String apiType = candidate.getBeanClassName();
+        registry.registerBeanDefinition(
+            apiType,
+            BeanDefinitionBuilder.genericBeanDefinition(HttpApiFactoryBean.class)
+                .addConstructorArgValue(apiType)
+                .getBeanDefinition());
+      }
+    }
+  }
+}
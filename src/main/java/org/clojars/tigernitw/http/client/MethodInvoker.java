@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import lombok.Builder;
+import org.clojars.tigernitw.http.executor.PlannedHttpExecutor;
+import org.clojars.tigernitw.http.model.HttpHeader;
+import org.clojars.tigernitw.http.model.QueryParam;
+
+/**
+ * {@link MethodInvoker} the metadata of one interface method resolved at startup: the shared
+ * executor and the argument positions of path variables, query parameters, headers and body.
+ */
+@Builder
+class MethodInvoker {
+
+  private static final int NONE = -1;
+
+  private final PlannedHttpExecutor executor;
+  private final boolean async;
+
+  /** Argument index per path variable, in template order. */
+  private final int[] pathIndexes;
+
+  private final String[] queryNames;
+  private final int[] queryIndexes;
+  private final String[] headerNames;
+  private final int[] headerIndexes;
+  @Builder.Default private final int bodyIndex = NONE;
+
+  Object invoke(Object[] args) throws Exception {
+    Object[] pathVariables = new Object[pathIndexes.length];
+    for (int i = 0; i < pathIndexes.length; i++) {
+      pathVariables[i] = args[pathIndexes[i]];
+    }
+    List<QueryParam> queryParams = queryParams(args);
+    List<HttpHeader> httpHeaders = httpHeaders(args);
+    Object body = bodyIndex == NONE ? null : args[bodyIndex];
+    return async
+        ? executor.invokeAsync(pathVariables, queryParams, httpHeaders, body)
+        : executor.invoke(pathVariables, queryParams, httpHeaders, body);
+  }
+
+  private List<QueryParam> queryParams(Object[] args) {
+    if (queryIndexes.length == 0) {
+      return null;
+    }
+    List<QueryParam> queryParams = new ArrayList<>(queryIndexes.length);
+    for (int i = 0; i < queryIndexes.length; i++) {
+      Object value = args[queryIndexes[i]];
+      if (value instanceof Collection<?> values) {
+        for (Object element : values) {
+          if (Objects.nonNull(element)) {
+            queryParams.add(new QueryParam(queryNames[i], element.toString()));
+          }
+        }
+      } else if (Objects.nonNull(value)) {
+        queryParams.add(new QueryParam(queryNames[i], value.toString()));
+      }
+    }
+    return queryParams;
+  }
+
+  private List<HttpHeader> httpHeaders(Object[] args) {
+    if (headerIndexes.length == 0) {
+      return null;
+    }
+    List<HttpHeader> httpHeaders = new ArrayList<>(headerIndexes.length);
+    for (int i = 0; i < headerIndexes.length; i++) {
+      Object value = args[headerIndexes[i]];
+      if (Objects.nonNull(value)) {
+        httpHeaders.add(new HttpHeader(headerNames[i], value.toString()));
+      }
+    }
+    return httpHeaders;
+  }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import org.clojars.tigernitw.http.client.Body;
+import org.clojars.tigernitw.http.client.Get;
+import org.clojars.tigernitw.http.client.Header;
+import org.clojars.tigernitw.http.client.HttpApi;
+import org.clojars.tigernitw.http.client.HttpApiFactory;
+import org.clojars.tigernitw.http.client.Path;
+import org.clojars.tigernitw.http.client.Post;
+import org.clojars.tigernitw.http.client.Put;
+import org.clojars.tigernitw.http.client.Query;
+
+/**
+ * {@link HttpApiProcessor} generates an implementation of every {@link HttpApi} interface at build
+ * time. The generated {@code HttpApi_<Name>} binds arguments in plain code and calls a {@code
+ * PlannedHttpExecutor} per method, so there is no proxy, reflection or annotation lookup at
+ * runtime. {@link HttpApiFactory} picks the generated class up when it is present, or it can be
+ * constructed directly from the {@code HttpClientRegistry} or a {@code NamedHttpClient}.
+ *
+ * <p>Enable it by adding the starter next to Lombok in the compiler's {@code
+ * annotationProcessorPaths}.
+ */
+// the method and parameter annotations are claimed as well, they are only read through HttpApi
+@SupportedAnnotationTypes({
+  "org.clojars.tigernitw.http.client.HttpApi",
+  "org.clojars.tigernitw.http.client.Get",
+  "org.clojars.tigernitw.http.client.Post",
+  "org.clojars.tigernitw.http.client.Put",
+  "org.clojars.tigernitw.http.client.Path",
+  "org.clojars.tigernitw.http.client.Query",
+  "org.clojars.tigernitw.http.client.Header",
+  "org.clojars.tigernitw.http.client.Body"
+})
+public class HttpApiProcessor extends AbstractProcessor {
+
+  private static final Pattern PATH_VARIABLE = Pattern.compile("\\{([^}]+)}");
+  private static final String EXECUTOR = "org.clojars.tigernitw.http.executor.PlannedHttpExecutor";
+  private static final String NAMED_CLIENT = "org.clojars.tigernitw.http.registry.NamedHttpClient";
+  private static final String REGISTRY = "org.clojars.tigernitw.http.registry.HttpClientRegistry";
+  private static final String HTTP_METHOD = "org.clojars.tigernitw.http.model.HttpMethod";
+  private static final String HTTP_HEADER = "org.clojars.tigernitw.http.model.HttpHeader";
+  private static final String QUERY_PARAM = "org.clojars.tigernitw.http.model.QueryParam";
+  private static final String COMPLETABLE_FUTURE = "java.util.concurrent.CompletableFuture";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(HttpApi.class)) {
+      if (element.getKind() != ElementKind.INTERFACE) {
+        error(element, "@HttpApi is only supported on interfaces");
+      } else if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+        error(element, "@HttpApi interfaces cannot have type parameters");
+      } else {
+        generate((TypeElement) element);
+      }
+    }
+    return true;
+  }
+
+  private void generate(TypeElement api) {
+    String packageName =
+        processingEnv.getElementUtils().getPackageOf(api).getQualifiedName().toString();
+    String className = HttpApiFactory.GENERATED_PREFIX + nestedName(api);
+    List<ExecutableElement> methods = new ArrayList<>();
+    for (ExecutableElement method :
+        ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(api))) {
+      if (method.getEnclosingElement().getKind() == ElementKind.INTERFACE
+          && method.getModifiers().contains(Modifier.ABSTRACT)) {
+        methods.add(method);
+      }
+    }
+    boolean annotated = true;
+    for (ExecutableElement method : methods) {
+      if (method.getAnnotation(Get.class) == null
+          && method.getAnnotation(Post.class) == null
+          && method.getAnnotation(Put.class) == null) {
+        error(method, "method needs one of @Get, @Post or @Put");
+        annotated = false;
+      } else if (!method.getTypeParameters().isEmpty()) {
+        // the response type is resolved once per method when the client is built
+        error(method, "@HttpApi methods cannot have type parameters");
+        annotated = false;
+      }
+    }
+    if (!annotated) {
+      return;
+    }
+
+    var source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source
+        // a comment rather than @Generated, which no processor claims under -Xlint:processing
+        .append("// generated by ")
+        .append(HttpApiProcessor.class.getName())
+        .append("\n")
+        .append("public final class ")
+        .append(className)
+        .append(" implements ")
+        .append(api.getQualifiedName())
+        .append(" {\n\n");
+    for (int i = 0; i < methods.size(); i++) {
+      source
+          .append("  private final ")
+          .append(EXECUTOR)
+          .append(" executor")
+          .append(i)
+          .append(";\n");
+    }
+    source
+        .append("\n  public ")
+        .append(className)
+        .append("(")
+        .append(REGISTRY)
+        .append(" registry) {\n    this(registry.get(\"")
+        .append(escape(api.getAnnotation(HttpApi.class).value()))
+        .append("\"));\n  }\n\n  public ")
+        .append(className)
+        .append("(")
+        .append(NAMED_CLIENT)
+        .append(" client) {\n");
+    for (int i = 0; i < methods.size(); i++) {
+      appendExecutor(source, methods.get(i), i);
+    }
+    source.append("  }\n");
+    for (int i = 0; i < methods.size(); i++) {
+      appendMethod(source, methods.get(i), i);
+    }
+    source.append("}\n");
+
+    String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(qualifiedName, api).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException e) {
+      error(api, "cannot write " + qualifiedName + ": " + e.getMessage());
+    }
+  }
+
+  private void appendExecutor(StringBuilder source, ExecutableElement method, int index) {
+    String httpMethod;
+    String pathTemplate;
+    String[] headers;
+    if (method.getAnnotation(Get.class) != null) {
+      httpMethod = "GET";
+      pathTemplate = method.getAnnotation(Get.class).value();
+      headers = method.getAnnotation(Get.class).headers();
+    } else if (method.getAnnotation(Post.class) != null) {
+      httpMethod = "POST";
+      pathTemplate = method.getAnnotation(Post.class).value();
+      headers = method.getAnnotation(Post.class).headers();
+    } else {
+      httpMethod = "PUT";
+      pathTemplate = method.getAnnotation(Put.class).value();
+      headers = method.getAnnotation(Put.class).headers();
+    }
+    validateParameters(method, httpMethod, pathTemplate);
+
+    List<String> staticHeaders = new ArrayList<>();
+    for (String header : headers) {
+      int separator = header.indexOf(':');
+      if (separator <= 0) {
+        error(method, "header is not 'Name: value': " + header);
+        continue;
+      }
+      staticHeaders.add(
+          "new "
+              + HTTP_HEADER
+              + "(\""
+              + escape(header.substring(0, separator).trim())
+              + "\", \""
+              + escape(header.substring(separator + 1).trim())
+              + "\")");
+    }
+    source
+        .append("    this.executor")
+        .append(index)
+        .append(" =\n        client.plannedExecutor(\n            ")
+        .append(HTTP_METHOD)
+        .append('.')
+        .append(httpMethod)
+        .append(",\n            \"")
+        .append(escape(pathTemplate))
+        .append("\",\n            java.util.List.of(")
+        .append(String.join(", ", staticHeaders))
+        .append("),\n            ")
+        .append(javaType(responseType(method)))
+        .append(");\n");
+  }
+
+  private void validateParameters(ExecutableElement method, String httpMethod, String template) {
+    Set<String> variables = new LinkedHashSet<>();
+    Matcher matcher = PATH_VARIABLE.matcher(template);
+    while (matcher.find()) {
+      variables.add(matcher.group(1));
+    }
+    Set<String> bound = new HashSet<>();
+    int bodies = 0;
+    for (VariableElement parameter : method.getParameters()) {
+      if (parameter.getAnnotation(Path.class) != null) {
+        String name = parameter.getAnnotation(Path.class).value();
+        if (!variables.contains(name)) {
+          error(parameter, "path template " + template + " has no variable " + name);
+        }
+        bound.add(name);
+      } else if (parameter.getAnnotation(Body.class) != null) {
+        bodies++;
+      } else if (parameter.getAnnotation(Query.class) == null
+          && parameter.getAnnotation(Header.class) == null) {
+        error(parameter, "parameter needs one of @Path, @Query, @Header or @Body");
+      }
+    }
+    variables.removeAll(bound);
+    if (!variables.isEmpty()) {
+      error(method, "path variables not bound: " + variables);
+    }
+    if (bodies > 1 || (bodies == 0 && !"GET".equals(httpMethod))) {
+      error(method, httpMethod + " needs exactly one @Body parameter");
+    }
+  }
+
+  private void appendMethod(StringBuilder source, ExecutableElement method, int index) {
+    TypeMirror returnType = method.getReturnType();
+    source.append("\n  @Override\n  public ").append(returnType).append(' ');
+    source.append(method.getSimpleName()).append('(');
+    source.append(
+        method.getParameters().stream()
+            .map(parameter -> "final " + parameter.asType() + " " + parameter.getSimpleName())
+            .collect(Collectors.joining(", ")));
+    source.append(")");
+    if (!method.getThrownTypes().isEmpty()) {
+      source
+          .append(" throws ")
+          .append(
+              method.getThrownTypes().stream()
+                  .map(TypeMirror::toString)
+                  .collect(Collectors.joining(", ")));
+    }
+    source.append(" {\n");
+
+    List<String> pathArguments = new ArrayList<>();
+    Matcher matcher = PATH_VARIABLE.matcher(pathTemplate(method));
+    while (matcher.find()) {
+      for (VariableElement parameter : method.getParameters()) {
+        Path path = parameter.getAnnotation(Path.class);
+        if (path != null && path.value().equals(matcher.group(1))) {
+          pathArguments.add(parameter.getSimpleName().toString());
+          break;
+        }
+      }
+    }
+    String queryParams = "null";
+    String httpHeaders = "null";
+    String body = "null";
+    for (VariableElement parameter : method.getParameters()) {
+      if (parameter.getAnnotation(Query.class) != null) {
+        queryParams = "queryParams";
+      } else if (parameter.getAnnotation(Header.class) != null) {
+        httpHeaders = "httpHeaders";
+      } else if (parameter.getAnnotation(Body.class) != null) {
+        body = parameter.getSimpleName().toString();
+      }
+    }
+    if (!"null".equals(queryParams)) {
+      source
+          .append("    java.util.List<")
+          .append(QUERY_PARAM)
+          .append("> queryParams = new java.util.ArrayList<>();\n");
+    }
+    if (!"null".equals(httpHeaders)) {
+      source
+          .append("    java.util.List<")
+          .append(HTTP_HEADER)
+          .append("> httpHeaders = new java.util.ArrayList<>();\n");
+    }
+    for (VariableElement parameter : method.getParameters()) {
+      Query query = parameter.getAnnotation(Query.class);
+      Header header = parameter.getAnnotation(Header.class);
+      if (query != null) {
+        appendBinding(source, parameter, "queryParams", QUERY_PARAM, query.value());
+      } else if (header != null) {
+        appendBinding(source, parameter, "httpHeaders", HTTP_HEADER, header.value());
+      }
+    }
+
+    String call =
+        "executor"
+            + index
+            + (isFuture(returnType) ? ".invokeAsync(" : ".invoke(")
+            + "new Object[] {"
+            + String.join(", ", pathArguments)
+            + "}, "
+            + queryParams
+            + ", "
+            + httpHeaders
+            + ", "
+            + body
+            + ")";
+    if (isFuture(returnType)) {
+      source.append("    return ").append(call).append(";\n  }\n");
+      return;
+    }
+    boolean rethrowsAll =
+        method.getThrownTypes().stream()
+            .anyMatch(
+                thrown ->
+                    processingEnv
+                        .getTypeUtils()
+                        .isAssignable(
+                            processingEnv
+                                .getElementUtils()
+                                .getTypeElement("java.lang.Exception")
+                                .asType(),
+                            thrown));
+    String indent = rethrowsAll ? "    " : "      ";
+    if (!rethrowsAll) {
+      source.append("    try {\n");
+    }
+    source.append(indent);
+    if (returnType.getKind() != TypeKind.VOID) {
+      source.append("return ").append(boxed(returnType)).append(call).append(";\n");
+    } else {
+      source.append(call).append(";\n");
+    }
+    if (!rethrowsAll) {
+      source.append("    } catch (RuntimeException e) {\n      throw e;\n    }");
+      for (TypeMirror thrown : checkedThrownTypes(method)) {
+        source.append(" catch (").append(thrown).append(" e) {\n      throw e;\n    }");
+      }
+      source
+          .append(" catch (Exception e) {\n")
+          .append("      throw new java.lang.reflect.UndeclaredThrowableException(e);\n")
+          .append("    }\n");
+    }
+    source.append("  }\n");
+  }
+
+  private void appendBinding(
+      StringBuilder source, VariableElement parameter, String list, String type, String name) {
+    String argument = parameter.getSimpleName().toString();
+    String add = list + ".add(new " + type + "(\"" + escape(name) + "\", String.valueOf(";
+    if (parameter.asType().getKind().isPrimitive()) {
+      source.append("    ").append(add).append(argument).append(")));\n");
+    } else if (isCollection(parameter.asType()) && QUERY_PARAM.equals(type)) {
+      source
+          .append("    if (")
+          .append(argument)
+          .append(" != null) {\n      for (Object value : ")
+          .append(argument)
+          .append(") {\n        if (value != null) {\n          ")
+          .append(add)
+          .append("value)));\n        }\n      }\n    }\n");
+    } else {
+      source
+          .append("    if (")
+          .append(argument)
+          .append(" != null) {\n      ")
+          .append(add)
+          .append(argument)
+          .append(")));\n    }\n");
+    }
+  }
+
+  /** Checked exceptions of the throws clause, without those covered by another declared one. */
+  private List<TypeMirror> checkedThrownTypes(ExecutableElement method) {
+    var types = processingEnv.getTypeUtils();
+    TypeMirror runtimeException =
+        processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+    List<TypeMirror> checked = new ArrayList<>();
+    for (TypeMirror thrown : method.getThrownTypes()) {
+      if (types.isAssignable(thrown, runtimeException)) {
+        continue;
+      }
+      boolean covered =
+          method.getThrownTypes().stream()
+              .anyMatch(
+                  other ->
+                      !types.isSameType(other, thrown)
+                          && types.isAssignable(thrown, other)
+                          && !types.isAssignable(other, runtimeException));
+      if (!covered) {
+        checked.add(thrown);
+      }
+    }
+    return checked;
+  }
+
+  private TypeMirror responseType(ExecutableElement method) {
+    TypeMirror returnType = method.getReturnType();
+    if (isFuture(returnType)) {
+      List<? extends TypeMirror> arguments = ((DeclaredType) returnType).getTypeArguments();
+      return arguments.isEmpty()
+          ? processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType()
+          : arguments.get(0);
+    }
+    return returnType;
+  }
+
+  /** Jackson type expression, a type token only where generics have to be kept. */
+  private static String javaType(TypeMirror type) {
+    if (type.getKind() == TypeKind.VOID) {
+      return "client.getObjectMapper().constructType(void.class)";
+    }
+    if (type.getKind() == TypeKind.DECLARED
+        && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+      return "client.getObjectMapper().constructType(new com.fasterxml.jackson.core.type"
+          + ".TypeReference<"
+          + type
+          + ">() {})";
+    }
+    String raw = type.getKind() == TypeKind.DECLARED ? rawName(type) : type.toString();
+    return "client.getObjectMapper().constructType(" + raw + ".class)";
+  }
+
+  /** Cast that lets the generic {@code invoke} infer the boxed type of a primitive return. */
+  private static String boxed(TypeMirror type) {
+    return type.getKind().isPrimitive() ? "(" + boxedName(type.getKind()) + ") " : "";
+  }
+
+  private static String boxedName(TypeKind kind) {
+    return switch (kind) {
+      case INT -> "Integer";
+      case CHAR -> "Character";
+      default -> {
+        String name = kind.name().toLowerCase();
+        yield Character.toUpperCase(name.charAt(0)) + name.substring(1);
+      }
+    };
+  }
+
+  private boolean isFuture(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED && rawName(type).equals(COMPLETABLE_FUTURE);
+  }
+
+  private boolean isCollection(TypeMirror type) {
+    var types = processingEnv.getTypeUtils();
+    TypeMirror collection =
+        types.erasure(
+            processingEnv.getElementUtils().getTypeElement("java.util.Collection").asType());
+    return types.isAssignable(types.erasure(type), collection);
+  }
+
+  private static String rawName(TypeMirror type) {
+    return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+  }
+
+  private static String pathTemplate(ExecutableElement method) {
+    if (method.getAnnotation(Get.class) != null) {
+      return method.getAnnotation(Get.class).value();
+    } else if (method.getAnnotation(Post.class) != null) {
+      return method.getAnnotation(Post.class).value();
+    }
+    return method.getAnnotation(Put.class).value();
+  }
+
+  /** {@code Outer_Inner} for nested interfaces, top level ones keep their simple name. */
+  private static String nestedName(TypeElement type) {
+    String name = type.getSimpleName().toString();
+    Element enclosing = type.getEnclosingElement();
+    while (!(enclosing instanceof PackageElement)) {
+      name = enclosing.getSimpleName() + "_" + name;
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return name;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
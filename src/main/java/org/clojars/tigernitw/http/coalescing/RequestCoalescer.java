@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.coalescing;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
+import org.clojars.tigernitw.http.exception.RequestRejectedException;
+
+/**
+ * {@link RequestCoalescer} single-flight execution of identical idempotent requests: the first
+ * caller for a key runs the call, concurrent callers with the same key wait for and share its
+ * result instead of taking a pooled connection of their own.
+ */
+@Slf4j
+public class RequestCoalescer {
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+  private final long waitTimeoutMs;
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public RequestCoalescer(HttpClientConfiguration.CoalescingConfig coalescingConfig) {
+    this.waitTimeoutMs = coalescingConfig.getWaitTimeoutMs();
+  }
+
+  /**
+   * Runs the call, or joins the execution already in flight for the key. Waiters fail with a {@link
+   * TimeoutException} when the shared execution takes longer than the wait timeout, and with their
+   * own exception caused by the failure of the shared execution when it fails.
+   */
+  public <V> V execute(String key, Callable<V> call) throws Exception {
+    return execute(key, null, call);
+  }
+
+  /**
+   * Like {@link #execute(String, Callable)}, a waiter gives up at its deadline when that comes
+   * before the wait timeout.
+   *
+   * @param deadline the caller's deadline, {@code null} without one
+   */
+  public <V> V execute(String key, Deadline deadline, Callable<V> call) throws Exception {
+    CompletableFuture<Object> execution = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(key, execution);
+    if (existing == null) {
+      executions.increment();
+      try {
+        V value = call.call();
+        execution.complete(value);
+        return value;
+      } catch (Throwable e) {
+        execution.completeExceptionally(e);
+        throw e;
+      } finally {
+        inFlight.remove(key, execution);
+      }
+    }
+    coalesced.increment();
+    long waitMs =
+        Objects.nonNull(deadline)
+            ? Math.max(0, Math.min(waitTimeoutMs, deadline.remainingMillis()))
+            : waitTimeoutMs;
+    try {
+      // callers sharing a key run the same call, so the result has the type they expect
+      @SuppressWarnings("unchecked")
+      V value = (V) existing.get(waitMs, TimeUnit.MILLISECONDS);
+      return value;
+    } catch (ExecutionException e) {
+      throw waiterException(e.getCause());
+    } catch (TimeoutException e) {
+      log.warn(
+          "RequestCoalescer :: execute :: gave up waiting for in-flight request after {} ms, key: {}",
+          waitMs,
+          key);
+      throw e;
+    }
+  }
+
+  /**
+   * Exception of one waiter. The failure of the shared execution is never rethrown itself, callers
+   * on other threads would race on its suppressed exceptions and cause.
+   */
+  private static Exception waiterException(Throwable failure) {
+    if (failure instanceof RequestRejectedException rejected) {
+      return new RequestRejectedException(rejected.getReason(), rejected.getHost());
+    }
+    if (failure instanceof IOException) {
+      return new IOException(failure.getMessage(), failure);
+    }
+    return new IOException("coalesced request failed", failure);
+  }
+
+  /** Number of calls actually executed. */
+  public long getExecutionCount() {
+    return executions.sum();
+  }
+
+  /** Number of calls served by joining an execution already in flight. */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+}
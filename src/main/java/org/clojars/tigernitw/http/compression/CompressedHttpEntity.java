@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration.CompressionConfig.Encoding;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link CompressedHttpEntity} request entity compressed while it is written, for bodies of unknown
+ * length. Sent chunked; the recorded codec time includes producing the wrapped body.
+ */
+class CompressedHttpEntity extends HttpEntityWrapper {
+
+  private final Encoding encoding;
+  private final HttpClientMetrics metrics;
+  private final String host;
+
+  CompressedHttpEntity(
+      HttpEntity wrappedEntity, Encoding encoding, HttpClientMetrics metrics, String host) {
+    super(wrappedEntity);
+    this.encoding = encoding;
+    this.metrics = metrics;
+    this.host = host;
+  }
+
+  @Override
+  public Header getContentEncoding() {
+    return new BasicHeader(HTTP.CONTENT_ENCODING, encoding.token());
+  }
+
+  @Override
+  public long getContentLength() {
+    return -1;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return true;
+  }
+
+  @Override
+  public InputStream getContent() {
+    throw new UnsupportedOperationException("compressed entity is only written");
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    var compressed = new CountingOutputStream(outputStream);
+    long start = System.nanoTime();
+    CountingOutputStream uncompressed;
+    try (OutputStream codec = CompressionCodec.compressing(encoding, compressed)) {
+      uncompressed = new CountingOutputStream(codec);
+      super.writeTo(uncompressed);
+    }
+    outputStream.flush();
+    metrics.recordCompression(
+        host,
+        RequestCompressionInterceptor.DIRECTION,
+        encoding.token(),
+        uncompressed.getByteCount(),
+        compressed.getByteCount(),
+        System.nanoTime() - start);
+  }
+}
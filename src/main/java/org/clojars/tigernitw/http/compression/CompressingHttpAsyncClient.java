@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link CompressingHttpAsyncClient} compresses request bodies before the non-blocking client takes
+ * them. That client sends the entity the request carries when it is submitted, so an interceptor
+ * replacing it is not seen on the wire. The compressed body, built in full also when its length is
+ * unknown, is set on the given request; requests submitted as a producer are sent as they are.
+ */
+public class CompressingHttpAsyncClient extends CloseableHttpAsyncClient {
+
+  private final CloseableHttpAsyncClient httpAsyncClient;
+  private final RequestCompressionInterceptor requestCompression;
+
+  public CompressingHttpAsyncClient(
+      CloseableHttpAsyncClient httpAsyncClient,
+      HttpClientConfiguration.CompressionConfig compressionConfig,
+      HttpClientMetrics metrics) {
+    this.httpAsyncClient = httpAsyncClient;
+    this.requestCompression = new RequestCompressionInterceptor(compressionConfig, metrics, false);
+  }
+
+  @Override
+  public Future<HttpResponse> execute(
+      HttpHost target,
+      HttpRequest request,
+      HttpContext context,
+      FutureCallback<HttpResponse> callback) {
+    var compressionContext = HttpCoreContext.adapt(new BasicHttpContext(context));
+    compressionContext.setTargetHost(target);
+    try {
+      requestCompression.process(request, compressionContext);
+    } catch (IOException e) {
+      var future = new BasicFuture<>(callback);
+      future.failed(e);
+      return future;
+    }
+    return super.execute(target, request, context, callback);
+  }
+
+  @Override
+  public <T> Future<T> execute(
+      HttpAsyncRequestProducer requestProducer,
+      HttpAsyncResponseConsumer<T> responseConsumer,
+      HttpContext context,
+      FutureCallback<T> callback) {
+    return httpAsyncClient.execute(requestProducer, responseConsumer, context, callback);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return httpAsyncClient.isRunning();
+  }
+
+  @Override
+  public void start() {
+    httpAsyncClient.start();
+  }
+
+  @Override
+  public void close() throws IOException {
+    httpAsyncClient.close();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration.CompressionConfig.Encoding;
+
+/** Codec streams per content coding. */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CompressionCodec {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Compressing stream over the target. Closing it releases the native deflater and leaves the
+   * target open.
+   */
+  static OutputStream compressing(Encoding encoding, OutputStream target) throws IOException {
+    OutputStream shielded = CloseShieldOutputStream.wrap(target);
+    return encoding == Encoding.GZIP
+        ? new GZIPOutputStream(shielded, BUFFER_SIZE)
+        : new DeflaterOutputStream(shielded);
+  }
+
+  static InputStream decompressing(Encoding encoding, InputStream source) throws IOException {
+    return encoding == Encoding.GZIP
+        ? new GZIPInputStream(source, BUFFER_SIZE)
+        : new DeflateInputStream(source);
+  }
+
+  /** Encoding of a {@code Content-Encoding} token, {@code null} for identity or unknown codings. */
+  static Encoding encoding(String token) {
+    return switch (token.trim().toLowerCase(Locale.ROOT)) {
+      case "gzip", "x-gzip" -> Encoding.GZIP;
+      case "deflate" -> Encoding.DEFLATE;
+      default -> null;
+    };
+  }
+}
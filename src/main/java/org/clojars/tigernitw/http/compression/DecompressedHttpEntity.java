@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration.CompressionConfig.Encoding;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link DecompressedHttpEntity} response entity decoded while it is read, the body is never held
+ * in full. Ratio and codec time are recorded once the stream is exhausted or closed.
+ */
+class DecompressedHttpEntity extends HttpEntityWrapper {
+
+  private static final String DIRECTION = "response";
+
+  private final Encoding encoding;
+  private final HttpClientMetrics metrics;
+  private final String host;
+  private InputStream content;
+
+  DecompressedHttpEntity(
+      HttpEntity wrappedEntity, Encoding encoding, HttpClientMetrics metrics, String host) {
+    super(wrappedEntity);
+    this.encoding = encoding;
+    this.metrics = metrics;
+    this.host = host;
+  }
+
+  @Override
+  public Header getContentEncoding() {
+    return null;
+  }
+
+  @Override
+  public long getContentLength() {
+    return -1;
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    if (wrappedEntity.isStreaming()) {
+      if (Objects.isNull(content)) {
+        content = new DecodingInputStream(wrappedEntity.getContent());
+      }
+      return content;
+    }
+    return new DecodingInputStream(wrappedEntity.getContent());
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    Objects.requireNonNull(outputStream, "output stream can't be null");
+    try (InputStream inputStream = getContent()) {
+      inputStream.transferTo(outputStream);
+    }
+  }
+
+  /** Decodes lazily and times only the calls into the codec. */
+  private class DecodingInputStream extends InputStream {
+
+    private final CountingInputStream compressed;
+    private InputStream decoded;
+    private long decodedBytes;
+    private long durationNanos;
+    private boolean recorded;
+
+    DecodingInputStream(InputStream source) {
+      this.compressed = new CountingInputStream(source);
+    }
+
+    @Override
+    public int read() throws IOException {
+      long start = System.nanoTime();
+      int b = decoded().read();
+      durationNanos += System.nanoTime() - start;
+      if (b < 0) {
+        record();
+      } else {
+        decodedBytes++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      long start = System.nanoTime();
+      int n = decoded().read(buffer, offset, length);
+      durationNanos += System.nanoTime() - start;
+      if (n < 0) {
+        record();
+      } else {
+        decodedBytes += n;
+      }
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return decoded().available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (Objects.nonNull(decoded)) {
+          decoded.close();
+        } else {
+          compressed.close();
+        }
+      } finally {
+        record();
+      }
+    }
+
+    private InputStream decoded() throws IOException {
+      if (Objects.isNull(decoded)) {
+        long start = System.nanoTime();
+        decoded = CompressionCodec.decompressing(encoding, compressed);
+        durationNanos += System.nanoTime() - start;
+      }
+      return decoded;
+    }
+
+    private void record() {
+      if (!recorded) {
+        recorded = true;
+        metrics.recordCompression(
+            host,
+            DIRECTION,
+            encoding.token(),
+            decodedBytes,
+            compressed.getByteCount(),
+            durationNanos);
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link RequestCompressionInterceptor} compresses request bodies of the configured media types
+ * once they reach the size threshold. Bodies of known length are compressed up front so the request
+ * keeps a {@code Content-Length}; chunked bodies are compressed while streamed, or up front for
+ * clients that can't stream them. Must run before the standard interceptors that derive the framing
+ * headers from the entity.
+ */
+public class RequestCompressionInterceptor implements HttpRequestInterceptor {
+
+  static final String DIRECTION = "request";
+  static final String UNKNOWN_HOST = "unknown";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final HttpClientConfiguration.CompressionConfig.Encoding encoding;
+  private final int minRequestBytes;
+  private final Set<String> mimeTypes;
+  private final HttpClientMetrics metrics;
+
+  /** Whether bodies of unknown length are compressed while streamed rather than up front. */
+  private final boolean streaming;
+
+  public RequestCompressionInterceptor(
+      HttpClientConfiguration.CompressionConfig compressionConfig, HttpClientMetrics metrics) {
+    this(compressionConfig, metrics, true);
+  }
+
+  RequestCompressionInterceptor(
+      HttpClientConfiguration.CompressionConfig compressionConfig,
+      HttpClientMetrics metrics,
+      boolean streaming) {
+    this.encoding = compressionConfig.getRequestEncoding();
+    this.minRequestBytes = compressionConfig.getMinRequestBytes();
+    this.mimeTypes =
+        compressionConfig.getMimeTypes().stream()
+            .map(mimeType -> mimeType.trim().toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+    this.metrics = metrics;
+    this.streaming = streaming;
+  }
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) throws IOException {
+    if (!(request instanceof HttpEntityEnclosingRequest entityEnclosingRequest)) {
+      return;
+    }
+    HttpEntity entity = entityEnclosingRequest.getEntity();
+    if (Objects.isNull(entity)
+        || Objects.nonNull(entity.getContentEncoding())
+        || request.containsHeader(HTTP.CONTENT_ENCODING)
+        || !isCompressible(entity)) {
+      return;
+    }
+    long contentLength = entity.getContentLength();
+    if (contentLength >= 0 && contentLength < minRequestBytes) {
+      return;
+    }
+    String host = host(context);
+    entityEnclosingRequest.setEntity(
+        contentLength < 0 && streaming
+            ? new CompressedHttpEntity(entity, encoding, metrics, host)
+            : compress(entity, contentLength, host));
+  }
+
+  private HttpEntity compress(HttpEntity entity, long contentLength, String host)
+      throws IOException {
+    long start = System.nanoTime();
+    var compressed =
+        new ByteArrayOutputStream(
+            contentLength < 0 ? BUFFER_SIZE : (int) Math.min(contentLength / 2 + 64, 1 << 20));
+    CountingOutputStream uncompressed;
+    try (OutputStream codec = CompressionCodec.compressing(encoding, compressed)) {
+      uncompressed = new CountingOutputStream(codec);
+      entity.writeTo(uncompressed);
+    }
+    var compressedEntity = new ByteArrayEntity(compressed.toByteArray());
+    compressedEntity.setContentType(entity.getContentType());
+    compressedEntity.setContentEncoding(encoding.token());
+    metrics.recordCompression(
+        host,
+        DIRECTION,
+        encoding.token(),
+        uncompressed.getByteCount(),
+        compressedEntity.getContentLength(),
+        System.nanoTime() - start);
+    return compressedEntity;
+  }
+
+  private boolean isCompressible(HttpEntity entity) {
+    if (Objects.isNull(entity.getContentType())) {
+      return false;
+    }
+    String contentType = entity.getContentType().getValue();
+    int parameters = contentType.indexOf(';');
+    String mimeType = parameters < 0 ? contentType : contentType.substring(0, parameters);
+    return mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+  }
+
+  static String host(HttpContext context) {
+    HttpHost targetHost = HttpCoreContext.adapt(context).getTargetHost();
+    return Objects.nonNull(targetHost) ? targetHost.getHostName() : UNKNOWN_HOST;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import java.util.Objects;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration.CompressionConfig.Encoding;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link ResponseDecompressionInterceptor} replaces gzip and deflate encoded response entities with
+ * a streaming decoder, the counterpart of the client's built-in content decoding that also reports
+ * the compression ratio. The async client replaces response entities after its interceptors ran,
+ * there the executor calls {@link #decode} itself.
+ */
+public class ResponseDecompressionInterceptor implements HttpResponseInterceptor {
+
+  private final HttpClientMetrics metrics;
+
+  public ResponseDecompressionInterceptor(HttpClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void process(HttpResponse response, HttpContext context) throws HttpException {
+    decode(response, metrics, RequestCompressionInterceptor.host(context));
+  }
+
+  /** Swaps an encoded response entity for a decoding one, used directly where no hook applies. */
+  public static void decode(HttpResponse response, HttpClientMetrics metrics, String host)
+      throws HttpException {
+    HttpEntity entity = response.getEntity();
+    if (Objects.isNull(entity)
+        || entity.getContentLength() == 0
+        || Objects.isNull(entity.getContentEncoding())) {
+      return;
+    }
+    for (HeaderElement codec : entity.getContentEncoding().getElements()) {
+      if ("identity".equalsIgnoreCase(codec.getName())) {
+        continue;
+      }
+      Encoding encoding = CompressionCodec.encoding(codec.getName());
+      if (Objects.isNull(encoding)) {
+        throw new HttpException("Unsupported Content-Encoding: " + codec.getName());
+      }
+      response.setEntity(new DecompressedHttpEntity(entity, encoding, metrics, host));
+      response.removeHeaders(HTTP.CONTENT_LEN);
+      response.removeHeaders(HTTP.CONTENT_ENCODING);
+      response.removeHeaders("Content-MD5");
+      return;
+    }
+  }
+}
@@ -15,4 +15,12 @@ public class HttpAppConfiguration {
   private String applicationName = "application";
 
   @NotBlank private String requestIdHeader = "x-request-id";
+
+  /**
+   * Header, and MDC key, carrying the epoch millisecond by which the inbound request has to be
+   * answered, e.g. {@code x-request-deadline}. Calls made while it is in the MDC adopt it as their
+   * deadline and forward it, see {@link org.clojars.tigernitw.http.deadline.Deadline}. Not
+   * propagated when blank.
+   */
+  private String deadlineHeader;
 }
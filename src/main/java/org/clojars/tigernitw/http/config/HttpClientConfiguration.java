@@ -17,10 +17,18 @@
 package org.clojars.tigernitw.http.config;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Set;
 import lombok.Data;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.springframework.validation.annotation.Validated;
 
 /** {@link HttpClientConfiguration} Configuration class for HTTP client comes up. */
@@ -28,14 +36,59 @@ import org.springframework.validation.annotation.Validated;
 @Validated
 public class HttpClientConfiguration {
 
+  /** Name of the client, used to tag its metrics. */
+  @NotBlank private String name = "default";
+
   @Valid private HttpClientConfiguration.EndpointConfig endpoint;
 
+  /** Balancing across the endpoint's {@code targets}, the defaults apply when absent. */
+  @Valid private LoadBalancerConfig loadBalancer;
+
   @Valid private TracingConfig tracingConfig;
 
+  @Valid private CacheConfig cache;
+
+  @Valid private CoalescingConfig coalescing;
+
+  @Valid private CompressionConfig compression;
+
+  @Valid private RetryConfig retry;
+
+  @Valid private HedgingConfig hedging;
+
+  @Valid private LimiterConfig limiter;
+
+  @Valid private CircuitBreakerConfig circuitBreaker;
+
+  @Valid private BufferPoolConfig bufferPool;
+
+  @Valid private Http2Config http2;
+
+  @Valid private WarmupConfig warmup;
+
+  @Valid private DnsConfig dns;
+
+  /** Keep-alive, lifetime and eviction of pooled connections, the defaults apply when absent. */
+  @Valid private ConnectionLifecycleConfig connectionLifecycle;
+
   @Min(10)
   @Max(1024)
   private int connections = 10;
 
+  /** Connections per route, defaults to {@code connections}. */
+  @Max(1024)
+  private int maxPerRoute;
+
+  /**
+   * Name of a pool declared in the client registry to lease from, instead of an own pool of {@code
+   * connections}. The endpoint route stays capped at {@code maxPerRoute}.
+   */
+  private String sharedPool;
+
+  /** Whether the client registry also builds the non-blocking client. */
+  private boolean asyncEnabled;
+
+  /** Pooled connections idle for longer are closed in the background. */
   @Max(86400)
   private int idleTimeOutSeconds = 30;
 
@@ -45,6 +98,21 @@ public class HttpClientConfiguration {
   @Max(86400000)
   private int opTimeoutMs = 10000;
 
+  /** I/O dispatcher threads of the async client, defaults to the number of processors. */
+  @Max(256)
+  private int ioThreads;
+
+  /**
+   * Engine sending the requests. {@code JDK} runs on {@code java.net.http.HttpClient}, which keeps
+   * its own unbounded pool and serves blocking and non-blocking calls alike.
+   */
+  private Transport transport = Transport.APACHE;
+
+  public enum Transport {
+    APACHE,
+    JDK
+  }
+
   @Data
   @Validated
   public static class EndpointConfig {
@@ -54,6 +122,382 @@ public class HttpClientConfiguration {
     private int port;
 
     private boolean secure;
+
+    /**
+     * {@code host:port} instances the requests are balanced across, see {@link LoadBalancerConfig}.
+     * {@code host} and {@code port} then only name the endpoint, e.g. in metrics, and each target
+     * gets its own slice of the pool.
+     */
+    private List<String> targets = List.of();
+  }
+
+  @Data
+  @Validated
+  public static class LoadBalancerConfig {
+
+    /**
+     * {@code LEAST_OUTSTANDING} picks the less busy of two random targets, {@code PEAK_EWMA} also
+     * weighs in their recent latency.
+     */
+    private Strategy strategy = Strategy.LEAST_OUTSTANDING;
+
+    /** Time over which past latencies fade out of the {@code PEAK_EWMA} average. */
+    @Min(1)
+    private long decayMs = 10000;
+
+    /** Failures in a row, I/O errors, timeouts and 5xx, after which a target is ejected. */
+    @Min(1)
+    private int consecutiveFailures = 5;
+
+    /**
+     * Time an ejected target gets no requests before it is admitted again, multiplied by the
+     * ejections in a row up to ten times.
+     */
+    @Min(1)
+    private long ejectionMs = 30000;
+
+    /** Share of the targets that may be ejected at the same time. */
+    @Min(0)
+    @Max(100)
+    private int maxEjectionPercent = 50;
+
+    public enum Strategy {
+      LEAST_OUTSTANDING,
+      PEAK_EWMA
+    }
+  }
+
+  @Data
+  @Validated
+  public static class CacheConfig {
+
+    private boolean enabled;
+
+    /** Upper bound of the memory held by cached bodies. */
+    @Min(1024)
+    private long maxSizeBytes = 64L * 1024 * 1024;
+
+    /** Larger responses are never cached. */
+    @Min(1)
+    private int maxEntryBytes = 1024 * 1024;
+
+    /**
+     * Keeps the deserialized object per response type next to the bytes so a hit skips Jackson. The
+     * same instance is then returned to every caller, which must treat it as immutable.
+     */
+    private boolean cacheDeserialized;
+  }
+
+  @Data
+  @Validated
+  public static class CompressionConfig {
+
+    private boolean enabled;
+
+    private Encoding requestEncoding = Encoding.GZIP;
+
+    /**
+     * Smaller request bodies are sent uncompressed. Chunked bodies have no known size and are
+     * always compressed.
+     */
+    @Min(0)
+    private int minRequestBytes = 2048;
+
+    /** Only request bodies of these media types are compressed. */
+    private List<String> mimeTypes = List.of("application/json", "text/plain", "application/xml");
+
+    /** Sends {@code Accept-Encoding: gzip,deflate}, responses are decompressed as they are read. */
+    private boolean acceptCompressedResponses = true;
+
+    public enum Encoding {
+      GZIP,
+      DEFLATE;
+
+      public String token() {
+        return name().toLowerCase();
+      }
+    }
+  }
+
+  @Data
+  @Validated
+  public static class RetryConfig {
+
+    private boolean enabled;
+
+    /** Attempts including the first one. */
+    @Min(1)
+    @Max(10)
+    private int maxAttempts = 3;
+
+    @Min(1)
+    private long initialBackoffMs = 50;
+
+    @Min(1)
+    private long maxBackoffMs = 2000;
+
+    @DecimalMin("1.0")
+    private double backoffMultiplier = 2.0;
+
+    private Set<Integer> retryableStatusCodes = Set.of(502, 503, 504);
+
+    /** Failures without a response that are retried, subclasses included. */
+    private List<Class<? extends Throwable>> retryableExceptions =
+        List.of(
+            ConnectException.class,
+            ConnectTimeoutException.class,
+            NoHttpResponseException.class,
+            SocketTimeoutException.class);
+
+    /** POST is not idempotent, retry it only when the endpoint deduplicates requests. */
+    private boolean retryPost;
+
+    /** Retries allowed per request sent, {@code 0.1} caps them at a tenth of the traffic. */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double budgetRatio = 0.1;
+
+    /** Retries allowed per second regardless of traffic, so quiet clients can retry as well. */
+    @Min(0)
+    private int budgetMinRetriesPerSecond = 10;
+  }
+
+  @Data
+  @Validated
+  public static class HedgingConfig {
+
+    private boolean enabled;
+
+    /** Time an idempotent request gets to answer before a second copy is sent. */
+    @Min(1)
+    private long delayMs = 100;
+
+    /**
+     * Uses this percentile of the endpoint's recent latencies as delay instead, {@code delayMs}
+     * applies until enough of them are recorded. {@code 0} keeps the fixed delay.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("99.99")
+    private double delayPercentile;
+
+    /** Hedges allowed per request sent, {@code 0.05} adds at most a twentieth to the load. */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double budgetRatio = 0.05;
+  }
+
+  @Data
+  @Validated
+  public static class LimiterConfig {
+
+    private boolean enabled;
+
+    @Min(1)
+    private int initialLimit = 20;
+
+    @Min(1)
+    private int minLimit = 2;
+
+    @Min(1)
+    @Max(10000)
+    private int maxLimit = 200;
+
+    /**
+     * How much the recent latency may exceed the long term one before the limit shrinks, {@code
+     * 1.5} tolerates 50% more.
+     */
+    @DecimalMin("1.0")
+    private double rttTolerance = 1.5;
+  }
+
+  @Data
+  @Validated
+  public static class CircuitBreakerConfig {
+
+    private boolean enabled;
+
+    /** Outcomes of the most recent calls the failure rate is computed over. */
+    @Min(1)
+    @Max(10000)
+    private int windowSize = 100;
+
+    /** The circuit stays closed until the window holds this many calls. */
+    @Min(1)
+    private int minimumCalls = 20;
+
+    /** Percentage of failed calls, I/O errors and 5xx, that opens the circuit. */
+    @Min(1)
+    @Max(100)
+    private int failureRateThreshold = 50;
+
+    /** Time calls are rejected before trial calls are let through. */
+    @Min(1)
+    private long openDurationMs = 10000;
+
+    /** Trial calls that all have to succeed to close the circuit again. */
+    @Min(1)
+    private int halfOpenCalls = 5;
+  }
+
+  @Data
+  @Validated
+  public static class Http2Config {
+
+    /**
+     * Sends the blocking client's requests over HTTP/2 instead of the connection pool. Cleartext
+     * endpoints are spoken to with prior knowledge (h2c), TLS endpoints have to negotiate h2. Needs
+     * {@code httpclient5} on the classpath, the non-blocking client stays on HTTP/1.1.
+     */
+    private boolean enabled;
+
+    /** Multiplexed connections per route, each served by its own I/O thread. */
+    @Min(1)
+    @Max(64)
+    private int connections = 2;
+
+    /** Requests in flight per connection, more wait for a stream like for a pooled connection. */
+    @Min(1)
+    @Max(10000)
+    private int maxConcurrentStreams = 100;
+
+    /** Flow-control window of each stream in bytes, raise it for large bodies on slow links. */
+    @Min(65535)
+    private int initialWindowSize = 65535;
+
+    @Min(16384)
+    @Max(16777215)
+    private int maxFrameSize = 16384;
+  }
+
+  @Data
+  @Validated
+  public static class BufferPoolConfig {
+
+    /**
+     * Reads non-success, {@code String} and {@code byte[]} bodies into pooled buffers. The body
+     * lease handed to a non-success consumer is released when it returns, copy what it keeps.
+     */
+    private boolean enabled;
+
+    /** Upper bound of the memory held by idle buffers. */
+    @Min(65536)
+    private long maxPoolBytes = 32L * 1024 * 1024;
+
+    /** Largest pooled buffer, larger bodies are read into plain arrays. */
+    @Min(4096)
+    @Max(67108864)
+    private int maxBufferBytes = 1024 * 1024;
+
+    /**
+     * Logs leases that were never released with the stack that took them, costs a stack trace per
+     * lease.
+     */
+    private boolean leakDetection;
+  }
+
+  @Data
+  @Validated
+  public static class WarmupConfig {
+
+    /**
+     * Resolves the host, opens connections and builds the Jackson (de)serializers of the client's
+     * response types when the application context starts, which holds back readiness until done or
+     * {@code timeoutMs} has passed.
+     */
+    private boolean enabled;
+
+    /** Connections opened per route, at most {@code maxPerRoute}. */
+    @Min(1)
+    @Max(1024)
+    private int connections = 4;
+
+    /**
+     * Path requested {@code connections} times at once after the connections are open, e.g. {@code
+     * /health}; also fills the pools of engines that only connect on demand. None when blank.
+     */
+    private String healthPath;
+
+    /**
+     * Types read through {@code request()}, whose Jackson (de)serializers are built up front like
+     * those of the planned calls.
+     */
+    private List<Class<?>> responseTypes = List.of();
+
+    /** Time warm-up may take, traffic is let in when it runs out whether done or not. */
+    @Min(1)
+    @Max(600000)
+    private long timeoutMs = 10000;
+  }
+
+  @Data
+  @Validated
+  public static class DnsConfig {
+
+    /**
+     * Caches the addresses the Apache engines connect to and refreshes them in the background, see
+     * {@link org.clojars.tigernitw.http.dns.CachingDnsResolver}. The JDK transport always uses the
+     * JVM's resolver.
+     */
+    private boolean enabled;
+
+    /**
+     * How long resolved addresses are used. Lookups go through the JVM, whose own cache ({@code
+     * networkaddress.cache.ttl}) still applies underneath.
+     */
+    @Min(1)
+    private long ttlMs = 60000;
+
+    /** Age at which addresses are looked up again in the background while still being served. */
+    @Min(1)
+    private long refreshAfterMs = 45000;
+
+    /** How long past {@code ttlMs} the addresses are still served while refreshing them fails. */
+    @Min(0)
+    private long maxStaleMs = 300000;
+  }
+
+  @Data
+  @Validated
+  public static class ConnectionLifecycleConfig {
+
+    /**
+     * How long a connection is kept for reuse after a response without a {@code Keep-Alive}
+     * timeout. Raise it for servers that keep idle connections open longer, fewer connections are
+     * then opened anew.
+     */
+    @Min(1)
+    private long keepAliveMs = 5000;
+
+    /**
+     * Age at which a connection is closed instead of reused, so that connections spread again over
+     * the instances behind an L4 load balancer as they come and go. Unlimited when {@code 0}.
+     */
+    @Min(0)
+    private long timeToLiveMs;
+
+    /**
+     * Idle time after which a pooled connection is checked for having been closed by the server
+     * before it is leased, never when {@code 0}. Only applies to the blocking client.
+     */
+    @Min(0)
+    private int validateAfterInactivityMs = 2000;
+
+    /** Interval at which expired connections and those idle too long are closed. */
+    @Min(100)
+    @Max(3600000)
+    private long evictionIntervalMs = 5000;
+  }
+
+  @Data
+  @Validated
+  public static class CoalescingConfig {
+
+    private boolean enabled;
+
+    /** How long a caller waits for an identical request already in flight. */
+    @Min(1)
+    @Max(86400000)
+    private long waitTimeoutMs = 10000;
   }
 
   @Data
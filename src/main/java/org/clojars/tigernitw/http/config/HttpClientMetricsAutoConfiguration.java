@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.clojars.tigernitw.http.metrics.HttpClientMetricsFactory;
+import org.clojars.tigernitw.http.metrics.MicrometerHttpClientMetrics;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link HttpClientMetricsAutoConfiguration} exposes a {@link HttpClientMetricsFactory} backed by
+ * Micrometer when a {@link MeterRegistry} bean is present, and a no-op factory otherwise.
+ */
+@AutoConfiguration(
+    afterName =
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+public class HttpClientMetricsAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public HttpClientMetricsFactory httpClientMetricsFactory() {
+    return HttpClientMetricsFactory.NOOP;
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+  static class MicrometerMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean
+    public HttpClientMetricsFactory micrometerHttpClientMetricsFactory(MeterRegistry registry) {
+      return clientName -> new MicrometerHttpClientMetrics(registry, clientName);
+    }
+  }
+}
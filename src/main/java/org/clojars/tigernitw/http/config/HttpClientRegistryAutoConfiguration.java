@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.clojars.tigernitw.http.metrics.HttpClientMetricsFactory;
+import org.clojars.tigernitw.http.registry.HttpClientRegistry;
+import org.clojars.tigernitw.http.warmup.HttpClientWarmer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/** {@link HttpClientRegistryAutoConfiguration} builds the registry of named clients. */
+@AutoConfiguration(
+    after = HttpClientMetricsAutoConfiguration.class,
+    afterName = "org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration")
+@EnableConfigurationProperties(HttpClientRegistryConfiguration.class)
+public class HttpClientRegistryAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public HttpClientRegistry httpClientRegistry(
+      HttpClientRegistryConfiguration registryConfiguration,
+      ObjectProvider<HttpAppConfiguration> httpAppConfiguration,
+      ObjectProvider<HttpClientMetricsFactory> metricsFactory,
+      ObjectProvider<ObjectMapper> objectMapper)
+      throws IOException {
+    return new HttpClientRegistry(
+        registryConfiguration,
+        httpAppConfiguration.getIfAvailable(HttpAppConfiguration::new),
+        metricsFactory.getIfAvailable(() -> HttpClientMetricsFactory.NOOP),
+        objectMapper.getIfAvailable(ObjectMapper::new));
+  }
+
+  /** Warms the clients with {@code warmup} enabled before the application reports ready. */
+  @Bean
+  @ConditionalOnMissingBean
+  public HttpClientWarmer httpClientWarmer(HttpClientRegistry httpClientRegistry) {
+    return new HttpClientWarmer(httpClientRegistry);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * {@link HttpClientRegistryConfiguration} named clients and the connection pools they may share.
+ *
+ * <pre>
+ * app-http-clients:
+ *   pools:
+ *     internal:
+ *       max-total: 200
+ *       default-max-per-route: 50
+ *   clients:
+ *     orders:
+ *       endpoint: { host: orders.internal, port: 8080 }
+ *       shared-pool: internal
+ *       max-per-route: 80
+ *     payments:
+ *       endpoint: { host: payments.internal, port: 8443, secure: true }
+ *       connections: 40
+ *       dns: { enabled: true, ttl-ms: 30000, refresh-after-ms: 20000 }
+ *     inventory:
+ *       endpoint: { host: inventory, targets: [ "10.0.4.11:8080", "10.0.4.12:8080" ] }
+ *       load-balancer: { strategy: PEAK_EWMA }
+ * </pre>
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "app-http-clients")
+public class HttpClientRegistryConfiguration {
+
+  @Valid private Map<String, HttpClientConfiguration> clients = new LinkedHashMap<>();
+
+  @Valid private Map<String, PoolConfig> pools = new LinkedHashMap<>();
+
+  @Data
+  @Validated
+  public static class PoolConfig {
+
+    @Min(1)
+    @Max(8192)
+    private int maxTotal = 100;
+
+    @Min(1)
+    @Max(8192)
+    private int defaultMaxPerRoute = 20;
+
+    /** Address caching of the pool's connections, the clients' own {@code dns} does not apply. */
+    @Valid private HttpClientConfiguration.DnsConfig dns;
+
+    /**
+     * Lifetime and stale check of the pool's connections; keep-alive and eviction follow the
+     * settings of each client leasing from it.
+     */
+    @Valid private HttpClientConfiguration.ConnectionLifecycleConfig connectionLifecycle;
+  }
+}
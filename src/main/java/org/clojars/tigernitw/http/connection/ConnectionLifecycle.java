@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.connection;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link ConnectionLifecycle} how long a client's pooled connections live: kept alive as long as
+ * the server allows or {@code keepAliveMs} when it does not say, closed once {@code timeToLiveMs}
+ * old, and checked for a server-side close after {@code validateAfterInactivityMs} of idling. A
+ * single daemon thread closes the expired and idle connections of every pool in the background; a
+ * pool's eviction stops when the handle returned for it is closed, or else once the pool is garbage
+ * collected.
+ */
+@Slf4j
+public class ConnectionLifecycle {
+
+  private static final ScheduledThreadPoolExecutor EVICTOR =
+      new ScheduledThreadPoolExecutor(
+          1,
+          runnable -> {
+            var thread = new Thread(runnable, "http-client-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  static {
+    EVICTOR.setRemoveOnCancelPolicy(true);
+  }
+
+  private final long keepAliveMs;
+  @Getter private final long timeToLiveMs;
+  @Getter private final int validateAfterInactivityMs;
+  private final long evictionIntervalMs;
+  private final long maxIdleMs;
+
+  /**
+   * @param maxIdleMs connections idle for longer are evicted
+   */
+  public ConnectionLifecycle(
+      HttpClientConfiguration.ConnectionLifecycleConfig connectionLifecycleConfig, long maxIdleMs) {
+    this.keepAliveMs = connectionLifecycleConfig.getKeepAliveMs();
+    this.timeToLiveMs = connectionLifecycleConfig.getTimeToLiveMs();
+    this.validateAfterInactivityMs = connectionLifecycleConfig.getValidateAfterInactivityMs();
+    this.evictionIntervalMs = connectionLifecycleConfig.getEvictionIntervalMs();
+    this.maxIdleMs = maxIdleMs;
+  }
+
+  /** The server's {@code Keep-Alive} timeout, {@code keepAliveMs} when the response has none. */
+  public ConnectionKeepAliveStrategy keepAliveStrategy() {
+    return (response, context) -> {
+      var keepAlive =
+          DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return keepAlive < 0 ? keepAliveMs : keepAlive;
+    };
+  }
+
+  /**
+   * Closes the pool's expired and idle connections every {@code evictionIntervalMs}, until the
+   * returned handle is closed.
+   */
+  public Closeable evict(PoolingHttpClientConnectionManager connectionManager) {
+    return schedule(
+        connectionManager,
+        pool -> {
+          pool.closeExpiredConnections();
+          pool.closeIdleConnections(maxIdleMs, TimeUnit.MILLISECONDS);
+        });
+  }
+
+  /**
+   * Closes the pool's expired and idle connections every {@code evictionIntervalMs}, until the
+   * returned handle is closed.
+   */
+  public Closeable evict(PoolingNHttpClientConnectionManager connectionManager) {
+    return schedule(
+        connectionManager,
+        pool -> {
+          pool.closeExpiredConnections();
+          pool.closeIdleConnections(maxIdleMs, TimeUnit.MILLISECONDS);
+        });
+  }
+
+  private <T> Closeable schedule(T pool, Consumer<T> eviction) {
+    var task = new Eviction<>(new WeakReference<>(pool), eviction);
+    task.schedule =
+        EVICTOR.scheduleWithFixedDelay(
+            task, evictionIntervalMs, evictionIntervalMs, TimeUnit.MILLISECONDS);
+    return task;
+  }
+
+  private static final class Eviction<T> implements Runnable, Closeable {
+
+    private final WeakReference<T> pool;
+    private final Consumer<T> eviction;
+    private volatile ScheduledFuture<?> schedule;
+
+    private Eviction(WeakReference<T> pool, Consumer<T> eviction) {
+      this.pool = pool;
+      this.eviction = eviction;
+    }
+
+    @Override
+    public void run() {
+      T target = pool.get();
+      if (Objects.isNull(target)) {
+        close();
+        return;
+      }
+      try {
+        eviction.accept(target);
+      } catch (RuntimeException e) {
+        log.warn("ConnectionLifecycle :: evict :: eviction failed: {}", e.toString());
+      }
+    }
+
+    @Override
+    public void close() {
+      schedule.cancel(false);
+    }
+  }
+}
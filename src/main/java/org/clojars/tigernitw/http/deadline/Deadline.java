@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.deadline;
+
+import java.util.Objects;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.slf4j.MDC;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link Deadline} point in time by which a call has to be answered. It is kept as epoch
+ * milliseconds so that it can cross services in a header, which assumes their clocks are in sync.
+ * Every attempt of a call gets its lease, connect and socket timeouts capped at the time left, and
+ * a call whose deadline has passed fails before a connection is leased.
+ */
+@Slf4j
+@Getter
+public final class Deadline {
+
+  private final long epochMillis;
+
+  private Deadline(long epochMillis) {
+    this.epochMillis = epochMillis;
+  }
+
+  public static Deadline at(long epochMillis) {
+    return new Deadline(epochMillis);
+  }
+
+  /** Deadline {@code timeoutMs} from now, a per-call timeout. */
+  public static Deadline after(long timeoutMs) {
+    return new Deadline(System.currentTimeMillis() + timeoutMs);
+  }
+
+  /**
+   * Deadline put into the MDC under the key, {@code null} when there is none or it is malformed.
+   */
+  public static Deadline fromMdc(String key) {
+    String value = MDC.get(key);
+    if (!StringUtils.hasLength(value)) {
+      return null;
+    }
+    try {
+      return new Deadline(Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      log.warn("Deadline :: fromMdc :: ignoring malformed deadline {}: {}", key, value);
+      return null;
+    }
+  }
+
+  /** The earlier of the two, either may be {@code null}. */
+  public static Deadline earliest(Deadline first, Deadline second) {
+    if (Objects.isNull(first)) {
+      return second;
+    }
+    if (Objects.isNull(second)) {
+      return first;
+    }
+    return first.epochMillis <= second.epochMillis ? first : second;
+  }
+
+  public long remainingMillis() {
+    return epochMillis - System.currentTimeMillis();
+  }
+
+  public boolean isExpired() {
+    return remainingMillis() <= 0;
+  }
+
+  /**
+   * The client's timeouts capped at the time left; timeouts the client leaves unlimited become the
+   * time left.
+   *
+   * @param defaults timeouts of the client, {@code null} when unknown
+   */
+  public RequestConfig requestConfig(RequestConfig defaults) {
+    int remaining = (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingMillis()));
+    if (Objects.isNull(defaults)) {
+      return RequestConfig.custom()
+          .setConnectionRequestTimeout(remaining)
+          .setConnectTimeout(remaining)
+          .setSocketTimeout(remaining)
+          .build();
+    }
+    return RequestConfig.copy(defaults)
+        .setConnectionRequestTimeout(cap(defaults.getConnectionRequestTimeout(), remaining))
+        .setConnectTimeout(cap(defaults.getConnectTimeout(), remaining))
+        .setSocketTimeout(cap(defaults.getSocketTimeout(), remaining))
+        .build();
+  }
+
+  private static int cap(int timeout, int remaining) {
+    return timeout > 0 ? Math.min(timeout, remaining) : remaining;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(epochMillis);
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link CachingDnsResolver} keeps the addresses of every host for {@code ttlMs} and looks them up
+ * again in the background once they are {@code refreshAfterMs} old, so connecting rarely waits for
+ * a lookup. While a refresh fails the cached addresses are served for another {@code maxStaleMs}.
+ * Concurrent lookups of the same host are sent once, and each call returns the addresses rotated by
+ * one so new connections spread across all records of the host.
+ */
+@Slf4j
+public class CachingDnsResolver implements DnsResolver {
+
+  public static final String HIT = "hit";
+  public static final String STALE = "stale";
+  public static final String MISS = "miss";
+
+  /** Time between refresh attempts of a host whose last refresh failed. */
+  private static final long REFRESH_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final Executor REFRESH_EXECUTOR =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            var thread = new Thread(runnable, "http-client-dns-refresh");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final DnsResolver delegate;
+  private final long ttlNanos;
+  private final long refreshAfterNanos;
+  private final long maxStaleNanos;
+  private final HttpClientMetrics metrics;
+  private final Executor executor;
+  private final LongSupplier ticker;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<Entry>> lookups =
+      new ConcurrentHashMap<>();
+
+  public CachingDnsResolver(
+      HttpClientConfiguration.DnsConfig dnsConfig, HttpClientMetrics metrics) {
+    this(SystemDefaultDnsResolver.INSTANCE, dnsConfig, metrics, REFRESH_EXECUTOR, System::nanoTime);
+  }
+
+  /**
+   * @param delegate resolver the lookups are sent to
+   * @param executor runs the background refreshes
+   * @param ticker current time in nanoseconds
+   */
+  public CachingDnsResolver(
+      DnsResolver delegate,
+      HttpClientConfiguration.DnsConfig dnsConfig,
+      HttpClientMetrics metrics,
+      Executor executor,
+      LongSupplier ticker) {
+    this.delegate = delegate;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(dnsConfig.getTtlMs());
+    this.refreshAfterNanos =
+        Math.min(TimeUnit.MILLISECONDS.toNanos(dnsConfig.getRefreshAfterMs()), ttlNanos);
+    this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(dnsConfig.getMaxStaleMs());
+    this.metrics = Objects.nonNull(metrics) ? metrics : HttpClientMetrics.NOOP;
+    this.executor = executor;
+    this.ticker = ticker;
+  }
+
+  @Override
+  public InetAddress[] resolve(String host) throws UnknownHostException {
+    long now = ticker.getAsLong();
+    Entry entry = entries.get(host);
+    if (Objects.nonNull(entry)) {
+      long age = now - entry.resolvedAt;
+      if (age < ttlNanos + maxStaleNanos) {
+        if (age >= refreshAfterNanos) {
+          refresh(host, entry, now);
+        }
+        metrics.recordDnsResolution(host, age < ttlNanos ? HIT : STALE);
+        return entry.next();
+      }
+    }
+    metrics.recordDnsResolution(host, MISS);
+    return lookup(host).next();
+  }
+
+  /** Drops the cached addresses of the host, the next call looks them up again. */
+  public void invalidate(String host) {
+    entries.remove(host);
+  }
+
+  private void refresh(String host, Entry entry, long now) {
+    long refreshAt = entry.refreshAt.get();
+    if (now - refreshAt < 0
+        || !entry.refreshAt.compareAndSet(refreshAt, now + REFRESH_RETRY_NANOS)
+        || lookups.containsKey(host)) {
+      return;
+    }
+    var refresh = new CompletableFuture<Entry>();
+    if (Objects.nonNull(lookups.putIfAbsent(host, refresh))) {
+      return;
+    }
+    try {
+      executor.execute(() -> lookup(host, refresh));
+    } catch (RejectedExecutionException e) {
+      lookups.remove(host, refresh);
+      log.warn("CachingDnsResolver :: refresh :: refresh of {} rejected", host);
+    }
+  }
+
+  /** Looks the host up on the calling thread, or waits for the lookup already in flight. */
+  private Entry lookup(String host) throws UnknownHostException {
+    var lookup = new CompletableFuture<Entry>();
+    var inFlight = lookups.putIfAbsent(host, lookup);
+    if (Objects.isNull(inFlight)) {
+      lookup(host, lookup);
+    } else {
+      lookup = inFlight;
+    }
+    try {
+      return lookup.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UnknownHostException unknownHostException) {
+        throw unknownHostException;
+      }
+      throw e;
+    }
+  }
+
+  private void lookup(String host, CompletableFuture<Entry> lookup) {
+    long start = ticker.getAsLong();
+    try {
+      InetAddress[] addresses = delegate.resolve(host);
+      if (Objects.isNull(addresses) || addresses.length == 0) {
+        throw new UnknownHostException(host);
+      }
+      long now = ticker.getAsLong();
+      var entry = new Entry(addresses, now, now + refreshAfterNanos);
+      entries.put(host, entry);
+      metrics.recordDnsLookup(host, true, now - start);
+      lookup.complete(entry);
+    } catch (UnknownHostException | RuntimeException e) {
+      metrics.recordDnsLookup(host, false, ticker.getAsLong() - start);
+      log.warn("CachingDnsResolver :: lookup :: lookup of {} failed: {}", host, e.toString());
+      lookup.completeExceptionally(e);
+    } finally {
+      lookups.remove(host, lookup);
+    }
+  }
+
+  private static final class Entry {
+
+    private final InetAddress[] addresses;
+    private final long resolvedAt;
+    private final AtomicLong refreshAt;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    private Entry(InetAddress[] addresses, long resolvedAt, long refreshAt) {
+      this.addresses = addresses.clone();
+      this.resolvedAt = resolvedAt;
+      this.refreshAt = new AtomicLong(refreshAt);
+    }
+
+    /** Copy of the addresses starting one further than the previous call. */
+    private InetAddress[] next() {
+      int length = addresses.length;
+      int first = Math.floorMod(rotation.getAndIncrement(), length);
+      var rotated = new InetAddress[length];
+      for (int i = 0; i < length; i++) {
+        rotated[i] = addresses[(first + i) % length];
+      }
+      return rotated;
+    }
+  }
+}
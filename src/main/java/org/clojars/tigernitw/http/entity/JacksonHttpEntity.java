@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.entity;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.protocol.HTTP;
+import org.clojars.tigernitw.http.model.HttpRequestData;
+
+/**
+ * {@link JacksonHttpEntity} request entity serializing {@link HttpRequestData#getData()} with
+ * Jackson straight into bytes, skipping the intermediate {@link String}. In chunked mode nothing is
+ * buffered at all, the generator writes into the connection output stream.
+ */
+public class JacksonHttpEntity extends AbstractHttpEntity {
+
+  private final ObjectWriter objectWriter;
+  private final Object data;
+  private final Charset charset;
+  private final boolean repeatable;
+  private final byte[] content;
+  private volatile boolean written;
+
+  public JacksonHttpEntity(ObjectMapper objectMapper, HttpRequestData httpRequestData)
+      throws JsonProcessingException {
+    this(objectMapper.writer(), httpRequestData);
+  }
+
+  /** Entity written by an already configured writer, e.g. one resolved once per client method. */
+  public JacksonHttpEntity(ObjectWriter objectWriter, HttpRequestData httpRequestData)
+      throws JsonProcessingException {
+    var contentType =
+        Objects.nonNull(httpRequestData.getContentType())
+            ? httpRequestData.getContentType()
+            : ContentType.DEFAULT_TEXT;
+    this.objectWriter = objectWriter;
+    this.data = httpRequestData.getData();
+    this.charset =
+        Objects.nonNull(contentType.getCharset())
+            ? contentType.getCharset()
+            : HTTP.DEF_CONTENT_CHARSET;
+    this.repeatable = httpRequestData.isRepeatable();
+    setContentType(contentType.toString());
+    setChunked(httpRequestData.isChunked());
+    // known length transfer needs the size upfront, serialize once directly into bytes
+    this.content = isChunked() ? null : serialize();
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return repeatable;
+  }
+
+  @Override
+  public long getContentLength() {
+    return Objects.nonNull(content) ? content.length : -1;
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    return new ByteArrayInputStream(Objects.nonNull(content) ? content : serialize());
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    Objects.requireNonNull(outputStream, "output stream can't be null");
+    if (!repeatable && written) {
+      throw new IllegalStateException("non repeatable request entity already written");
+    }
+    written = true;
+    if (Objects.nonNull(content)) {
+      outputStream.write(content);
+    } else {
+      write(outputStream);
+    }
+    outputStream.flush();
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return false;
+  }
+
+  private byte[] serialize() throws JsonProcessingException {
+    if (StandardCharsets.UTF_8.equals(charset)) {
+      return objectWriter.writeValueAsBytes(data);
+    }
+    return objectWriter.writeValueAsString(data).getBytes(charset);
+  }
+
+  private void write(OutputStream outputStream) throws IOException {
+    var factory = objectWriter.getFactory();
+    try (JsonGenerator generator =
+        StandardCharsets.UTF_8.equals(charset)
+            ? factory.createGenerator(outputStream, JsonEncoding.UTF8)
+            : factory.createGenerator(new OutputStreamWriter(outputStream, charset))) {
+      // the connection owns the output stream, it must stay open once the body is written
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      objectWriter.writeValue(generator, data);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package org.clojars.tigernitw.http.exception;
+
+import lombok.Getter;
+
+/**
+ * {@link RequestRejectedException} the request was refused before it was sent, because the endpoint
+ * is at its concurrency limit, its circuit is open or the call's deadline has passed. It carries no
+ * stack trace, rejecting has to stay cheap when an endpoint is overloaded.
+ */
+@Getter
+public class RequestRejectedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Reason reason;
+  private final String host;
+
+  public RequestRejectedException(Reason reason, String host) {
+    super(reason.description + " for " + host, null, false, false);
+    this.reason = reason;
+    this.host = host;
+  }
+
+  public enum Reason {
+    LIMIT_EXCEEDED("concurrency limit reached"),
+    CIRCUIT_OPEN("circuit open"),
+    DEADLINE_EXCEEDED("deadline exceeded");
+
+    private final String description;
+
+    Reason(String description) {
+      this.description = description;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.clojars.tigernitw.http.model.ExtractedResponse;
+
+/**
+ * {@link AsyncHttpExecutor} non-blocking sibling of {@link HttpExecutor}, the returned future is
+ * completed once the response has been received. The body is deserialized and the non-success
+ * consumer called on a response handler thread, never on an I/O reactor thread.
+ */
+public interface AsyncHttpExecutor {
+
+  <T> CompletableFuture<T> executeAsync(
+      Class<T> responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer);
+
+  <T> CompletableFuture<T> executeAsync(
+      TypeReference<T> typeReference, Function<ExtractedResponse, T> nonSuccessResponseConsumer);
+}
@@ -21,63 +21,170 @@ import static org.clojars.tigernitw.http.model.Constant.RequestHeaders.REMOVABLE
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
+import org.clojars.tigernitw.http.buffer.BufferLease;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.compression.ResponseDecompressionInterceptor;
 import org.clojars.tigernitw.http.config.HttpAppConfiguration;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
 import org.clojars.tigernitw.http.exception.ErrorResponseException;
+import org.clojars.tigernitw.http.exception.RequestRejectedException;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.CountingHttpEntity;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
 import org.clojars.tigernitw.http.model.ExtractedResponse;
 import org.clojars.tigernitw.http.model.HttpHeader;
 import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.ApacheHttpTransport;
+import org.clojars.tigernitw.http.transport.HttpTransport;
 import org.clojars.tigernitw.http.util.CollectionUtils;
 import org.clojars.tigernitw.http.util.HttpUtils;
 import org.slf4j.MDC;
 import org.springframework.util.StringUtils;
 
 @Slf4j
-public abstract class BaseHttpExecutor implements HttpExecutor {
+public abstract class BaseHttpExecutor implements HttpExecutor, AsyncHttpExecutor {
+
+  private static final int STATUS_UNKNOWN = -1;
+  private static final String UNKNOWN_PATH_TEMPLATE = "none";
+
+  /**
+   * Runs the handlers of async responses, which deserialize the body and call the caller's
+   * consumer. Threads are created on demand and die when idle.
+   */
+  private static final ExecutorService RESPONSE_HANDLERS =
+      Executors.newCachedThreadPool(
+          new ThreadFactory() {
+            private final AtomicInteger threads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              var thread = new Thread(runnable, "http-response-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
 
   protected HttpAppConfiguration httpAppConfiguration;
   protected CloseableHttpClient httpClient;
+  protected CloseableHttpAsyncClient httpAsyncClient;
   protected HttpClientConfiguration.EndpointConfig endpoint;
   protected HttpClientConfiguration.TracingConfig tracingConfig;
   protected String path;
   protected Set<HttpHeader> httpHeaders;
   protected List<QueryParam> queryParams;
   protected ObjectMapper objectMapper;
+  protected HttpClientMetrics metrics;
+  protected String pathTemplate;
+  protected RequestPlan requestPlan;
+  protected Map<String, String> pathVariables;
+  protected RetryPolicy retryPolicy;
+  protected HedgingPolicy hedgingPolicy;
+  protected ConcurrencyLimiter concurrencyLimiter;
+  protected BufferPool bufferPool;
+  protected HttpTransport transport;
+  protected Deadline deadline;
+
+  private volatile boolean aborted;
+  private volatile HttpUriRequest inFlightRequest;
 
   protected BaseHttpExecutor(
       HttpAppConfiguration httpAppConfiguration,
       CloseableHttpClient httpClient,
+      CloseableHttpAsyncClient httpAsyncClient,
       HttpClientConfiguration.EndpointConfig endpoint,
       HttpClientConfiguration.TracingConfig tracingConfig,
       String path,
       Set<HttpHeader> httpHeaders,
       List<QueryParam> queryParams,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      HttpClientMetrics metrics,
+      String pathTemplate,
+      RequestPlan requestPlan,
+      Map<String, String> pathVariables,
+      RetryPolicy retryPolicy,
+      HedgingPolicy hedgingPolicy,
+      ConcurrencyLimiter concurrencyLimiter,
+      BufferPool bufferPool,
+      HttpTransport transport,
+      Deadline deadline) {
     this.httpAppConfiguration = httpAppConfiguration;
     this.httpClient = httpClient;
-    this.endpoint = endpoint;
+    this.httpAsyncClient = httpAsyncClient;
+    this.endpoint =
+        Objects.isNull(endpoint) && Objects.nonNull(requestPlan)
+            ? requestPlan.getEndpoint()
+            : endpoint;
     this.tracingConfig = tracingConfig;
     this.path = path;
     this.httpHeaders = httpHeaders;
     this.queryParams = queryParams;
     this.objectMapper = objectMapper;
+    this.metrics = Objects.nonNull(metrics) ? metrics : HttpClientMetrics.NOOP;
+    this.pathTemplate =
+        Objects.isNull(pathTemplate) && Objects.nonNull(requestPlan)
+            ? requestPlan.getPathTemplate()
+            : pathTemplate;
+    this.requestPlan = requestPlan;
+    this.pathVariables = pathVariables;
+    this.retryPolicy = retryPolicy;
+    this.hedgingPolicy = hedgingPolicy;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.bufferPool = bufferPool;
+    this.transport =
+        Objects.nonNull(transport)
+            ? transport
+            : ApacheHttpTransport.of(httpClient, httpAsyncClient);
+    this.deadline = deadline;
   }
 
   public abstract HttpUriRequest getRequest(URI uri) throws JsonProcessingException;
 
+  /** Request URI, expanded from the plan when the executor has one. */
+  protected URI fetchUrl() throws URISyntaxException {
+    return Objects.nonNull(requestPlan)
+        ? requestPlan.uri(pathVariables, queryParams)
+        : HttpUtils.fetchUrl(endpoint, path, queryParams);
+  }
+
   protected Header[] addHeaders() {
+    if (Objects.nonNull(requestPlan)) {
+      return requestPlan.headers(httpHeaders);
+    }
     Set<Header> headers =
         Objects.nonNull(httpHeaders)
             ? httpHeaders.stream()
@@ -99,8 +206,68 @@ public abstract class BaseHttpExecutor implements HttpExecutor {
     return headers.toArray(Header[]::new);
   }
 
+  /**
+   * Aborts the blocking call currently executed by this executor, releasing its pooled connection
+   * or pending lease. A call started after the abort fails immediately.
+   */
+  public void abort() {
+    aborted = true;
+    HttpUriRequest request = inFlightRequest;
+    if (Objects.nonNull(request)) {
+      request.abort();
+    }
+  }
+
+  private CloseableHttpResponse doExecute(HttpUriRequest request, boolean hedgeable)
+      throws IOException {
+    inFlightRequest = request;
+    if (aborted) {
+      request.abort();
+    }
+    return hedgeable
+        ? hedgingPolicy.execute(transport, request, metrics, endpoint.getHost())
+        : transport.execute(request);
+  }
+
+  /** The executor's deadline, or the inbound request's in the MDC when that is earlier. */
+  protected Deadline deadline() {
+    String deadlineHeader = httpAppConfiguration.getDeadlineHeader();
+    return StringUtils.hasLength(deadlineHeader)
+        ? Deadline.earliest(deadline, Deadline.fromMdc(deadlineHeader))
+        : deadline;
+  }
+
+  /**
+   * Caps the attempt's timeouts at the time left and forwards the deadline. Once it has passed the
+   * attempt fails before a permit or connection is taken.
+   */
+  private void applyDeadline(HttpUriRequest request, Deadline deadline) {
+    if (Objects.isNull(deadline)) {
+      return;
+    }
+    if (deadline.isExpired()) {
+      metrics.recordRejection(
+          endpoint.getHost(), RequestRejectedException.Reason.DEADLINE_EXCEEDED.name());
+      throw new RequestRejectedException(
+          RequestRejectedException.Reason.DEADLINE_EXCEEDED, endpoint.getHost());
+    }
+    if (request instanceof HttpRequestBase requestBase) {
+      requestBase.setConfig(deadline.requestConfig(transport.getDefaultRequestConfig()));
+    }
+    String deadlineHeader = httpAppConfiguration.getDeadlineHeader();
+    if (StringUtils.hasLength(deadlineHeader)) {
+      request.setHeader(deadlineHeader, deadline.toString());
+    }
+  }
+
+  /** Fails like a missing client when the transport can't send without blocking. */
+  protected void requireAsyncTransport() {
+    if (Objects.isNull(transport) || !transport.isAsyncSupported()) {
+      throw new NullPointerException("async client can't be null");
+    }
+  }
+
   protected void preconditions() {
-    Objects.requireNonNull(httpClient, "client can't be null");
     Objects.requireNonNull(httpAppConfiguration, "httpAppConfiguration can't be null");
   }
 
@@ -108,55 +275,466 @@ public abstract class BaseHttpExecutor implements HttpExecutor {
   public <T> T execute(
       Class<T> responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer)
       throws Exception {
+    return execute(objectMapper.constructType(responseType), nonSuccessResponseConsumer);
+  }
+
+  @Override
+  public <T> T execute(
+      TypeReference<T> typeReference, Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws Exception {
+    return execute(objectMapper.constructType(typeReference), nonSuccessResponseConsumer);
+  }
+
+  protected <T> T execute(
+      JavaType responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws Exception {
+    Objects.requireNonNull(transport, "client can't be null");
     preconditions();
-    URI uri = HttpUtils.fetchUrl(endpoint, path, queryParams);
+    URI uri = fetchUrl();
     HttpUriRequest request = getRequest(uri);
-    try (final CloseableHttpResponse response = httpClient.execute(request)) {
-      final byte[] responseBody = HttpUtils.body(response.getEntity());
-      int statusCode = response.getStatusLine().getStatusCode();
-      if (!HttpUtils.isSuccessful(statusCode)) {
-        if (nonSuccessResponseConsumer != null) {
-          return nonSuccessResponseConsumer.apply(extract(response, responseBody));
+    return exchange(
+        request,
+        response -> handleResponse(request, response, responseType, nonSuccessResponseConsumer));
+  }
+
+  /**
+   * Executes the request on the blocking client and hands the open response to the handler. Failed
+   * attempts are retried as the retry policy allows, the handler only sees the final response.
+   */
+  protected <T> T exchange(HttpUriRequest request, ResponseHandler<T> responseHandler)
+      throws Exception {
+    final boolean retryable = isRetryable(request);
+    final boolean hedgeable = isHedgeable(request);
+    final Deadline deadline = deadline();
+    CountingHttpEntity requestEntity = countRequestEntity(request);
+    for (int attempt = 1; ; attempt++) {
+      CountingHttpEntity responseEntity = null;
+      int statusCode = STATUS_UNKNOWN;
+      boolean retry = false;
+      applyDeadline(request, deadline);
+      ConcurrencyLimiter.Permit permit = acquire();
+      long start = System.nanoTime();
+      try (final CloseableHttpResponse response = doExecute(request, hedgeable)) {
+        statusCode = response.getStatusLine().getStatusCode();
+        if (retryable && retryPolicy.isRetryable(statusCode) && mayRetry(attempt, deadline)) {
+          // drain so the connection goes back to the pool instead of being closed
+          EntityUtils.consumeQuietly(response.getEntity());
+          retry = true;
+        } else {
+          responseEntity = countResponseEntity(response);
+          return responseHandler.handle(response);
+        }
+      } catch (IOException e) {
+        // only failures without a response, never those raised by the handler
+        if (statusCode != STATUS_UNKNOWN
+            || !retryable
+            || aborted
+            || !retryPolicy.isRetryable(e)
+            || !mayRetry(attempt, deadline)) {
+          throw e;
         }
-        String body = CollectionUtils.convertByteArrayToString(responseBody);
-        log.error(
-            "BaseHttpExecutor ::  execute :: http call failed statusCode: {} request: {} response: {}",
-            statusCode,
+        retry = true;
+      } finally {
+        release(permit, statusCode);
+        recordExchange(request, statusCode, start, requestEntity, responseEntity);
+        if (!retry) {
+          recordAttempts(request, attempt);
+        }
+      }
+      long backoff = retryPolicy.backoffMillis(attempt);
+      log.debug(
+          "BaseHttpExecutor :: exchange :: retrying {} in {} ms, attempt {} status: {}",
+          request.getURI(),
+          backoff,
+          attempt,
+          statusCode);
+      Thread.sleep(backoff);
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<T> executeAsync(
+      Class<T> responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer) {
+    return executeAsync(objectMapper.constructType(responseType), nonSuccessResponseConsumer);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> executeAsync(
+      TypeReference<T> typeReference, Function<ExtractedResponse, T> nonSuccessResponseConsumer) {
+    return executeAsync(objectMapper.constructType(typeReference), nonSuccessResponseConsumer);
+  }
+
+  private <T> CompletableFuture<T> executeAsync(
+      JavaType responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer) {
+    final HttpUriRequest request;
+    try {
+      requireAsyncTransport();
+      preconditions();
+      request = getRequest(fetchUrl());
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return exchangeAsync(
+        request,
+        response -> handleResponse(request, response, responseType, nonSuccessResponseConsumer));
+  }
+
+  /**
+   * Executes the request on the non-blocking client, the handler runs on a shared response handler
+   * thread so the I/O dispatch threads only move bytes. Retries are scheduled after their backoff
+   * without holding a thread. Cancelling the returned future cancels the exchange.
+   */
+  protected <T> CompletableFuture<T> exchangeAsync(
+      HttpUriRequest request, ResponseHandler<T> responseHandler) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final AtomicReference<Future<HttpResponse>> exchange = new AtomicReference<>();
+    final AsyncExchange<T> asyncExchange =
+        new AsyncExchange<>(
             request,
-            body);
-        throw new ErrorResponseException("Service http call failure", null, statusCode, body);
+            responseHandler,
+            countRequestEntity(request),
+            isRetryable(request),
+            isHedgeable(request),
+            deadline(),
+            result,
+            exchange);
+    try {
+      send(asyncExchange, 1);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    // propagate caller side cancellation to the reactor so the connection is released
+    result.whenComplete(
+        (response, throwable) -> {
+          Future<HttpResponse> current = exchange.get();
+          if (result.isCancelled() && Objects.nonNull(current)) {
+            current.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private record AsyncExchange<T>(
+      HttpUriRequest request,
+      ResponseHandler<T> responseHandler,
+      CountingHttpEntity requestEntity,
+      boolean retryable,
+      boolean hedgeable,
+      Deadline deadline,
+      CompletableFuture<T> result,
+      AtomicReference<Future<HttpResponse>> exchange) {}
+
+  private <T> void send(AsyncExchange<T> asyncExchange, int attempt) {
+    final HttpUriRequest request = asyncExchange.request();
+    final CompletableFuture<T> result = asyncExchange.result();
+    applyDeadline(request, asyncExchange.deadline());
+    final ConcurrencyLimiter.Permit permit = acquire();
+    final long start = System.nanoTime();
+    final FutureCallback<HttpResponse> callback =
+        new FutureCallback<>() {
+          @Override
+          public void completed(HttpResponse response) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            release(permit, statusCode);
+            if (asyncExchange.retryable()
+                && retryPolicy.isRetryable(statusCode)
+                && mayRetry(attempt, asyncExchange.deadline())) {
+              recordExchange(request, statusCode, start, asyncExchange.requestEntity(), null);
+              retryAsync(asyncExchange, attempt);
+              return;
+            }
+            // the body is buffered already, decoding it and the caller's consumer would stall
+            // every connection of the I/O dispatch thread
+            try {
+              RESPONSE_HANDLERS.execute(
+                  () -> complete(asyncExchange, response, statusCode, start, attempt));
+            } catch (RejectedExecutionException e) {
+              recordExchange(request, statusCode, start, asyncExchange.requestEntity(), null);
+              recordAttempts(request, attempt);
+              result.completeExceptionally(e);
+            }
+          }
+
+          @Override
+          public void failed(Exception e) {
+            release(permit, STATUS_UNKNOWN);
+            recordExchange(request, STATUS_UNKNOWN, start, asyncExchange.requestEntity(), null);
+            if (asyncExchange.retryable()
+                && retryPolicy.isRetryable(e)
+                && mayRetry(attempt, asyncExchange.deadline())) {
+              retryAsync(asyncExchange, attempt);
+              return;
+            }
+            recordAttempts(request, attempt);
+            result.completeExceptionally(e);
+          }
+
+          @Override
+          public void cancelled() {
+            if (Objects.nonNull(permit)) {
+              permit.abandon();
+            }
+            result.cancel(false);
+          }
+        };
+    final Future<HttpResponse> future;
+    try {
+      future =
+          asyncExchange.hedgeable()
+              ? hedgingPolicy.execute(transport, request, callback, metrics, endpoint.getHost())
+              : transport.execute(request, callback);
+    } catch (RuntimeException e) {
+      if (Objects.nonNull(permit)) {
+        permit.abandon();
       }
-      if (CollectionUtils.isNullOrEmpty(responseBody)) {
-        return null;
-      } else {
-        if (byte[].class.equals(responseType)) {
-          return (T) responseBody;
-        } else if (String.class.equals(responseType)) {
-          return responseType.cast(new String(responseBody, Charset.defaultCharset()));
-        } else {
-          return objectMapper.readValue(responseBody, responseType);
+      throw e;
+    }
+    asyncExchange.exchange().set(future);
+    if (result.isCancelled()) {
+      future.cancel(true);
+    }
+  }
+
+  /** Hands the final response of an async exchange to its handler, off the I/O dispatch thread. */
+  private <T> void complete(
+      AsyncExchange<T> asyncExchange,
+      HttpResponse response,
+      int statusCode,
+      long start,
+      int attempt) {
+    final HttpUriRequest request = asyncExchange.request();
+    CountingHttpEntity responseEntity = null;
+    try {
+      // the async client buffers the body after its interceptors ran, decode it here
+      ResponseDecompressionInterceptor.decode(response, metrics, endpoint.getHost());
+      responseEntity = countResponseEntity(response);
+      asyncExchange.result().complete(asyncExchange.responseHandler().handle(response));
+    } catch (Exception e) {
+      asyncExchange.result().completeExceptionally(e);
+    } finally {
+      recordExchange(request, statusCode, start, asyncExchange.requestEntity(), responseEntity);
+      recordAttempts(request, attempt);
+    }
+  }
+
+  private <T> void retryAsync(AsyncExchange<T> asyncExchange, int attempt) {
+    long backoff = retryPolicy.backoffMillis(attempt);
+    log.debug(
+        "BaseHttpExecutor :: exchangeAsync :: retrying {} in {} ms, attempt {}",
+        asyncExchange.request().getURI(),
+        backoff,
+        attempt);
+    CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+        .execute(
+            () -> {
+              if (asyncExchange.result().isDone()) {
+                return;
+              }
+              try {
+                send(asyncExchange, attempt + 1);
+              } catch (Exception e) {
+                asyncExchange.result().completeExceptionally(e);
+              }
+            });
+  }
+
+  private boolean isRetryable(HttpUriRequest request) {
+    if (Objects.isNull(retryPolicy)) {
+      return false;
+    }
+    retryPolicy.getBudget().deposit();
+    return retryPolicy.getMaxAttempts() > 1 && retryPolicy.isRetryable(request);
+  }
+
+  /** Admission by the limiter, {@code null} without one. */
+  private ConcurrencyLimiter.Permit acquire() {
+    return Objects.nonNull(concurrencyLimiter) ? concurrencyLimiter.acquire() : null;
+  }
+
+  private void release(ConcurrencyLimiter.Permit permit, int statusCode) {
+    if (Objects.isNull(permit)) {
+      return;
+    }
+    if (aborted) {
+      permit.abandon();
+    } else {
+      permit.release(statusCode);
+    }
+  }
+
+  private boolean isHedgeable(HttpUriRequest request) {
+    return Objects.nonNull(hedgingPolicy) && hedgingPolicy.isHedgeable(request);
+  }
+
+  /** Whether another attempt is left, fits before the deadline and the budget pays for it. */
+  private boolean mayRetry(int attempt, Deadline deadline) {
+    if (attempt >= retryPolicy.getMaxAttempts()) {
+      return false;
+    }
+    if (Objects.nonNull(deadline)
+        && deadline.remainingMillis() <= retryPolicy.maxBackoffMillis(attempt)) {
+      return false;
+    }
+    if (!retryPolicy.getBudget().tryWithdraw()) {
+      metrics.recordRetryBudgetExhausted(endpoint.getHost());
+      return false;
+    }
+    return true;
+  }
+
+  protected <T> T handleResponse(
+      HttpUriRequest request,
+      HttpResponse response,
+      JavaType responseType,
+      Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws IOException {
+    final HttpEntity entity = response.getEntity();
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (!HttpUtils.isSuccessful(statusCode)) {
+      if (Objects.nonNull(bufferPool)) {
+        try (BufferLease bodyLease = bufferPool.read(entity)) {
+          var extractedResponse =
+              ExtractedResponse.builder().code(statusCode).bodyLease(bodyLease).build();
+          try {
+            return handleNonSuccess(request, extractedResponse, nonSuccessResponseConsumer);
+          } finally {
+            if (Objects.nonNull(nonSuccessResponseConsumer)) {
+              // the consumer may have kept the response, its body has to outlive the lease
+              extractedResponse.detachBody();
+            }
+          }
         }
       }
+      // non-success responses are small and handed over as raw bytes, so they stay buffered
+      return handleNonSuccess(
+          request, extract(response, HttpUtils.body(entity)), nonSuccessResponseConsumer);
+    }
+    if (responseType.hasRawClass(String.class) && Objects.nonNull(bufferPool)) {
+      try (BufferLease bodyLease = bufferPool.read(entity)) {
+        // the response type was checked to be String
+        @SuppressWarnings("unchecked")
+        T value =
+            Objects.isNull(bodyLease) || bodyLease.isEmpty()
+                ? null
+                : (T) bodyLease.toString(Charset.defaultCharset());
+        return value;
+      }
+    }
+    if (responseType.hasRawClass(byte[].class) || responseType.hasRawClass(String.class)) {
+      return readValue(body(entity), responseType);
+    } else {
+      return HttpUtils.readValue(objectMapper, entity, responseType);
     }
   }
 
-  @Override
-  public <T> T execute(
-      TypeReference<T> typeReference, Function<ExtractedResponse, T> nonSuccessResponseConsumer)
-      throws Exception {
-    preconditions();
-    URI uri = HttpUtils.fetchUrl(endpoint, path, queryParams);
-    HttpUriRequest request = getRequest(uri);
-    try (final CloseableHttpResponse response = httpClient.execute(request)) {
-      final byte[] responseBody = HttpUtils.body(response.getEntity());
-      return objectMapper.readValue(responseBody, typeReference);
+  protected <T> T handleNonSuccess(
+      Object request,
+      ExtractedResponse extractedResponse,
+      Function<ExtractedResponse, T> nonSuccessResponseConsumer) {
+    if (nonSuccessResponseConsumer != null) {
+      return nonSuccessResponseConsumer.apply(extractedResponse);
+    }
+    BufferLease bodyLease = extractedResponse.getBodyLease();
+    String body =
+        Objects.nonNull(bodyLease)
+            ? bodyLease.isEmpty() ? null : bodyLease.toString(Charset.defaultCharset())
+            : CollectionUtils.convertByteArrayToString(extractedResponse.getBody());
+    log.error(
+        "BaseHttpExecutor ::  execute :: http call failed statusCode: {} request: {} response: {}",
+        extractedResponse.getCode(),
+        request,
+        body);
+    throw new ErrorResponseException(
+        "Service http call failure", null, extractedResponse.getCode(), body);
+  }
+
+  /**
+   * Reads the whole body, through a pooled buffer when there is a pool so only the returned array
+   * is allocated.
+   */
+  protected byte[] body(HttpEntity entity) throws IOException {
+    if (Objects.isNull(bufferPool)) {
+      return HttpUtils.body(entity);
+    }
+    try (BufferLease bodyLease = bufferPool.read(entity)) {
+      return Objects.nonNull(bodyLease) ? bodyLease.toByteArray() : null;
+    }
+  }
+
+  /** Converts an already buffered successful response body into the response type. */
+  protected <T> T readValue(byte[] responseBody, JavaType responseType) throws IOException {
+    if (CollectionUtils.isNullOrEmpty(responseBody)) {
+      return null;
+    } else if (responseType.hasRawClass(byte[].class)) {
+      return (T) responseBody;
+    } else if (responseType.hasRawClass(String.class)) {
+      // the response type was checked to be String
+      @SuppressWarnings("unchecked")
+      T value = (T) new String(responseBody, Charset.defaultCharset());
+      return value;
+    } else {
+      return objectMapper.readValue(responseBody, responseType);
+    }
+  }
+
+  private CountingHttpEntity countRequestEntity(HttpUriRequest request) {
+    if (metrics.isEnabled()
+        && request instanceof HttpEntityEnclosingRequest entityEnclosingRequest
+        && Objects.nonNull(entityEnclosingRequest.getEntity())) {
+      var countingEntity = new CountingHttpEntity(entityEnclosingRequest.getEntity());
+      entityEnclosingRequest.setEntity(countingEntity);
+      return countingEntity;
     }
+    return null;
   }
 
-  private ExtractedResponse extract(CloseableHttpResponse response, byte[] responseBody) {
+  private CountingHttpEntity countResponseEntity(HttpResponse response) {
+    if (metrics.isEnabled() && Objects.nonNull(response.getEntity())) {
+      var countingEntity = new CountingHttpEntity(response.getEntity());
+      response.setEntity(countingEntity);
+      return countingEntity;
+    }
+    return null;
+  }
+
+  private void recordExchange(
+      HttpUriRequest request,
+      int statusCode,
+      long start,
+      CountingHttpEntity requestEntity,
+      CountingHttpEntity responseEntity) {
+    if (!metrics.isEnabled()) {
+      return;
+    }
+    // tag with the template, never the concrete path, to keep the metric cardinality bounded
+    String uri = Objects.nonNull(pathTemplate) ? pathTemplate : UNKNOWN_PATH_TEMPLATE;
+    metrics.recordExchange(
+        endpoint.getHost(), uri, request.getMethod(), statusCode, System.nanoTime() - start);
+    if (Objects.nonNull(requestEntity)) {
+      metrics.recordRequestBytes(endpoint.getHost(), uri, requestEntity.getByteCount());
+    }
+    if (Objects.nonNull(responseEntity)) {
+      metrics.recordResponseBytes(endpoint.getHost(), uri, responseEntity.getByteCount());
+    }
+  }
+
+  private void recordAttempts(HttpUriRequest request, int attempts) {
+    if (Objects.nonNull(retryPolicy) && metrics.isEnabled()) {
+      String uri = Objects.nonNull(pathTemplate) ? pathTemplate : UNKNOWN_PATH_TEMPLATE;
+      metrics.recordAttempts(endpoint.getHost(), uri, request.getMethod(), attempts);
+    }
+  }
+
+  private ExtractedResponse extract(HttpResponse response, byte[] responseBody) {
     return ExtractedResponse.builder()
         .body(responseBody)
         .code(response.getStatusLine().getStatusCode())
         .build();
   }
+
+  @FunctionalInterface
+  protected interface ResponseHandler<T> {
+
+    T handle(HttpResponse response) throws Exception;
+  }
 }
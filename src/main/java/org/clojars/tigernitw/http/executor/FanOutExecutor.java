@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.model.CallResult;
+import org.clojars.tigernitw.http.model.ExtractedResponse;
+import org.clojars.tigernitw.http.model.HttpRequest;
+
+/**
+ * {@link FanOutExecutor} runs a batch of independent {@link HttpRequest}s in parallel, one thread
+ * per in-flight call and at most {@code maxConcurrency} calls at a time. Virtual threads are used
+ * when the runtime supports them, otherwise short-lived platform threads bounded by the same cap.
+ * The batch is scoped: a call never outlives the invocation that started it, or the {@link
+ * ResultStream} when streamed.
+ */
+@Slf4j
+public class FanOutExecutor {
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private final int maxConcurrency;
+  private final ThreadFactory threadFactory;
+
+  @Builder
+  public FanOutExecutor(int maxConcurrency, ThreadFactory threadFactory) {
+    this.maxConcurrency = maxConcurrency;
+    this.threadFactory = Objects.nonNull(threadFactory) ? threadFactory : defaultThreadFactory();
+  }
+
+  /**
+   * Executes all requests and returns the responses in input order. The first failure aborts the
+   * in-flight siblings, skips the ones not yet started and is rethrown.
+   */
+  public <T> List<T> invokeAll(
+      List<HttpRequest> requests,
+      Class<T> responseType,
+      Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws Exception {
+    return invokeAll(
+        requests, executor -> executor.execute(responseType, nonSuccessResponseConsumer));
+  }
+
+  public <T> List<T> invokeAll(List<HttpRequest> requests, ExecutorCall<T> call) throws Exception {
+    List<CallResult<T>> results = run(requests, call, true, null);
+    List<T> values = new ArrayList<>(results.size());
+    for (CallResult<T> result : results) {
+      if (Objects.nonNull(result.getError())) {
+        if (result.getError() instanceof Exception exception) {
+          throw exception;
+        }
+        throw (Error) result.getError();
+      }
+      values.add(result.getValue());
+    }
+    return values;
+  }
+
+  /** Executes all requests and collects every outcome in input order, failures included. */
+  public <T> List<CallResult<T>> invokeAllSettled(
+      List<HttpRequest> requests,
+      Class<T> responseType,
+      Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws InterruptedException {
+    return invokeAllSettled(
+        requests, executor -> executor.execute(responseType, nonSuccessResponseConsumer));
+  }
+
+  public <T> List<CallResult<T>> invokeAllSettled(List<HttpRequest> requests, ExecutorCall<T> call)
+      throws InterruptedException {
+    return run(requests, call, false, null);
+  }
+
+  /**
+   * Like {@link #invokeAllSettled(List, ExecutorCall)}, additionally reporting every outcome to the
+   * listener as soon as it is known.
+   */
+  public <T> List<CallResult<T>> invokeAllSettled(
+      List<HttpRequest> requests, ExecutorCall<T> call, ProgressListener<T> progressListener)
+      throws InterruptedException {
+    return run(requests, call, false, progressListener);
+  }
+
+  /**
+   * Starts all requests without waiting for them, outcomes are taken from the returned stream in
+   * completion order. Closing the stream aborts the calls still in flight and skips the rest.
+   */
+  public <T> ResultStream<T> stream(
+      List<HttpRequest> requests,
+      Class<T> responseType,
+      Function<ExtractedResponse, T> nonSuccessResponseConsumer) {
+    return stream(requests, executor -> executor.execute(responseType, nonSuccessResponseConsumer));
+  }
+
+  public <T> ResultStream<T> stream(List<HttpRequest> requests, ExecutorCall<T> call) {
+    BlockingQueue<Item<T>> completed = new LinkedBlockingQueue<>();
+    Batch<T> batch =
+        new Batch<>(
+            requests, call, false, (index, result) -> completed.add(new Item<>(index, result)));
+    threadFactory
+        .newThread(
+            () -> {
+              try {
+                batch.dispatch();
+              } catch (InterruptedException e) {
+                batch.abort();
+              }
+            })
+        .start();
+    return new ResultStream<>(batch, completed);
+  }
+
+  private <T> List<CallResult<T>> run(
+      List<HttpRequest> requests,
+      ExecutorCall<T> call,
+      boolean failFast,
+      ProgressListener<T> progressListener)
+      throws InterruptedException {
+    Batch<T> batch = new Batch<>(requests, call, failFast, progressListener);
+    try {
+      batch.dispatch();
+      batch.await();
+    } catch (InterruptedException e) {
+      log.warn("FanOutExecutor :: run :: interrupted, aborting {} calls", requests.size());
+      batch.abort();
+      batch.awaitAborted();
+      throw e;
+    }
+    return batch.results();
+  }
+
+  /** State of one batch, calls are started by {@link #dispatch()} as permits become free. */
+  private final class Batch<T> {
+
+    private final int size;
+    private final ExecutorCall<T> call;
+    private final boolean failFast;
+    private final ProgressListener<T> progressListener;
+    private final BaseHttpExecutor[] executors;
+    private final AtomicReferenceArray<CallResult<T>> results;
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final Semaphore permits;
+    private final CountDownLatch finished;
+    private volatile boolean aborted;
+
+    private Batch(
+        List<HttpRequest> requests,
+        ExecutorCall<T> call,
+        boolean failFast,
+        ProgressListener<T> progressListener) {
+      this.size = requests.size();
+      this.call = call;
+      this.failFast = failFast;
+      this.progressListener = progressListener;
+      this.executors = new BaseHttpExecutor[size];
+      for (int i = 0; i < size; i++) {
+        executors[i] = ApacheHttpClient.fetchExecutor(requests.get(i));
+      }
+      this.results = new AtomicReferenceArray<>(size);
+      this.permits =
+          new Semaphore(maxConcurrency <= 0 ? Math.max(size, 1) : Math.min(maxConcurrency, size));
+      this.finished = new CountDownLatch(size);
+    }
+
+    /** Starts the calls, those not started when it is interrupted are aborted and cancelled. */
+    private void dispatch() throws InterruptedException {
+      for (int i = 0; i < size; i++) {
+        try {
+          permits.acquire();
+        } catch (InterruptedException e) {
+          abort();
+          cancelFrom(i);
+          throw e;
+        }
+        if (aborted || (failFast && Objects.nonNull(firstFailure.get()))) {
+          permits.release();
+          cancelFrom(i);
+          return;
+        }
+        final int index = i;
+        threadFactory
+            .newThread(
+                () -> {
+                  CallResult<T> result;
+                  try {
+                    result = CallResult.success(call.call(executors[index]));
+                  } catch (Throwable e) {
+                    if (aborted || (failFast && !firstFailure.compareAndSet(null, e))) {
+                      // a sibling failed first, or the batch was closed, and aborted this call
+                      result = CallResult.cancelled();
+                    } else {
+                      result = CallResult.failure(e);
+                      if (failFast) {
+                        abortAll(executors, index);
+                      }
+                    }
+                  }
+                  permits.release();
+                  complete(index, result);
+                })
+            .start();
+      }
+    }
+
+    private void cancelFrom(int index) {
+      for (int i = index; i < size; i++) {
+        complete(i, CallResult.cancelled());
+      }
+    }
+
+    private void complete(int index, CallResult<T> result) {
+      results.set(index, result);
+      try {
+        if (Objects.nonNull(progressListener)) {
+          progressListener.onResult(index, result);
+        }
+      } catch (RuntimeException e) {
+        log.warn("FanOutExecutor :: progress listener failed for call {}", index, e);
+      } finally {
+        finished.countDown();
+      }
+    }
+
+    private void await() throws InterruptedException {
+      finished.await();
+    }
+
+    /**
+     * Waits for the calls started before an abort to end, so none outlives the batch; interrupts
+     * are ignored as the caller is already handling one.
+     */
+    private void awaitAborted() {
+      while (true) {
+        try {
+          finished.await();
+          return;
+        } catch (InterruptedException e) {
+          // keep waiting, the aborted calls end shortly
+        }
+      }
+    }
+
+    private void abort() {
+      aborted = true;
+      abortAll(executors, -1);
+    }
+
+    private List<CallResult<T>> results() {
+      List<CallResult<T>> values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(results.get(i));
+      }
+      return values;
+    }
+  }
+
+  /** Outcome of the request at {@code index} of the batch. */
+  public record Item<T>(int index, CallResult<T> result) {}
+
+  /**
+   * {@link ResultStream} outcomes of a batch in the order they complete, every request yields
+   * exactly one item. Blocking, meant for a single consuming thread.
+   */
+  public static final class ResultStream<T> implements Iterator<Item<T>>, AutoCloseable {
+
+    private final FanOutExecutor.Batch<T> batch;
+    private final BlockingQueue<Item<T>> completed;
+    private int returned;
+
+    private ResultStream(FanOutExecutor.Batch<T> batch, BlockingQueue<Item<T>> completed) {
+      this.batch = batch;
+      this.completed = completed;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return returned < batch.size;
+    }
+
+    /** Waits for the next outcome, an interrupt closes the stream. */
+    @Override
+    public Item<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        Item<T> item = completed.take();
+        returned++;
+        return item;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new IllegalStateException("interrupted waiting for the batch", e);
+      }
+    }
+
+    /** Outcomes in input order, waits for the calls still running. */
+    public List<CallResult<T>> awaitAll() throws InterruptedException {
+      batch.await();
+      returned = batch.size;
+      return batch.results();
+    }
+
+    /** Aborts the calls in flight and skips those not started yet. */
+    @Override
+    public void close() {
+      batch.abort();
+    }
+  }
+
+  private static void abortAll(BaseHttpExecutor[] executors, int except) {
+    for (int i = 0; i < executors.length; i++) {
+      if (i != except) {
+        executors[i].abort();
+      }
+    }
+  }
+
+  private static ThreadFactory defaultThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory)
+          Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("FanOutExecutor :: virtual threads unavailable, using platform threads");
+      return runnable -> {
+        Thread thread = new Thread(runnable, "http-fan-out-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+
+  /** Receives each outcome on the thread that ran the call, at most once per request. */
+  @FunctionalInterface
+  public interface ProgressListener<T> {
+
+    void onResult(int index, CallResult<T> result);
+  }
+
+  /** A single call made against the executor built for one request of the batch. */
+  @FunctionalInterface
+  public interface ExecutorCall<T> {
+
+    T call(HttpExecutor executor) throws Exception;
+  }
+}
@@ -17,43 +17,186 @@
 package org.clojars.tigernitw.http.executor;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import lombok.Builder;
 import org.apache.http.Header;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.cache.CachedResponse;
+import org.clojars.tigernitw.http.cache.ResponseCache;
+import org.clojars.tigernitw.http.coalescing.RequestCoalescer;
 import org.clojars.tigernitw.http.config.HttpAppConfiguration;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.model.ExtractedResponse;
 import org.clojars.tigernitw.http.model.HttpHeader;
 import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.util.HttpUtils;
 
 public class GetHttpExecutor extends BaseHttpExecutor {
 
+  private final ResponseCache responseCache;
+  private final RequestCoalescer requestCoalescer;
+
   @Builder
   public GetHttpExecutor(
       HttpAppConfiguration httpAppConfiguration,
       CloseableHttpClient httpClient,
+      CloseableHttpAsyncClient httpAsyncClient,
       HttpClientConfiguration.EndpointConfig endpoint,
       HttpClientConfiguration.TracingConfig tracingConfig,
       String path,
       List<QueryParam> queryParams,
       Set<HttpHeader> httpHeaders,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      HttpClientMetrics metrics,
+      String pathTemplate,
+      RequestPlan requestPlan,
+      Map<String, String> pathVariables,
+      RetryPolicy retryPolicy,
+      HedgingPolicy hedgingPolicy,
+      ConcurrencyLimiter concurrencyLimiter,
+      BufferPool bufferPool,
+      HttpTransport transport,
+      Deadline deadline,
+      ResponseCache responseCache,
+      RequestCoalescer requestCoalescer) {
     super(
         httpAppConfiguration,
         httpClient,
+        httpAsyncClient,
         endpoint,
         tracingConfig,
         path,
         httpHeaders,
         queryParams,
-        objectMapper);
+        objectMapper,
+        metrics,
+        pathTemplate,
+        requestPlan,
+        pathVariables,
+        retryPolicy,
+        hedgingPolicy,
+        concurrencyLimiter,
+        bufferPool,
+        transport,
+        deadline);
+    this.responseCache = responseCache;
+    this.requestCoalescer = requestCoalescer;
+  }
+
+  @Override
+  protected <T> T execute(
+      JavaType responseType, Function<ExtractedResponse, T> nonSuccessResponseConsumer)
+      throws Exception {
+    if (Objects.isNull(responseCache) && Objects.isNull(requestCoalescer)) {
+      return super.execute(responseType, nonSuccessResponseConsumer);
+    }
+    Objects.requireNonNull(transport, "client can't be null");
+    preconditions();
+    URI uri = fetchUrl();
+    // shared by every caller of the client, so responses are only reused for the same headers
+    String cacheKey = requestKey(uri);
+    CachedResponse cached =
+        Objects.nonNull(responseCache)
+            ? responseCache.lookup(cacheKey, System.currentTimeMillis())
+            : null;
+    if (Objects.nonNull(cached) && cached.isFresh(System.currentTimeMillis())) {
+      return cachedValue(cached, responseType);
+    }
+    Fetched fetched =
+        Objects.nonNull(requestCoalescer)
+            ? requestCoalescer.execute(cacheKey, deadline(), () -> fetch(uri, cacheKey, cached))
+            : fetch(uri, cacheKey, cached);
+    if (Objects.nonNull(fetched.cached())) {
+      return cachedValue(fetched.cached(), responseType);
+    }
+    ExtractedResponse response = fetched.response();
+    if (!HttpUtils.isSuccessful(response.getCode())) {
+      return handleNonSuccess(uri, response, nonSuccessResponseConsumer);
+    }
+    return readValue(copyOf(response.getBody(), responseType), responseType);
   }
 
+  /**
+   * Fetches the body in full, the bytes may be shared with coalesced callers and the cache so they
+   * cannot be streamed into a single caller.
+   */
+  private Fetched fetch(URI uri, String cacheKey, CachedResponse cached) throws Exception {
+    HttpUriRequest request = getRequest(uri);
+    if (Objects.nonNull(cached)) {
+      cached.addValidators(request);
+    }
+    return exchange(
+        request,
+        response -> {
+          int statusCode = response.getStatusLine().getStatusCode();
+          if (Objects.nonNull(cached)) {
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+              return new Fetched(
+                  null,
+                  responseCache.revalidated(
+                      cacheKey, cached, response, System.currentTimeMillis()));
+            }
+            responseCache.recordMiss();
+          }
+          byte[] responseBody = body(response.getEntity());
+          CachedResponse stored =
+              Objects.nonNull(responseCache) && statusCode == HttpStatus.SC_OK
+                  ? responseCache.store(
+                      cacheKey, request, response, responseBody, System.currentTimeMillis())
+                  : null;
+          return new Fetched(
+              ExtractedResponse.builder().code(statusCode).body(responseBody).build(), stored);
+        });
+  }
+
+  /** Identity of the request: URI plus the caller supplied headers, request ids excluded. */
+  private String requestKey(URI uri) {
+    var key = new StringBuilder(uri.toString());
+    if (Objects.nonNull(requestPlan)) {
+      key.append('|').append(requestPlan.getHeaderKey());
+    }
+    if (Objects.nonNull(httpHeaders)) {
+      httpHeaders.stream()
+          .map(httpHeader -> httpHeader.getName().toLowerCase() + '=' + httpHeader.getValue())
+          .sorted()
+          .forEach(header -> key.append('|').append(header));
+    }
+    return key.toString();
+  }
+
+  private <T> T cachedValue(CachedResponse cached, JavaType responseType) throws Exception {
+    if (responseType.hasRawClass(byte[].class)) {
+      return readValue(copyOf(cached.getBody(), responseType), responseType);
+    }
+    return cached.value(responseType, type -> readValue(cached.getBody(), type));
+  }
+
+  /** Never hand out a shared array itself, callers may write into it. */
+  private static byte[] copyOf(byte[] body, JavaType responseType) {
+    return Objects.nonNull(body) && responseType.hasRawClass(byte[].class) ? body.clone() : body;
+  }
+
+  private record Fetched(ExtractedResponse response, CachedResponse cached) {}
+
   @Override
   public HttpUriRequest getRequest(URI uri) throws JsonProcessingException {
     Header[] headers = addHeaders();
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.entity.JacksonHttpEntity;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.model.HttpHeader;
+import org.clojars.tigernitw.http.model.HttpMethod;
+import org.clojars.tigernitw.http.model.HttpRequestData;
+import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.util.HttpUtils;
+
+/**
+ * {@link PlannedHttpExecutor} executor bound to one {@link RequestPlan}, method and response type.
+ * Reader and writer are resolved once, and as every call passes its own arguments to {@link
+ * #invoke} a single instance is shared by all threads instead of building an executor per request.
+ * Non-success responses raise {@link org.clojars.tigernitw.http.exception.ErrorResponseException}.
+ */
+public class PlannedHttpExecutor extends BaseHttpExecutor {
+
+  @Getter private final HttpMethod httpMethod;
+  @Getter private final JavaType responseType;
+  private final ContentType contentType;
+  private final ObjectReader objectReader;
+  private final ObjectWriter objectWriter;
+
+  @Builder
+  public PlannedHttpExecutor(
+      HttpAppConfiguration httpAppConfiguration,
+      CloseableHttpClient httpClient,
+      CloseableHttpAsyncClient httpAsyncClient,
+      ObjectMapper objectMapper,
+      HttpClientMetrics metrics,
+      RequestPlan requestPlan,
+      HttpMethod httpMethod,
+      JavaType responseType,
+      ContentType contentType,
+      RetryPolicy retryPolicy,
+      HedgingPolicy hedgingPolicy,
+      ConcurrencyLimiter concurrencyLimiter,
+      BufferPool bufferPool,
+      HttpTransport transport) {
+    super(
+        httpAppConfiguration,
+        httpClient,
+        httpAsyncClient,
+        requestPlan.getEndpoint(),
+        null,
+        null,
+        null,
+        null,
+        objectMapper,
+        metrics,
+        requestPlan.getPathTemplate(),
+        requestPlan,
+        null,
+        retryPolicy,
+        hedgingPolicy,
+        concurrencyLimiter,
+        bufferPool,
+        transport,
+        null);
+    this.httpMethod = Objects.requireNonNull(httpMethod, "http method can't be null");
+    this.responseType = Objects.requireNonNull(responseType, "response type can't be null");
+    this.contentType = Objects.nonNull(contentType) ? contentType : ContentType.APPLICATION_JSON;
+    this.objectReader = isRaw(responseType) ? null : objectMapper.readerFor(responseType);
+    this.objectWriter = objectMapper.writer();
+  }
+
+  /**
+   * Blocking call with the path variables in template order.
+   *
+   * @param body request body of a POST or PUT, ignored for GET
+   */
+  public <T> T invoke(
+      Object[] pathVariables,
+      List<QueryParam> queryParams,
+      Collection<HttpHeader> httpHeaders,
+      Object body)
+      throws Exception {
+    Objects.requireNonNull(transport, "client can't be null");
+    preconditions();
+    HttpUriRequest request = request(pathVariables, queryParams, httpHeaders, body);
+    return exchange(request, response -> read(request, response));
+  }
+
+  /** Non-blocking variant of {@link #invoke}, needs the async client. */
+  public <T> CompletableFuture<T> invokeAsync(
+      Object[] pathVariables,
+      List<QueryParam> queryParams,
+      Collection<HttpHeader> httpHeaders,
+      Object body) {
+    final HttpUriRequest request;
+    try {
+      requireAsyncTransport();
+      preconditions();
+      request = request(pathVariables, queryParams, httpHeaders, body);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return exchangeAsync(request, response -> read(request, response));
+  }
+
+  public RequestPlan getRequestPlan() {
+    return requestPlan;
+  }
+
+  private HttpUriRequest request(
+      Object[] pathVariables,
+      List<QueryParam> queryParams,
+      Collection<HttpHeader> httpHeaders,
+      Object body)
+      throws IOException {
+    HttpRequestBase request = request(requestPlan.uri(pathVariables, queryParams), httpHeaders);
+    if (request instanceof HttpEntityEnclosingRequestBase entityEnclosingRequest) {
+      Objects.requireNonNull(body, "request body cant be null");
+      entityEnclosingRequest.setEntity(
+          new JacksonHttpEntity(
+              objectWriter, HttpRequestData.builder().data(body).contentType(contentType).build()));
+    }
+    return request;
+  }
+
+  private HttpRequestBase request(URI uri, Collection<HttpHeader> httpHeaders) {
+    HttpRequestBase request =
+        switch (httpMethod) {
+          case GET -> new HttpGet(uri);
+          case PUT -> new HttpPut(uri);
+          case POST -> new HttpPost(uri);
+        };
+    request.setHeaders(requestPlan.headers(httpHeaders));
+    return request;
+  }
+
+  private <T> T read(HttpUriRequest request, HttpResponse response) throws IOException {
+    if (isVoid(responseType) && HttpUtils.isSuccessful(response.getStatusLine().getStatusCode())) {
+      EntityUtils.consume(response.getEntity());
+      return null;
+    }
+    if (Objects.isNull(objectReader)
+        || !HttpUtils.isSuccessful(response.getStatusLine().getStatusCode())) {
+      return handleResponse(request, response, responseType, null);
+    }
+    return HttpUtils.readValue(objectReader, response.getEntity());
+  }
+
+  private static boolean isRaw(JavaType responseType) {
+    return responseType.hasRawClass(byte[].class)
+        || responseType.hasRawClass(String.class)
+        || isVoid(responseType);
+  }
+
+  private static boolean isVoid(JavaType responseType) {
+    return responseType.hasRawClass(Void.class) || responseType.hasRawClass(void.class);
+  }
+
+  /**
+   * Request of the plan's method and static headers for the URI, without a body; {@link #invoke}
+   * builds the requests it sends itself.
+   */
+  @Override
+  public HttpUriRequest getRequest(URI uri) {
+    return request(uri, null);
+  }
+
+  /**
+   * Does nothing: the executor is shared by concurrent calls, so there is no single call to abort.
+   * Cancel the future of an async call instead.
+   */
+  @Override
+  public void abort() {
+    // an abort would fail every later call of every caller
+  }
+}
@@ -20,19 +20,29 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import lombok.Builder;
 import org.apache.http.Header;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.buffer.BufferPool;
 import org.clojars.tigernitw.http.config.HttpAppConfiguration;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
+import org.clojars.tigernitw.http.entity.JacksonHttpEntity;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
 import org.clojars.tigernitw.http.model.HttpHeader;
 import org.clojars.tigernitw.http.model.HttpRequestData;
 import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.HttpTransport;
 
 public class PostHttpExecutor extends BaseHttpExecutor {
 
@@ -42,22 +52,44 @@ public class PostHttpExecutor extends BaseHttpExecutor {
   public PostHttpExecutor(
       HttpAppConfiguration httpAppConfiguration,
       CloseableHttpClient httpClient,
+      CloseableHttpAsyncClient httpAsyncClient,
       HttpClientConfiguration.EndpointConfig endpoint,
       HttpClientConfiguration.TracingConfig tracingConfig,
       String path,
       HttpRequestData httpRequestData,
       Set<HttpHeader> httpHeaders,
       List<QueryParam> queryParams,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      HttpClientMetrics metrics,
+      String pathTemplate,
+      RequestPlan requestPlan,
+      Map<String, String> pathVariables,
+      RetryPolicy retryPolicy,
+      HedgingPolicy hedgingPolicy,
+      ConcurrencyLimiter concurrencyLimiter,
+      BufferPool bufferPool,
+      HttpTransport transport,
+      Deadline deadline) {
     super(
         httpAppConfiguration,
         httpClient,
+        httpAsyncClient,
         endpoint,
         tracingConfig,
         path,
         httpHeaders,
         queryParams,
-        objectMapper);
+        objectMapper,
+        metrics,
+        pathTemplate,
+        requestPlan,
+        pathVariables,
+        retryPolicy,
+        hedgingPolicy,
+        concurrencyLimiter,
+        bufferPool,
+        transport,
+        deadline);
     this.httpRequestData = httpRequestData;
   }
 
@@ -70,10 +102,7 @@ public class PostHttpExecutor extends BaseHttpExecutor {
   @Override
   public HttpUriRequest getRequest(URI uri) throws JsonProcessingException {
     Header[] headers = addHeaders();
-    var requestEntity =
-        new StringEntity(
-            objectMapper.writeValueAsString(httpRequestData.getData()),
-            httpRequestData.getContentType());
+    var requestEntity = new JacksonHttpEntity(objectMapper, httpRequestData);
     var httpPost = new HttpPost(uri);
     httpPost.setEntity(requestEntity);
     httpPost.setHeaders(headers);
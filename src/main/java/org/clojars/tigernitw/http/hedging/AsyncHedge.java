@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.hedging;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+
+/**
+ * {@link AsyncHedge} one hedged execution on the non-blocking client. Both attempts report to
+ * callbacks of their own, only the first response, or the last failure, reaches the caller's.
+ */
+class AsyncHedge {
+
+  private static final int PENDING = 0;
+  private static final int HEDGING = 1;
+  private static final int DONE = 2;
+
+  private final HedgingPolicy hedgingPolicy;
+  private final HttpTransport transport;
+  private final HttpUriRequest primary;
+  private final FutureCallback<HttpResponse> callback;
+  private final HttpClientMetrics metrics;
+  private final String host;
+  private final AtomicInteger state = new AtomicInteger(PENDING);
+  private final AtomicBoolean decided = new AtomicBoolean();
+  private final AtomicInteger failures = new AtomicInteger();
+  private final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+  private volatile Future<HttpResponse> primaryExchange;
+  private volatile Future<HttpResponse> hedgeExchange;
+  private volatile CompletableFuture<Void> timer;
+  private long start;
+
+  AsyncHedge(
+      HedgingPolicy hedgingPolicy,
+      HttpTransport transport,
+      HttpUriRequest primary,
+      FutureCallback<HttpResponse> callback,
+      HttpClientMetrics metrics,
+      String host) {
+    this.hedgingPolicy = hedgingPolicy;
+    this.transport = transport;
+    this.primary = primary;
+    this.callback = callback;
+    this.metrics = metrics;
+    this.host = host;
+  }
+
+  Future<HttpResponse> execute() {
+    start = System.nanoTime();
+    timer = CompletableFuture.runAsync(this::sendHedge, hedgingPolicy.asyncHedgeExecutor());
+    primaryExchange = transport.execute(primary, new Attempt(false));
+    // the hedge may have won before the first attempt's future was published
+    if (decided.get()) {
+      primaryExchange.cancel(true);
+    }
+    result.whenComplete(
+        (response, throwable) -> {
+          if (result.isCancelled()) {
+            timer.cancel(false);
+            cancel(primaryExchange);
+            cancel(hedgeExchange);
+          }
+        });
+    return result;
+  }
+
+  private void sendHedge() {
+    if (state.get() != PENDING || !hedgingPolicy.tryAcquire()) {
+      return;
+    }
+    if (!state.compareAndSet(PENDING, HEDGING)) {
+      return;
+    }
+    hedgeExchange = transport.execute(RequestBuilder.copy(primary).build(), new Attempt(true));
+    // the first attempt may have won while the hedge was being sent
+    if (decided.get()) {
+      hedgeExchange.cancel(true);
+    }
+  }
+
+  private static void cancel(Future<HttpResponse> exchange) {
+    if (exchange != null) {
+      exchange.cancel(true);
+    }
+  }
+
+  private class Attempt implements FutureCallback<HttpResponse> {
+
+    private final boolean hedge;
+
+    private Attempt(boolean hedge) {
+      this.hedge = hedge;
+    }
+
+    @Override
+    public void completed(HttpResponse response) {
+      if (state.compareAndSet(PENDING, DONE)) {
+        timer.cancel(false);
+      } else if (decided.compareAndSet(false, true)) {
+        cancel(hedge ? primaryExchange : hedgeExchange);
+        metrics.recordHedge(host, hedge);
+      } else {
+        return;
+      }
+      hedgingPolicy.recordLatency(System.nanoTime() - start);
+      callback.completed(response);
+      result.complete(response);
+    }
+
+    @Override
+    public void failed(Exception e) {
+      if (state.compareAndSet(PENDING, DONE)) {
+        timer.cancel(false);
+      } else if (failures.incrementAndGet() < 2 || !decided.compareAndSet(false, true)) {
+        // the other attempt is still in flight or already won
+        return;
+      }
+      callback.failed(e);
+      result.completeExceptionally(e);
+    }
+
+    @Override
+    public void cancelled() {
+      if (state.compareAndSet(PENDING, DONE)) {
+        timer.cancel(false);
+      } else if (failures.incrementAndGet() < 2 || !decided.compareAndSet(false, true)) {
+        return;
+      }
+      callback.cancelled();
+      result.cancel(false);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.hedging;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+
+/**
+ * {@link BlockingHedge} one hedged execution on the blocking client. The caller thread runs the
+ * first attempt, the hedge runs on a pooled thread. Whichever receives a response first wins and
+ * aborts the other, a failed attempt waits for the one still in flight.
+ */
+class BlockingHedge {
+
+  private static final int PENDING = 0;
+  private static final int HEDGING = 1;
+  private static final int DONE = 2;
+
+  private final HedgingPolicy hedgingPolicy;
+  private final HttpTransport transport;
+  private final HttpUriRequest primary;
+  private final HttpClientMetrics metrics;
+  private final String host;
+  private final AtomicInteger state = new AtomicInteger(PENDING);
+  private final AtomicBoolean decided = new AtomicBoolean();
+  private final CompletableFuture<CloseableHttpResponse> hedgeResponse = new CompletableFuture<>();
+  private volatile HttpUriRequest hedge;
+
+  BlockingHedge(
+      HedgingPolicy hedgingPolicy,
+      HttpTransport transport,
+      HttpUriRequest primary,
+      HttpClientMetrics metrics,
+      String host) {
+    this.hedgingPolicy = hedgingPolicy;
+    this.transport = transport;
+    this.primary = primary;
+    this.metrics = metrics;
+    this.host = host;
+  }
+
+  CloseableHttpResponse execute() throws IOException {
+    long start = System.nanoTime();
+    CompletableFuture<Void> timer =
+        CompletableFuture.runAsync(this::sendHedge, hedgingPolicy.blockingHedgeExecutor());
+    final CloseableHttpResponse response;
+    try {
+      response = transport.execute(primary);
+    } catch (IOException e) {
+      if (state.compareAndSet(PENDING, DONE)) {
+        timer.cancel(false);
+        throw e;
+      }
+      if (!decided.get() && primary.isAborted()) {
+        // aborted by the caller, not by a winning hedge
+        hedge.abort();
+        throw e;
+      }
+      return awaitHedge(e, start);
+    }
+    if (state.compareAndSet(PENDING, DONE)) {
+      timer.cancel(false);
+      hedgingPolicy.recordLatency(System.nanoTime() - start);
+      return response;
+    }
+    if (decided.compareAndSet(false, true)) {
+      hedge.abort();
+      hedgingPolicy.recordLatency(System.nanoTime() - start);
+      metrics.recordHedge(host, false);
+      return response;
+    }
+    response.close();
+    return awaitHedge(null, start);
+  }
+
+  private void sendHedge() {
+    if (state.get() != PENDING || !hedgingPolicy.tryAcquire()) {
+      return;
+    }
+    HttpUriRequest copy = RequestBuilder.copy(primary).build();
+    hedge = copy;
+    if (!state.compareAndSet(PENDING, HEDGING)) {
+      return;
+    }
+    try {
+      CloseableHttpResponse response = transport.execute(copy);
+      if (decided.compareAndSet(false, true)) {
+        // abort before handing over, so the caller can reset the request for a retry
+        primary.abort();
+        hedgeResponse.complete(response);
+      } else {
+        response.close();
+      }
+    } catch (Exception e) {
+      hedgeResponse.completeExceptionally(e);
+    }
+  }
+
+  private CloseableHttpResponse awaitHedge(IOException primaryFailure, long start)
+      throws IOException {
+    try {
+      CloseableHttpResponse response = hedgeResponse.get();
+      if (primary instanceof HttpRequestBase request) {
+        request.reset();
+      }
+      hedgingPolicy.recordLatency(System.nanoTime() - start);
+      metrics.recordHedge(host, true);
+      return response;
+    } catch (ExecutionException e) {
+      if (primaryFailure != null) {
+        primaryFailure.addSuppressed(e.getCause());
+        throw primaryFailure;
+      }
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      hedge.abort();
+      throw new InterruptedIOException("interrupted waiting for hedged request");
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.hedging;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.retry.RetryBudget;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.util.HttpUtils;
+
+/**
+ * {@link HedgingPolicy} when an idempotent request that has not answered yet gets a second copy.
+ * The first response wins and the other attempt is aborted. Hedges are paid for from a budget fed
+ * by the client's traffic, so they only add a small, fixed share of load.
+ */
+public class HedgingPolicy {
+
+  /** Runs the blocking hedges, threads are created on demand and die when idle. */
+  private static final ExecutorService BLOCKING_HEDGES =
+      Executors.newCachedThreadPool(
+          new ThreadFactory() {
+            private final AtomicInteger threads = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              var thread = new Thread(runnable, "http-hedge-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+
+  private final long delayMs;
+  private final LatencyTracker latencyTracker;
+  private final RetryBudget budget;
+
+  public HedgingPolicy(HttpClientConfiguration.HedgingConfig hedgingConfig) {
+    this.delayMs = hedgingConfig.getDelayMs();
+    this.latencyTracker =
+        hedgingConfig.getDelayPercentile() > 0
+            ? new LatencyTracker(hedgingConfig.getDelayPercentile())
+            : null;
+    this.budget = new RetryBudget(hedgingConfig.getBudgetRatio(), 0);
+  }
+
+  /** Whether the request may be hedged, counts it towards the budget. */
+  public boolean isHedgeable(HttpUriRequest request) {
+    if (!HttpUtils.isIdempotent(request.getMethod()) || !HttpUtils.isRepeatable(request)) {
+      return false;
+    }
+    budget.deposit();
+    return true;
+  }
+
+  /** Takes the budget for one hedge, {@code false} when spent. */
+  public boolean tryAcquire() {
+    return budget.tryWithdraw();
+  }
+
+  public long delayMillis() {
+    long percentileNanos = Objects.nonNull(latencyTracker) ? latencyTracker.percentileNanos() : -1;
+    return percentileNanos < 0
+        ? delayMs
+        : Math.max(1, TimeUnit.NANOSECONDS.toMillis(percentileNanos));
+  }
+
+  /** Time until the winning response of a request arrived. */
+  public void recordLatency(long nanos) {
+    if (Objects.nonNull(latencyTracker)) {
+      latencyTracker.record(nanos);
+    }
+  }
+
+  /**
+   * Executes the request blocking, hedging it when it is still pending after the delay. The request
+   * is reusable afterwards even when its attempt lost and was aborted.
+   */
+  public CloseableHttpResponse execute(
+      HttpTransport transport, HttpUriRequest request, HttpClientMetrics metrics, String host)
+      throws IOException {
+    return new BlockingHedge(this, transport, request, metrics, host).execute();
+  }
+
+  /**
+   * Executes the request without blocking, hedging it when it is still pending after the delay. The
+   * callback sees the winning attempt only, cancelling the returned future cancels both.
+   */
+  public Future<HttpResponse> execute(
+      HttpTransport transport,
+      HttpUriRequest request,
+      FutureCallback<HttpResponse> callback,
+      HttpClientMetrics metrics,
+      String host) {
+    return new AsyncHedge(this, transport, request, callback, metrics, host).execute();
+  }
+
+  /** Starts the blocking hedge once the delay has passed. */
+  Executor blockingHedgeExecutor() {
+    return CompletableFuture.delayedExecutor(delayMillis(), TimeUnit.MILLISECONDS, BLOCKING_HEDGES);
+  }
+
+  /** Starts the async hedge once the delay has passed, sending it does not block. */
+  Executor asyncHedgeExecutor() {
+    return CompletableFuture.delayedExecutor(delayMillis(), TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyTracker} window of the most recent latencies of an endpoint. The percentile is
+ * recomputed on the recording thread every few samples, reading it is a volatile load.
+ */
+class LatencyTracker {
+
+  private static final int WINDOW = 1024;
+  private static final int RECOMPUTE_INTERVAL = 128;
+
+  private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+  private final AtomicLong count = new AtomicLong();
+  private final double percentile;
+  private volatile long percentileNanos = -1;
+
+  LatencyTracker(double percentile) {
+    this.percentile = percentile;
+  }
+
+  void record(long nanos) {
+    long recorded = count.getAndIncrement() + 1;
+    samples.set((int) ((recorded - 1) % WINDOW), nanos);
+    if (recorded % RECOMPUTE_INTERVAL == 0) {
+      recompute((int) Math.min(recorded, WINDOW));
+    }
+  }
+
+  /** The tracked percentile, {@code -1} until the first window is filled. */
+  long percentileNanos() {
+    return percentileNanos;
+  }
+
+  private void recompute(int size) {
+    long[] window = new long[size];
+    for (int i = 0; i < size; i++) {
+      window[i] = samples.get(i);
+    }
+    Arrays.sort(window);
+    int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+    percentileNanos = window[Math.max(rank, 0)];
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link Http2HttpClient} blocking client speaking HTTP/2 through the HttpClient 5 engine, so the
+ * executors keep working on {@link CloseableHttpClient}. Requests are spread over {@code
+ * connections} multiplexed connections per route that carry at most {@code maxConcurrentStreams}
+ * requests each; further requests wait for a stream as long as they would wait for a pooled
+ * connection. Bodies are buffered in both directions, and the socket timeout bounds the whole
+ * response of a request since the connection is shared with others.
+ */
+public class Http2HttpClient extends CloseableHttpClient implements Configurable {
+
+  private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+  /** Connection specific headers, not allowed in HTTP/2. */
+  private static final Set<String> CONNECTION_HEADERS =
+      Set.of(
+          "connection",
+          "keep-alive",
+          "proxy-connection",
+          "transfer-encoding",
+          "upgrade",
+          "host",
+          "content-length");
+
+  private final Connection[] connections;
+  private final RequestConfig defaultRequestConfig;
+  private final HttpProcessor httpProcessor;
+
+  /**
+   * @param defaultRequestConfig timeouts of requests without an own config
+   * @param idleTimeoutMs connections without any traffic for this long are closed
+   * @param httpProcessor interceptors the classic client would run, such as compression
+   * @param dnsResolver resolves the hosts connected to, the system resolver when {@code null}
+   */
+  public Http2HttpClient(
+      HttpClientConfiguration.Http2Config http2Config,
+      RequestConfig defaultRequestConfig,
+      long idleTimeoutMs,
+      HttpProcessor httpProcessor,
+      DnsResolver dnsResolver) {
+    this.defaultRequestConfig = defaultRequestConfig;
+    this.httpProcessor = httpProcessor;
+    var h2Config =
+        H2Config.custom()
+            .setPushEnabled(false)
+            .setMaxConcurrentStreams(http2Config.getMaxConcurrentStreams())
+            .setInitialWindowSize(http2Config.getInitialWindowSize())
+            .setMaxFrameSize(http2Config.getMaxFrameSize())
+            .build();
+    var connectionConfig =
+        ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(defaultRequestConfig.getConnectTimeout()))
+            // a session timeout resets every stream of the connection, so it only closes idle ones
+            .setSocketTimeout(Timeout.ofMilliseconds(idleTimeoutMs))
+            .build();
+    var h2DnsResolver =
+        Objects.isNull(dnsResolver)
+            ? SystemDefaultDnsResolver.INSTANCE
+            : new org.apache.hc.client5.http.DnsResolver() {
+              @Override
+              public InetAddress[] resolve(String host) throws UnknownHostException {
+                return dnsResolver.resolve(host);
+              }
+
+              @Override
+              public String resolveCanonicalHostname(String host) throws UnknownHostException {
+                return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+              }
+            };
+    this.connections = new Connection[http2Config.getConnections()];
+    for (int i = 0; i < connections.length; i++) {
+      // the engine keeps one connection per route, so every connection gets its own client
+      var client =
+          H2AsyncClientBuilder.create()
+              .setH2Config(h2Config)
+              .setIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(1).build())
+              .setDefaultConnectionConfig(connectionConfig)
+              .setDnsResolver(h2DnsResolver)
+              .disableAutomaticRetries()
+              .disableCookieManagement()
+              .build();
+      client.start();
+      connections[i] =
+          new Connection(client, new Semaphore(http2Config.getMaxConcurrentStreams(), true));
+    }
+  }
+
+  @Override
+  protected CloseableHttpResponse doExecute(
+      HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+    var clientContext =
+        HttpClientContext.adapt(Objects.nonNull(context) ? context : new BasicHttpContext());
+    RequestConfig requestConfig =
+        request instanceof Configurable configurable && Objects.nonNull(configurable.getConfig())
+            ? configurable.getConfig()
+            : defaultRequestConfig;
+    clientContext.setRequestConfig(requestConfig);
+    clientContext.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, target);
+    try {
+      httpProcessor.process(request, clientContext);
+      var simpleRequest = toSimpleRequest(target, request);
+      Connection connection = acquire(requestConfig.getConnectionRequestTimeout());
+      SimpleHttpResponse simpleResponse;
+      try {
+        simpleResponse = exchange(connection, simpleRequest, request, requestConfig);
+      } finally {
+        connection.streams().release();
+      }
+      var response = toResponse(simpleResponse);
+      clientContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+      httpProcessor.process(response, clientContext);
+      return response;
+    } catch (HttpException e) {
+      throw new ClientProtocolException(e);
+    }
+  }
+
+  private SimpleHttpResponse exchange(
+      Connection connection,
+      SimpleHttpRequest simpleRequest,
+      HttpRequest request,
+      RequestConfig requestConfig)
+      throws IOException {
+    Future<SimpleHttpResponse> future =
+        connection
+            .client()
+            .execute(
+                SimpleRequestProducer.create(simpleRequest),
+                SimpleResponseConsumer.create(),
+                null,
+                org.apache.hc.client5.http.protocol.HttpClientContext.create(),
+                null);
+    if (request instanceof HttpExecutionAware executionAware) {
+      // an abort cancels the stream only, the connection stays up for the other requests
+      executionAware.setCancellable(() -> future.cancel(true));
+    }
+    int timeoutMs = requestConfig.getSocketTimeout();
+    try {
+      return timeoutMs > 0 ? future.get(timeoutMs, TimeUnit.MILLISECONDS) : future.get();
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new SocketTimeoutException("no HTTP/2 response within " + timeoutMs + " ms");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for the HTTP/2 response");
+    } catch (CancellationException e) {
+      throw new RequestAbortedException("Request aborted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new ClientProtocolException(e.getCause());
+    }
+  }
+
+  /** The connection with the most free streams, starting the scan at a random one. */
+  private Connection acquire(int timeoutMs) throws IOException {
+    int start = ThreadLocalRandom.current().nextInt(connections.length);
+    Connection connection = connections[start];
+    for (int i = 1; i < connections.length; i++) {
+      var candidate = connections[(start + i) % connections.length];
+      if (candidate.streams().availablePermits() > connection.streams().availablePermits()) {
+        connection = candidate;
+      }
+    }
+    try {
+      if (timeoutMs <= 0) {
+        connection.streams().acquire();
+        return connection;
+      }
+      if (connection.streams().tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        return connection;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for an HTTP/2 stream");
+    }
+    throw new ConnectionPoolTimeoutException("Timeout waiting for an HTTP/2 stream");
+  }
+
+  private static SimpleHttpRequest toSimpleRequest(HttpHost target, HttpRequest request)
+      throws IOException {
+    URI uri =
+        request instanceof HttpUriRequest uriRequest && uriRequest.getURI().isAbsolute()
+            ? uriRequest.getURI()
+            : URI.create(target.toURI() + request.getRequestLine().getUri());
+    var simpleRequest = SimpleHttpRequest.create(request.getRequestLine().getMethod(), uri);
+    for (Header header : request.getAllHeaders()) {
+      if (!CONNECTION_HEADERS.contains(header.getName().toLowerCase())) {
+        simpleRequest.addHeader(header.getName(), header.getValue());
+      }
+    }
+    if (request instanceof HttpEntityEnclosingRequest entityEnclosingRequest
+        && Objects.nonNull(entityEnclosingRequest.getEntity())) {
+      HttpEntity entity = entityEnclosingRequest.getEntity();
+      Header contentType = entity.getContentType();
+      long contentLength = entity.getContentLength();
+      // written rather than read, a body compressed while streamed has no content to read
+      var content =
+          new ByteArrayOutputStream(
+              contentLength >= 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 1024);
+      entity.writeTo(content);
+      simpleRequest.setBody(
+          content.toByteArray(),
+          Objects.nonNull(contentType) ? ContentType.parse(contentType.getValue()) : null);
+      Header contentEncoding = entity.getContentEncoding();
+      if (Objects.nonNull(contentEncoding) && !simpleRequest.containsHeader("Content-Encoding")) {
+        simpleRequest.addHeader("Content-Encoding", contentEncoding.getValue());
+      }
+    }
+    return simpleRequest;
+  }
+
+  private static CloseableHttpResponse toResponse(SimpleHttpResponse simpleResponse) {
+    var response =
+        new Http2Response(
+            new BasicStatusLine(
+                HTTP_2, simpleResponse.getCode(), simpleResponse.getReasonPhrase()));
+    for (var header : simpleResponse.getHeaders()) {
+      response.addHeader(header.getName(), header.getValue());
+    }
+    byte[] body = simpleResponse.getBodyBytes();
+    var entity = new ByteArrayEntity(Objects.nonNull(body) ? body : new byte[0]);
+    entity.setContentType(headerValue(response, "Content-Type"));
+    entity.setContentEncoding(headerValue(response, "Content-Encoding"));
+    response.setEntity(entity);
+    return response;
+  }
+
+  private static String headerValue(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return Objects.nonNull(header) ? header.getValue() : null;
+  }
+
+  /** Timeouts of requests without an own config. */
+  @Override
+  public RequestConfig getConfig() {
+    return defaultRequestConfig;
+  }
+
+  @Override
+  public void close() {
+    for (Connection connection : connections) {
+      connection.client().close(CloseMode.GRACEFUL);
+    }
+  }
+
+  @Override
+  @Deprecated
+  public HttpParams getParams() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @Deprecated
+  public ClientConnectionManager getConnectionManager() {
+    throw new UnsupportedOperationException();
+  }
+
+  private record Connection(
+      org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient client, Semaphore streams) {}
+
+  /** The body is in memory, there is no connection to hand back on close. */
+  private static final class Http2Response extends BasicHttpResponse
+      implements CloseableHttpResponse {
+
+    private Http2Response(BasicStatusLine statusLine) {
+      super(statusLine);
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.limiter;
+
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link CircuitBreaker} stops sending to an endpoint whose recent calls mostly fail. It opens when
+ * the failure rate of the last {@code windowSize} calls reaches the threshold, rejects everything
+ * for {@code openDurationMs}, then lets {@code halfOpenCalls} trial calls through and closes again
+ * when all of them succeed.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String host;
+  private final LongSupplier nanoClock;
+  private final int minimumCalls;
+  private final int failureRateThreshold;
+  private final long openDurationNanos;
+  private final int halfOpenCalls;
+  private final boolean[] window;
+  private int windowIndex;
+  private int windowCount;
+  private int windowFailures;
+  private int trialPermits;
+  private int trialSuccesses;
+  private long openedAt;
+  private volatile State state = State.CLOSED;
+
+  public CircuitBreaker(
+      HttpClientConfiguration.CircuitBreakerConfig circuitBreakerConfig, String host) {
+    this(circuitBreakerConfig, host, System::nanoTime);
+  }
+
+  CircuitBreaker(
+      HttpClientConfiguration.CircuitBreakerConfig circuitBreakerConfig,
+      String host,
+      LongSupplier nanoClock) {
+    this.host = host;
+    this.nanoClock = nanoClock;
+    this.window = new boolean[circuitBreakerConfig.getWindowSize()];
+    this.minimumCalls = Math.min(circuitBreakerConfig.getMinimumCalls(), window.length);
+    this.failureRateThreshold = circuitBreakerConfig.getFailureRateThreshold();
+    this.openDurationNanos = circuitBreakerConfig.getOpenDurationMs() * 1_000_000L;
+    this.halfOpenCalls = circuitBreakerConfig.getHalfOpenCalls();
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /** Whether a call may be sent, takes one of the trial permits while half open. */
+  public boolean tryAcquire() {
+    if (state == State.CLOSED) {
+      return true;
+    }
+    synchronized (this) {
+      if (state == State.OPEN) {
+        if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+          return false;
+        }
+        transition(State.HALF_OPEN);
+        trialPermits = halfOpenCalls;
+        trialSuccesses = 0;
+      }
+      if (state == State.HALF_OPEN) {
+        if (trialPermits == 0) {
+          return false;
+        }
+        trialPermits--;
+      }
+      return true;
+    }
+  }
+
+  public synchronized void onResult(boolean failed) {
+    switch (state) {
+      case CLOSED -> {
+        if (windowCount == window.length) {
+          windowFailures -= window[windowIndex] ? 1 : 0;
+        } else {
+          windowCount++;
+        }
+        window[windowIndex] = failed;
+        windowFailures += failed ? 1 : 0;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (windowCount >= minimumCalls
+            && windowFailures * 100 >= failureRateThreshold * windowCount) {
+          open();
+        }
+      }
+      case HALF_OPEN -> {
+        if (failed) {
+          open();
+        } else if (++trialSuccesses >= halfOpenCalls) {
+          windowIndex = 0;
+          windowCount = 0;
+          windowFailures = 0;
+          transition(State.CLOSED);
+        }
+      }
+      case OPEN -> {
+        // started before the circuit opened
+      }
+    }
+  }
+
+  /** Gives back a trial permit of a call that was never sent or was cancelled. */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN && trialPermits + trialSuccesses < halfOpenCalls) {
+      trialPermits++;
+    }
+  }
+
+  private void open() {
+    openedAt = nanoClock.getAsLong();
+    transition(State.OPEN);
+  }
+
+  private void transition(State next) {
+    log.info("CircuitBreaker :: {} :: {} -> {}", host, state, next);
+    state = next;
+  }
+}
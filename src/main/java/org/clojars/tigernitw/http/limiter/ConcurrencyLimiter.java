@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.limiter;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpStatus;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.exception.RequestRejectedException;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+
+/**
+ * {@link ConcurrencyLimiter} admission control in front of an endpoint: an adaptive limit on the
+ * requests in flight and a circuit breaker, either of which may be disabled. Requests beyond them
+ * fail at once with a {@link RequestRejectedException} instead of queueing for a pooled connection.
+ */
+public class ConcurrencyLimiter {
+
+  private final String host;
+  private final GradientLimit limit;
+  private final CircuitBreaker circuitBreaker;
+  private final HttpClientMetrics metrics;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public ConcurrencyLimiter(
+      String host,
+      HttpClientConfiguration.LimiterConfig limiterConfig,
+      HttpClientConfiguration.CircuitBreakerConfig circuitBreakerConfig,
+      HttpClientMetrics metrics) {
+    this.host = host;
+    this.limit =
+        Objects.nonNull(limiterConfig) && limiterConfig.isEnabled()
+            ? new GradientLimit(limiterConfig)
+            : null;
+    this.circuitBreaker =
+        Objects.nonNull(circuitBreakerConfig) && circuitBreakerConfig.isEnabled()
+            ? new CircuitBreaker(circuitBreakerConfig, host)
+            : null;
+    this.metrics = Objects.nonNull(metrics) ? metrics : HttpClientMetrics.NOOP;
+  }
+
+  /** Current limit, {@code Integer.MAX_VALUE} when only the circuit breaker is enabled. */
+  public int getLimit() {
+    return Objects.nonNull(limit) ? limit.getLimit() : Integer.MAX_VALUE;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /** State of the circuit, {@code CLOSED} when the breaker is disabled. */
+  public CircuitBreaker.State getCircuitState() {
+    return Objects.nonNull(circuitBreaker)
+        ? circuitBreaker.getState()
+        : CircuitBreaker.State.CLOSED;
+  }
+
+  /**
+   * Admits one request, the permit has to be released exactly once when it finished.
+   *
+   * @throws RequestRejectedException when the limit is reached or the circuit is open
+   */
+  public Permit acquire() {
+    int started;
+    do {
+      started = inFlight.get();
+      if (started >= getLimit()) {
+        throw reject(RequestRejectedException.Reason.LIMIT_EXCEEDED);
+      }
+    } while (!inFlight.compareAndSet(started, started + 1));
+    if (Objects.nonNull(circuitBreaker) && !circuitBreaker.tryAcquire()) {
+      inFlight.decrementAndGet();
+      throw reject(RequestRejectedException.Reason.CIRCUIT_OPEN);
+    }
+    return new Permit(started + 1);
+  }
+
+  private RequestRejectedException reject(RequestRejectedException.Reason reason) {
+    metrics.recordRejection(host, reason.name());
+    return new RequestRejectedException(reason, host);
+  }
+
+  public class Permit {
+
+    private final long start = System.nanoTime();
+    private final int inFlightAtStart;
+    private boolean released;
+
+    private Permit(int inFlightAtStart) {
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    /**
+     * @param statusCode response status, or {@code -1} when the request failed without one
+     */
+    public void release(int statusCode) {
+      if (released) {
+        return;
+      }
+      released = true;
+      inFlight.decrementAndGet();
+      if (Objects.nonNull(limit)) {
+        boolean dropped =
+            statusCode < 0
+                || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_TOO_MANY_REQUESTS;
+        limit.onSample(System.nanoTime() - start, inFlightAtStart, dropped);
+      }
+      if (Objects.nonNull(circuitBreaker)) {
+        circuitBreaker.onResult(statusCode < 0 || statusCode >= 500);
+      }
+    }
+
+    /** Releases a request that was aborted or cancelled, it tells nothing about the endpoint. */
+    public void abandon() {
+      if (released) {
+        return;
+      }
+      released = true;
+      inFlight.decrementAndGet();
+      if (Objects.nonNull(circuitBreaker)) {
+        circuitBreaker.onIgnored();
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.limiter;
+
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link GradientLimit} concurrency limit following the ratio of long term to recent latency. While
+ * the recent latency stays within the tolerance the limit grows by the square root of itself, when
+ * the endpoint slows down it shrinks within a few samples, long before callers would pile up in the
+ * pool. A lasting slowdown becomes the new long term latency over some hundred samples, so the
+ * limit recovers. Dropped requests cut it by a tenth right away.
+ */
+class GradientLimit {
+
+  private static final double SHORT_RTT_ALPHA = 2.0 / (10 + 1);
+  private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+  private static final double SMOOTHING = 0.2;
+  private static final double DROP_BACKOFF = 0.9;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double rttTolerance;
+  private double limit;
+  private double shortRtt;
+  private double longRtt;
+  private volatile int currentLimit;
+
+  GradientLimit(HttpClientConfiguration.LimiterConfig limiterConfig) {
+    this.minLimit = limiterConfig.getMinLimit();
+    this.maxLimit = Math.max(limiterConfig.getMaxLimit(), minLimit);
+    this.rttTolerance = limiterConfig.getRttTolerance();
+    this.limit = clamp(limiterConfig.getInitialLimit());
+    this.currentLimit = (int) limit;
+  }
+
+  int getLimit() {
+    return currentLimit;
+  }
+
+  /**
+   * @param inFlight requests in flight when the sampled one started
+   * @param dropped whether it failed in a way that signals overload
+   */
+  synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (dropped) {
+      limit = clamp(limit * DROP_BACKOFF);
+      currentLimit = (int) limit;
+      return;
+    }
+    shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_RTT_ALPHA;
+    longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_ALPHA;
+    if (longRtt > 2 * shortRtt) {
+      // the endpoint recovered from a slow period, forget it faster than the average would
+      longRtt *= 0.95;
+    }
+    if (inFlight < limit / 2) {
+      // the limit is not what holds requests back, their latency says nothing about it
+      return;
+    }
+    double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    limit = clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    currentLimit = (int) limit;
+  }
+
+  private double clamp(double value) {
+    return Math.max(minLimit, Math.min(maxLimit, value));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * {@link CountingHttpEntity} entity wrapper counting the bytes written to the connection or read
+ * from it, whether the body is streamed or buffered.
+ */
+public class CountingHttpEntity extends HttpEntityWrapper {
+
+  private final AtomicLong byteCount = new AtomicLong();
+
+  public CountingHttpEntity(HttpEntity wrappedEntity) {
+    super(wrappedEntity);
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    final InputStream content = super.getContent();
+    return content == null
+        ? null
+        : new CountingInputStream(content) {
+          @Override
+          protected synchronized void afterRead(int n) {
+            super.afterRead(n);
+            if (n > 0) {
+              byteCount.addAndGet(n);
+            }
+          }
+        };
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    var countingOutputStream = new CountingOutputStream(outputStream);
+    super.writeTo(countingOutputStream);
+    byteCount.addAndGet(countingOutputStream.getByteCount());
+  }
+
+  public long getByteCount() {
+    return byteCount.get();
+  }
+}
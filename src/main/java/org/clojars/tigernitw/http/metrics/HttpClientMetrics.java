@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.metrics;
+
+import java.util.List;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.clojars.tigernitw.http.balancer.LoadBalancer;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+
+/**
+ * {@link HttpClientMetrics} instrumentation hooks of a single client. Every hook is a no-op by
+ * default, {@link #NOOP} is used whenever no meter registry is available so the request path only
+ * pays for a virtual call.
+ */
+public interface HttpClientMetrics {
+
+  HttpClientMetrics NOOP = new HttpClientMetrics() {};
+
+  /** Whether the hooks record anything, callers skip optional bookkeeping otherwise. */
+  default boolean isEnabled() {
+    return false;
+  }
+
+  default void bindConnectionPool(ConnPoolControl<HttpRoute> pool, List<HttpRoute> routes) {}
+
+  default void bindConcurrencyLimiter(String host, ConcurrencyLimiter limiter) {}
+
+  default void bindLoadBalancer(LoadBalancer loadBalancer) {}
+
+  /** A target of the endpoint was ejected after failing repeatedly. */
+  default void recordEjection(String host, String target) {}
+
+  /**
+   * @param reason a {@link org.clojars.tigernitw.http.exception.RequestRejectedException.Reason}
+   */
+  default void recordRejection(String host, String reason) {}
+
+  default void recordLeaseWait(long durationNanos) {}
+
+  /** A lease got a pooled connection, {@code reused} when it was open already rather than new. */
+  default void recordConnectionLeased(boolean reused) {}
+
+  /** Connections closed in the background for having expired or idled too long. */
+  default void recordConnectionsEvicted(int connections) {}
+
+  /**
+   * @param outcome {@code hit}, {@code stale} when served past its ttl, or {@code miss} when the
+   *     caller waited for a lookup
+   */
+  default void recordDnsResolution(String host, String outcome) {}
+
+  /** A lookup of the host's addresses, on the calling thread or in the background. */
+  default void recordDnsLookup(String host, boolean succeeded, long durationNanos) {}
+
+  /**
+   * @param statusCode response status, or {@code -1} when the exchange failed without a response
+   */
+  default void recordExchange(
+      String host, String uri, String method, int statusCode, long durationNanos) {}
+
+  /** Attempts one call took, {@code 1} unless it was retried. */
+  default void recordAttempts(String host, String uri, String method, int attempts) {}
+
+  /** A retry that was due but refused by the retry budget. */
+  default void recordRetryBudgetExhausted(String host) {}
+
+  /** A hedged request got its response, {@code hedgeWon} when the second attempt answered first. */
+  default void recordHedge(String host, boolean hedgeWon) {}
+
+  default void recordRequestBytes(String host, String uri, long bytes) {}
+
+  default void recordResponseBytes(String host, String uri, long bytes) {}
+
+  /**
+   * @param direction {@code request} or {@code response}
+   * @param durationNanos time spent in the codec on the calling thread
+   */
+  default void recordCompression(
+      String host,
+      String direction,
+      String encoding,
+      long uncompressedBytes,
+      long compressedBytes,
+      long durationNanos) {}
+}
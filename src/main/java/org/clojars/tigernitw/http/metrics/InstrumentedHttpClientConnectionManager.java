@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.metrics;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolEntry;
+
+/**
+ * {@link InstrumentedHttpClientConnectionManager} pooling connection manager timing how long every
+ * lease waits for a connection, the early signal of pool exhaustion, and counting the connections
+ * created, reused and evicted.
+ */
+public class InstrumentedHttpClientConnectionManager extends PoolingHttpClientConnectionManager {
+
+  private final HttpClientMetrics metrics;
+
+  public InstrumentedHttpClientConnectionManager(HttpClientMetrics metrics) {
+    super();
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param dnsResolver resolves the hosts connected to, the system resolver when {@code null}
+   * @param timeToLiveMs age at which connections are closed, unlimited when {@code 0}
+   */
+  public InstrumentedHttpClientConnectionManager(
+      HttpClientMetrics metrics,
+      Registry<ConnectionSocketFactory> socketFactoryRegistry,
+      DnsResolver dnsResolver,
+      long timeToLiveMs) {
+    super(socketFactoryRegistry, null, null, dnsResolver, timeToLiveMs, TimeUnit.MILLISECONDS);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+    final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+    return new ConnectionRequest() {
+      @Override
+      public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+          throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+        long start = System.nanoTime();
+        HttpClientConnection connection;
+        try {
+          connection = connectionRequest.get(timeout, timeUnit);
+        } finally {
+          metrics.recordLeaseWait(System.nanoTime() - start);
+        }
+        // new pool entries are handed out before they are connected
+        metrics.recordConnectionLeased(connection.isOpen());
+        return connection;
+      }
+
+      @Override
+      public boolean cancel() {
+        return connectionRequest.cancel();
+      }
+    };
+  }
+
+  @Override
+  public void closeExpiredConnections() {
+    long now = System.currentTimeMillis();
+    evict(entry -> entry.isExpired(now));
+    super.closeExpiredConnections();
+  }
+
+  @Override
+  public void closeIdleConnections(long idleTimeout, TimeUnit timeUnit) {
+    long deadline = System.currentTimeMillis() - Math.max(0, timeUnit.toMillis(idleTimeout));
+    evict(entry -> entry.getUpdated() <= deadline);
+    super.closeIdleConnections(idleTimeout, timeUnit);
+  }
+
+  /** Closes the available connections matching, as the pool would, but counting them. */
+  private void evict(Predicate<PoolEntry<HttpRoute, ManagedHttpClientConnection>> evictable) {
+    var evicted = new AtomicInteger();
+    enumAvailable(
+        entry -> {
+          if (evictable.test(entry)) {
+            entry.close();
+            evicted.incrementAndGet();
+          }
+        });
+    if (evicted.get() > 0) {
+      metrics.recordConnectionsEvicted(evicted.get());
+    }
+  }
+}
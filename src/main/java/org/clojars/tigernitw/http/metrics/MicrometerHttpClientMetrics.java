@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.clojars.tigernitw.http.balancer.LoadBalancer;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+
+/** {@link MicrometerHttpClientMetrics} publishes the client hooks to a Micrometer registry. */
+public class MicrometerHttpClientMetrics implements HttpClientMetrics {
+
+  private static final String CLIENT = "client";
+  private static final String ROUTE = "route";
+  private static final String HOST = "host";
+  private static final String URI = "uri";
+  private static final String TARGET = "target";
+
+  private final MeterRegistry registry;
+  private final String clientName;
+  private final Timer leaseWait;
+  private final Counter connectionsCreated;
+  private final Counter connectionsReused;
+  private final Counter connectionsEvicted;
+
+  public MicrometerHttpClientMetrics(MeterRegistry registry, String clientName) {
+    this.registry = registry;
+    this.clientName = clientName;
+    this.leaseWait =
+        Timer.builder("http.client.pool.lease.wait")
+            .description("Time spent waiting for a pooled connection")
+            .tag(CLIENT, clientName)
+            .publishPercentileHistogram()
+            .register(registry);
+    this.connectionsCreated = connectionCounter("created");
+    this.connectionsReused = connectionCounter("reused");
+    this.connectionsEvicted = connectionCounter("evicted");
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public void bindConnectionPool(ConnPoolControl<HttpRoute> pool, List<HttpRoute> routes) {
+    var clientTags = Tags.of(CLIENT, clientName);
+    poolGauges(pool, clientTags, ConnPoolControl::getTotalStats);
+    for (HttpRoute route : routes) {
+      var routeTags = clientTags.and(ROUTE, route.getTargetHost().toHostString());
+      poolGauges(pool, routeTags, control -> control.getStats(route));
+    }
+  }
+
+  @Override
+  public void bindConcurrencyLimiter(String host, ConcurrencyLimiter limiter) {
+    var tags = Tags.of(CLIENT, clientName, HOST, host);
+    Gauge.builder("http.client.limiter.limit", limiter, ConcurrencyLimiter::getLimit)
+        .description("Requests the endpoint currently admits concurrently")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("http.client.limiter.inflight", limiter, ConcurrencyLimiter::getInFlight)
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder(
+            "http.client.circuit.state", limiter, control -> control.getCircuitState().ordinal())
+        .description("0 closed, 1 open, 2 half open")
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+  }
+
+  @Override
+  public void bindLoadBalancer(LoadBalancer loadBalancer) {
+    for (LoadBalancer.Target target : loadBalancer.getTargets()) {
+      var tags =
+          Tags.of(
+              CLIENT,
+              clientName,
+              HOST,
+              loadBalancer.getHost(),
+              TARGET,
+              target.getHttpHost().toHostString());
+      Gauge.builder("http.client.balancer.outstanding", target, LoadBalancer.Target::getOutstanding)
+          .description("Requests sent to the target that have not answered yet")
+          .tags(tags)
+          .strongReference(true)
+          .register(registry);
+      Gauge.builder("http.client.balancer.latency", target, LoadBalancer.Target::getLatencyMillis)
+          .description("Peak EWMA of the target's latency")
+          .baseUnit("milliseconds")
+          .tags(tags)
+          .strongReference(true)
+          .register(registry);
+      Gauge.builder("http.client.balancer.ejected", target, control -> control.isEjected() ? 1 : 0)
+          .tags(tags)
+          .strongReference(true)
+          .register(registry);
+    }
+  }
+
+  @Override
+  public void recordEjection(String host, String target) {
+    Counter.builder("http.client.balancer.ejections")
+        .description("Targets taken out of rotation after failing repeatedly")
+        .tags(CLIENT, clientName, HOST, host, TARGET, target)
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void recordRejection(String host, String reason) {
+    Counter.builder("http.client.limiter.rejected")
+        .description("Requests refused before they were sent")
+        .tags(CLIENT, clientName, HOST, host, "reason", reason)
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void recordLeaseWait(long durationNanos) {
+    leaseWait.record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordConnectionLeased(boolean reused) {
+    (reused ? connectionsReused : connectionsCreated).increment();
+  }
+
+  @Override
+  public void recordConnectionsEvicted(int connections) {
+    connectionsEvicted.increment(connections);
+  }
+
+  @Override
+  public void recordDnsResolution(String host, String outcome) {
+    Counter.builder("http.client.dns.resolutions")
+        .description("Address resolutions by whether the cache answered them")
+        .tags(CLIENT, clientName, HOST, host, "outcome", outcome)
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void recordDnsLookup(String host, boolean succeeded, long durationNanos) {
+    Timer.builder("http.client.dns.lookups")
+        .description("Lookups sent to the system resolver")
+        .tags(CLIENT, clientName, HOST, host, "outcome", succeeded ? "SUCCESS" : "FAILURE")
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordExchange(
+      String host, String uri, String method, int statusCode, long durationNanos) {
+    Timer.builder("http.client.requests")
+        .description("Round trip of requests sent by the http client")
+        .tags(
+            CLIENT,
+            clientName,
+            HOST,
+            host,
+            URI,
+            uri,
+            "method",
+            method,
+            "status",
+            statusCode < 0 ? "IO_ERROR" : String.valueOf(statusCode),
+            "outcome",
+            outcome(statusCode))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordAttempts(String host, String uri, String method, int attempts) {
+    DistributionSummary.builder("http.client.requests.attempts")
+        .description("Attempts per call, retries included")
+        .tags(CLIENT, clientName, HOST, host, URI, uri, "method", method)
+        .register(registry)
+        .record(attempts);
+  }
+
+  @Override
+  public void recordRetryBudgetExhausted(String host) {
+    Counter.builder("http.client.retry.budget.exhausted")
+        .description("Retries skipped because the retry budget was spent")
+        .tags(CLIENT, clientName, HOST, host)
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void recordHedge(String host, boolean hedgeWon) {
+    Counter.builder("http.client.hedges")
+        .description("Hedged requests by the attempt that answered first")
+        .tags(CLIENT, clientName, HOST, host, "winner", hedgeWon ? "hedge" : "primary")
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void recordRequestBytes(String host, String uri, long bytes) {
+    summary("http.client.request.size", "Serialized request body size", host, uri).record(bytes);
+  }
+
+  @Override
+  public void recordResponseBytes(String host, String uri, long bytes) {
+    summary("http.client.response.size", "Deserialized response body size", host, uri)
+        .record(bytes);
+  }
+
+  @Override
+  public void recordCompression(
+      String host,
+      String direction,
+      String encoding,
+      long uncompressedBytes,
+      long compressedBytes,
+      long durationNanos) {
+    var tags =
+        Tags.of(CLIENT, clientName, HOST, host, "direction", direction, "encoding", encoding);
+    if (compressedBytes > 0) {
+      DistributionSummary.builder("http.client.compression.ratio")
+          .description("Uncompressed body size divided by the size on the wire")
+          .tags(tags)
+          .register(registry)
+          .record((double) uncompressedBytes / compressedBytes);
+    }
+    Timer.builder("http.client.compression.time")
+        .description("Time spent compressing request or decompressing response bodies")
+        .tags(tags)
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private Counter connectionCounter(String event) {
+    return Counter.builder("http.client.pool.connections")
+        .description("Pooled connections created or reused by a lease, or evicted")
+        .tags(CLIENT, clientName, "event", event)
+        .register(registry);
+  }
+
+  private DistributionSummary summary(String name, String description, String host, String uri) {
+    return DistributionSummary.builder(name)
+        .description(description)
+        .baseUnit("bytes")
+        .tags(CLIENT, clientName, HOST, host, URI, uri)
+        .register(registry);
+  }
+
+  private void poolGauges(
+      ConnPoolControl<HttpRoute> pool,
+      Tags tags,
+      Function<ConnPoolControl<HttpRoute>, PoolStats> stats) {
+    poolGauge("http.client.pool.leased", pool, tags, control -> stats.apply(control).getLeased());
+    poolGauge(
+        "http.client.pool.available", pool, tags, control -> stats.apply(control).getAvailable());
+    poolGauge("http.client.pool.pending", pool, tags, control -> stats.apply(control).getPending());
+    poolGauge("http.client.pool.max", pool, tags, control -> stats.apply(control).getMax());
+  }
+
+  private void poolGauge(
+      String name,
+      ConnPoolControl<HttpRoute> pool,
+      Tags tags,
+      ToIntFunction<ConnPoolControl<HttpRoute>> value) {
+    Gauge.builder(name, pool, control -> value.applyAsInt(control))
+        .tags(tags)
+        .strongReference(true)
+        .register(registry);
+  }
+
+  private static String outcome(int statusCode) {
+    if (statusCode < 0) {
+      return "UNKNOWN";
+    } else if (statusCode < 200) {
+      return "INFORMATIONAL";
+    } else if (statusCode < 300) {
+      return "SUCCESS";
+    } else if (statusCode < 400) {
+      return "REDIRECTION";
+    } else if (statusCode < 500) {
+      return "CLIENT_ERROR";
+    }
+    return "SERVER_ERROR";
+  }
+}
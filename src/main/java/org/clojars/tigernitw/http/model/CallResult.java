@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/** {@link CallResult} outcome of a single call executed as part of a batch of calls. */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CallResult<T> {
+
+  private final T value;
+
+  private final Throwable error;
+
+  private final boolean cancelled;
+
+  public static <T> CallResult<T> success(T value) {
+    return new CallResult<>(value, null, false);
+  }
+
+  public static <T> CallResult<T> failure(Throwable error) {
+    return new CallResult<>(null, error, false);
+  }
+
+  public static <T> CallResult<T> cancelled() {
+    return new CallResult<>(null, null, true);
+  }
+
+  public boolean isSuccess() {
+    return !cancelled && error == null;
+  }
+}
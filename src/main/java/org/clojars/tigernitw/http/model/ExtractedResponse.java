@@ -19,7 +19,10 @@ package org.clojars.tigernitw.http.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.clojars.tigernitw.http.buffer.BufferLease;
 
 @Data
 @Builder
@@ -30,4 +33,24 @@ public class ExtractedResponse {
   private int code;
 
   private byte[] body;
+
+  /**
+   * Pooled buffer holding the body when the client reads bodies through a buffer pool, only valid
+   * while the non-success consumer runs; the body is copied out before the buffer goes back.
+   */
+  @ToString.Exclude @EqualsAndHashCode.Exclude private BufferLease bodyLease;
+
+  /** The body, copied out of {@code bodyLease} on first access when it was read into one. */
+  public byte[] getBody() {
+    if (body == null && bodyLease != null) {
+      body = bodyLease.toByteArray();
+    }
+    return body;
+  }
+
+  /** Copies the body out of {@code bodyLease} and drops the lease, so it can be released. */
+  public void detachBody() {
+    getBody();
+    bodyLease = null;
+  }
 }
@@ -2,14 +2,26 @@ package org.clojars.tigernitw.http.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.cache.ResponseCache;
+import org.clojars.tigernitw.http.coalescing.RequestCoalescer;
 import org.clojars.tigernitw.http.config.HttpAppConfiguration;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.HttpTransport;
 
 @Data
 @Builder
@@ -19,12 +31,42 @@ public class HttpRequest {
 
   private HttpAppConfiguration httpAppConfiguration;
   private CloseableHttpClient httpClient;
+  private CloseableHttpAsyncClient httpAsyncClient;
   private HttpClientConfiguration.EndpointConfig endpoint;
   private String path;
+
+  /** Path with placeholders, e.g. {@code /orders/{id}}, used to tag metrics. */
+  private String pathTemplate;
+
+  /**
+   * Precompiled endpoint, path template and static headers, replaces {@code endpoint}, {@code path}
+   * and {@code tracingConfig}; {@code httpHeaders} are sent in addition to the static ones.
+   */
+  private RequestPlan requestPlan;
+
+  /** Values of the plan's path variables. */
+  private Map<String, String> pathVariables;
+
   private HttpMethod httpMethod;
   private Set<HttpHeader> httpHeaders;
   private List<QueryParam> queryParams;
   private HttpRequestData httpRequestData;
   private ObjectMapper objectMapper;
   private HttpClientConfiguration.TracingConfig tracingConfig;
+  private HttpClientMetrics metrics;
+  private ResponseCache responseCache;
+  private RequestCoalescer requestCoalescer;
+  private RetryPolicy retryPolicy;
+  private HedgingPolicy hedgingPolicy;
+  private ConcurrencyLimiter concurrencyLimiter;
+  private BufferPool bufferPool;
+
+  /** Engine sending the request, defaults to the Apache clients above. */
+  private HttpTransport transport;
+
+  /**
+   * Time by which the call has to complete, e.g. {@code Deadline.after(200)}; an earlier deadline
+   * of the inbound request in the MDC takes precedence.
+   */
+  private Deadline deadline;
 }
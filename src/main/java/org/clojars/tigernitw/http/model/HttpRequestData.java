@@ -31,4 +31,10 @@ public class HttpRequestData {
   private Object data;
 
   private ContentType contentType;
+
+  /** Streams the body with chunked transfer encoding instead of a known content length. */
+  private boolean chunked;
+
+  /** Whether the body may be written more than once, e.g. when the request is retried. */
+  @Builder.Default private boolean repeatable = true;
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.plan;
+
+import static org.clojars.tigernitw.http.model.Constant.Monitoring.X_REQUEST_ID;
+import static org.clojars.tigernitw.http.model.Constant.RequestHeaders.REMOVABLE_HEADERS;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.model.HttpHeader;
+import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.util.CollectionUtils;
+import org.slf4j.MDC;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RequestPlan} the parts of a request that do not change between calls, compiled once per
+ * endpoint, path template and static headers. Scheme, host, port and the literal parts of the path
+ * are encoded up front and the static headers are kept as a ready array, so a call only encodes its
+ * path variables and query parameters and adds the request id headers.
+ *
+ * <p>Plans are immutable and meant to be kept in a field and shared between threads.
+ */
+public final class RequestPlan {
+
+  @Getter private final HttpClientConfiguration.EndpointConfig endpoint;
+  @Getter private final String pathTemplate;
+
+  /** Encoded {@code scheme://host:port} followed by the encoded literal path segments. */
+  private final String[] literals;
+
+  private final String[] variableNames;
+  private final Header[] staticHeaders;
+  private final String[] requestIdHeaders;
+  private final String requestIdMdcKey;
+
+  /** Sorted {@code name=value} of the static headers, identifies the plan in coalescing keys. */
+  @Getter private final String headerKey;
+
+  @Builder
+  public RequestPlan(
+      HttpAppConfiguration httpAppConfiguration,
+      HttpClientConfiguration.EndpointConfig endpoint,
+      HttpClientConfiguration.TracingConfig tracingConfig,
+      String pathTemplate,
+      Collection<HttpHeader> httpHeaders) {
+    Objects.requireNonNull(httpAppConfiguration, "httpAppConfiguration can't be null");
+    Objects.requireNonNull(endpoint, "endpoint can't be null");
+    this.endpoint = endpoint;
+    this.pathTemplate = Objects.nonNull(pathTemplate) ? pathTemplate : "";
+
+    var prefix = new StringBuilder(endpoint.isSecure() ? "https://" : "http://");
+    prefix.append(endpoint.getHost());
+    // the same URI as HttpUtils.fetchUrl: every port but -1 is kept, an empty path stays empty
+    if (endpoint.getPort() >= 0) {
+      prefix.append(':').append(endpoint.getPort());
+    }
+    if (!this.pathTemplate.isEmpty() && !this.pathTemplate.startsWith("/")) {
+      prefix.append('/');
+    }
+    List<String> literalParts = new ArrayList<>();
+    List<String> variableParts = new ArrayList<>();
+    int position = 0;
+    int open;
+    while ((open = this.pathTemplate.indexOf('{', position)) >= 0) {
+      int close = this.pathTemplate.indexOf('}', open);
+      if (close < 0) {
+        throw new IllegalArgumentException("unclosed variable in path " + this.pathTemplate);
+      }
+      UriEncoder.appendPath(prefix, this.pathTemplate.substring(position, open));
+      literalParts.add(prefix.toString());
+      variableParts.add(this.pathTemplate.substring(open + 1, close));
+      prefix.setLength(0);
+      position = close + 1;
+    }
+    UriEncoder.appendPath(prefix, this.pathTemplate.substring(position));
+    literalParts.add(prefix.toString());
+    this.literals = literalParts.toArray(String[]::new);
+    this.variableNames = variableParts.toArray(String[]::new);
+
+    List<HttpHeader> headers =
+        Objects.nonNull(httpHeaders)
+            ? httpHeaders.stream().filter(RequestPlan::isForwardable).toList()
+            : List.of();
+    this.staticHeaders =
+        headers.stream()
+            .map(httpHeader -> new BasicHeader(httpHeader.getName(), httpHeader.getValue()))
+            .toArray(Header[]::new);
+    this.headerKey =
+        headers.stream()
+            .map(httpHeader -> httpHeader.getName().toLowerCase() + '=' + httpHeader.getValue())
+            .sorted()
+            .collect(Collectors.joining("|"));
+    this.requestIdHeaders =
+        Objects.nonNull(tracingConfig) && StringUtils.hasLength(tracingConfig.getRequestIdHeader())
+            ? new String[] {X_REQUEST_ID, tracingConfig.getRequestIdHeader()}
+            : new String[] {X_REQUEST_ID};
+    this.requestIdMdcKey = httpAppConfiguration.getRequestIdHeader();
+  }
+
+  /** Names of the path variables, in the order they appear in the template. */
+  public List<String> getVariableNames() {
+    return List.of(variableNames);
+  }
+
+  public URI uri(Map<String, ?> pathVariables, List<QueryParam> queryParams) {
+    if (variableNames.length == 0) {
+      return uri(new Object[0], queryParams);
+    }
+    Objects.requireNonNull(pathVariables, "path variables can't be null for " + pathTemplate);
+    Object[] values = new Object[variableNames.length];
+    for (int i = 0; i < variableNames.length; i++) {
+      values[i] = pathVariables.get(variableNames[i]);
+    }
+    return uri(values, queryParams);
+  }
+
+  /** URI with the path variables given in template order. */
+  public URI uri(Object[] pathVariables, List<QueryParam> queryParams) {
+    if (pathVariables.length != variableNames.length) {
+      throw new IllegalArgumentException(
+          "expected " + variableNames.length + " path variables for " + pathTemplate);
+    }
+    var uri = new StringBuilder(literals[0]);
+    for (int i = 0; i < variableNames.length; i++) {
+      Object value =
+          Objects.requireNonNull(
+              pathVariables[i], "path variable " + variableNames[i] + " is null");
+      UriEncoder.appendSegment(uri, value.toString());
+      uri.append(literals[i + 1]);
+    }
+    if (!CollectionUtils.isNullOrEmpty(queryParams)) {
+      char separator = '?';
+      for (QueryParam queryParam : queryParams) {
+        uri.append(separator);
+        UriEncoder.appendQuery(uri, queryParam.getName());
+        if (Objects.nonNull(queryParam.getValue())) {
+          uri.append('=');
+          UriEncoder.appendQuery(uri, queryParam.getValue());
+        }
+        separator = '&';
+      }
+    }
+    return URI.create(uri.toString());
+  }
+
+  /**
+   * Static headers followed by the forwardable per-call headers and the request id headers taken
+   * from the MDC.
+   */
+  public Header[] headers(Collection<HttpHeader> httpHeaders) {
+    int extra = Objects.nonNull(httpHeaders) ? httpHeaders.size() : 0;
+    Header[] headers =
+        Arrays.copyOf(staticHeaders, staticHeaders.length + extra + requestIdHeaders.length);
+    int index = staticHeaders.length;
+    if (extra > 0) {
+      for (HttpHeader httpHeader : httpHeaders) {
+        if (isForwardable(httpHeader)) {
+          headers[index++] = new BasicHeader(httpHeader.getName(), httpHeader.getValue());
+        }
+      }
+    }
+    String requestId = MDC.get(requestIdMdcKey);
+    for (String requestIdHeader : requestIdHeaders) {
+      headers[index++] = new BasicHeader(requestIdHeader, requestId);
+    }
+    return index == headers.length ? headers : Arrays.copyOf(headers, index);
+  }
+
+  private static boolean isForwardable(HttpHeader httpHeader) {
+    for (String removableHeader : REMOVABLE_HEADERS) {
+      if (removableHeader.equalsIgnoreCase(httpHeader.getName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
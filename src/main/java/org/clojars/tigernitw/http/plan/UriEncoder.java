@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.plan;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Percent-encoding into a caller supplied builder, with the same safe sets {@code URIBuilder}
+ * applies to paths and form encoded query parameters.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class UriEncoder {
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private static final BitSet QUERY_SAFE = new BitSet(128);
+  private static final BitSet SEGMENT_SAFE = new BitSet(128);
+  private static final BitSet PATH_SAFE = new BitSet(128);
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      QUERY_SAFE.set(c);
+      QUERY_SAFE.set(Character.toUpperCase(c));
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      QUERY_SAFE.set(c);
+    }
+    SEGMENT_SAFE.or(QUERY_SAFE);
+    "-_.*".chars().forEach(QUERY_SAFE::set);
+    "_-!.~'()*,;:$&+=@".chars().forEach(SEGMENT_SAFE::set);
+    PATH_SAFE.or(SEGMENT_SAFE);
+    PATH_SAFE.set('/');
+  }
+
+  /** Path including its separators. */
+  static void appendPath(StringBuilder target, String value) {
+    append(target, value, PATH_SAFE, false);
+  }
+
+  /** Single path segment, a {@code /} in the value is escaped. */
+  static void appendSegment(StringBuilder target, String value) {
+    append(target, value, SEGMENT_SAFE, false);
+  }
+
+  /** Query parameter name or value, {@code application/x-www-form-urlencoded} style. */
+  static void appendQuery(StringBuilder target, String value) {
+    append(target, value, QUERY_SAFE, true);
+  }
+
+  private static void append(
+      StringBuilder target, String value, BitSet safe, boolean plusForSpace) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 128 && safe.get(c)) {
+        target.append(c);
+      } else if (c == ' ' && plusForSpace) {
+        target.append('+');
+      } else if (c < 128) {
+        appendEscaped(target, c);
+      } else {
+        int end = i + 1;
+        while (end < length && value.charAt(end) >= 128) {
+          end++;
+        }
+        for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+          appendEscaped(target, b & 0xFF);
+        }
+        i = end - 1;
+      }
+    }
+  }
+
+  private static void appendEscaped(StringBuilder target, int b) {
+    target.append('%').append(HEX[b >> 4]).append(HEX[b & 0xF]);
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.balancer.LoadBalancingTransport;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientRegistryConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.metrics.HttpClientMetricsFactory;
+import org.clojars.tigernitw.http.transport.ApacheHttpTransport;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.util.HttpUtils;
+
+/**
+ * {@link HttpClientRegistry} the named clients declared under {@code app-http-clients}, built once
+ * at startup. Lookup by name is a single hash map read.
+ */
+@Slf4j
+public class HttpClientRegistry implements Closeable {
+
+  private final Map<String, NamedHttpClient> clients;
+  private final Map<String, PoolingHttpClientConnectionManager> sharedPools;
+
+  public HttpClientRegistry(
+      HttpClientRegistryConfiguration registryConfiguration,
+      HttpAppConfiguration httpAppConfiguration,
+      HttpClientMetricsFactory metricsFactory,
+      ObjectMapper objectMapper)
+      throws IOException {
+    Map<String, PoolingHttpClientConnectionManager> pools = new HashMap<>();
+    Map<String, List<HttpRoute>> poolRoutes = new HashMap<>();
+    Map<String, NamedHttpClient> namedClients = new HashMap<>();
+    List<HttpTransport> transports = new ArrayList<>();
+    try {
+      registryConfiguration
+          .getPools()
+          .forEach(
+              (poolName, poolConfig) -> {
+                pools.put(
+                    poolName,
+                    ApacheHttpClient.createConnectionManager(
+                        poolConfig.getMaxTotal(),
+                        poolConfig.getDefaultMaxPerRoute(),
+                        poolConfig.getConnectionLifecycle(),
+                        ApacheHttpClient.createDnsResolver(
+                            poolConfig.getDns(), metricsFactory.create(poolName)),
+                        metricsFactory.create(poolName)));
+                poolRoutes.put(poolName, new ArrayList<>());
+              });
+
+      for (var entry : registryConfiguration.getClients().entrySet()) {
+        String name = entry.getKey();
+        HttpClientConfiguration httpConfig = entry.getValue();
+        httpConfig.setName(name);
+        HttpClientMetrics metrics = metricsFactory.create(name);
+
+        var httpClientBuilder = NamedHttpClient.builder();
+        HttpTransport transport;
+        if (Objects.nonNull(httpConfig.getSharedPool())) {
+          var sharedPool = pools.get(httpConfig.getSharedPool());
+          if (Objects.isNull(sharedPool)) {
+            throw new IllegalArgumentException(
+                "client " + name + " refers to unknown pool " + httpConfig.getSharedPool());
+          }
+          if (Objects.nonNull(httpConfig.getHttp2()) && httpConfig.getHttp2().isEnabled()) {
+            throw new IllegalArgumentException(
+                "client " + name + " can't lease from a shared pool over HTTP/2");
+          }
+          if (httpConfig.getTransport() != HttpClientConfiguration.Transport.APACHE) {
+            throw new IllegalArgumentException(
+                "client " + name + " can't lease from a shared pool over the JDK transport");
+          }
+          poolRoutes
+              .get(httpConfig.getSharedPool())
+              .addAll(HttpUtils.routes(httpConfig.getEndpoint()));
+          transport = ApacheHttpClient.createTransport(httpConfig, sharedPool, true, metrics);
+        } else {
+          transport = ApacheHttpClient.createTransport(httpConfig, metrics);
+        }
+        transports.add(transport);
+        var engine =
+            transport instanceof LoadBalancingTransport loadBalancingTransport
+                ? loadBalancingTransport.getTransport()
+                : transport;
+        if (engine instanceof ApacheHttpTransport apacheTransport) {
+          httpClientBuilder
+              .httpClient(apacheTransport.getHttpClient())
+              .httpAsyncClient(apacheTransport.getHttpAsyncClient());
+        }
+        namedClients.put(
+            name,
+            httpClientBuilder
+                .name(name)
+                .configuration(httpConfig)
+                .httpAppConfiguration(httpAppConfiguration)
+                .metrics(metrics)
+                .responseCache(ApacheHttpClient.createResponseCache(httpConfig))
+                .requestCoalescer(ApacheHttpClient.createRequestCoalescer(httpConfig))
+                .retryPolicy(ApacheHttpClient.createRetryPolicy(httpConfig))
+                .hedgingPolicy(ApacheHttpClient.createHedgingPolicy(httpConfig))
+                .concurrencyLimiter(ApacheHttpClient.createConcurrencyLimiter(httpConfig, metrics))
+                .bufferPool(ApacheHttpClient.createBufferPool(httpConfig))
+                .transport(transport)
+                .objectMapper(objectMapper)
+                .build());
+        log.info("HttpClientRegistry :: registered client: {}", name);
+      }
+      poolRoutes.forEach(
+          (poolName, routes) ->
+              metricsFactory.create(poolName).bindConnectionPool(pools.get(poolName), routes));
+    } catch (IOException | RuntimeException e) {
+      // nothing owns what was built so far, the clients' I/O reactors and evictions would leak
+      try {
+        close(transports, pools.values());
+      } catch (IOException closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+
+    this.clients = Map.copyOf(namedClients);
+    this.sharedPools = Map.copyOf(pools);
+  }
+
+  /** Client registered under the name, fails for unknown names. */
+  public NamedHttpClient get(String name) {
+    NamedHttpClient client = clients.get(name);
+    if (Objects.isNull(client)) {
+      throw new IllegalArgumentException("no http client registered under " + name);
+    }
+    return client;
+  }
+
+  public boolean contains(String name) {
+    return clients.containsKey(name);
+  }
+
+  public Set<String> names() {
+    return clients.keySet();
+  }
+
+  @Override
+  public void close() throws IOException {
+    close(
+        clients.values().stream().map(NamedHttpClient::getTransport).toList(),
+        sharedPools.values());
+  }
+
+  /** Closes every transport and pool, a failure to close one does not keep the others open. */
+  private static void close(
+      Collection<HttpTransport> transports, Collection<PoolingHttpClientConnectionManager> pools)
+      throws IOException {
+    IOException failure = null;
+    for (HttpTransport transport : transports) {
+      try {
+        transport.close();
+      } catch (IOException e) {
+        if (Objects.isNull(failure)) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    pools.forEach(PoolingHttpClientConnectionManager::shutdown);
+    if (Objects.nonNull(failure)) {
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.registry;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.buffer.BufferPool;
+import org.clojars.tigernitw.http.cache.ResponseCache;
+import org.clojars.tigernitw.http.coalescing.RequestCoalescer;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.executor.PlannedHttpExecutor;
+import org.clojars.tigernitw.http.hedging.HedgingPolicy;
+import org.clojars.tigernitw.http.limiter.ConcurrencyLimiter;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.model.HttpHeader;
+import org.clojars.tigernitw.http.model.HttpMethod;
+import org.clojars.tigernitw.http.model.HttpRequest;
+import org.clojars.tigernitw.http.plan.RequestPlan;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+
+/** {@link NamedHttpClient} a client of the registry together with its per-client components. */
+@Getter
+@Builder
+public class NamedHttpClient {
+
+  private final String name;
+  private final HttpClientConfiguration configuration;
+  private final HttpAppConfiguration httpAppConfiguration;
+  private final CloseableHttpClient httpClient;
+  private final CloseableHttpAsyncClient httpAsyncClient;
+  private final HttpClientMetrics metrics;
+  private final ResponseCache responseCache;
+  private final RequestCoalescer requestCoalescer;
+  private final RetryPolicy retryPolicy;
+  private final HedgingPolicy hedgingPolicy;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final BufferPool bufferPool;
+
+  /** Engine the requests go through, wraps the two clients above unless it is the JDK one. */
+  private final HttpTransport transport;
+
+  private final ObjectMapper objectMapper;
+
+  /** Response types of the planned executors handed out so far, see {@link #plannedExecutor}. */
+  @Builder.Default private final Set<JavaType> responseTypes = ConcurrentHashMap.newKeySet();
+
+  /** Request builder pre-filled with this client, its endpoint and its components. */
+  public HttpRequest.HttpRequestBuilder request() {
+    return HttpRequest.builder()
+        .httpAppConfiguration(httpAppConfiguration)
+        .httpClient(httpClient)
+        .httpAsyncClient(httpAsyncClient)
+        .endpoint(configuration.getEndpoint())
+        .tracingConfig(configuration.getTracingConfig())
+        .objectMapper(objectMapper)
+        .metrics(metrics)
+        .responseCache(responseCache)
+        .requestCoalescer(requestCoalescer)
+        .retryPolicy(retryPolicy)
+        .hedgingPolicy(hedgingPolicy)
+        .concurrencyLimiter(concurrencyLimiter)
+        .bufferPool(bufferPool)
+        .transport(transport);
+  }
+
+  /** Plan for this client's endpoint, compile once and pass it to {@link #request()} per call. */
+  public RequestPlan requestPlan(String pathTemplate, Collection<HttpHeader> httpHeaders) {
+    return RequestPlan.builder()
+        .httpAppConfiguration(httpAppConfiguration)
+        .endpoint(configuration.getEndpoint())
+        .tracingConfig(configuration.getTracingConfig())
+        .pathTemplate(pathTemplate)
+        .httpHeaders(httpHeaders)
+        .build();
+  }
+
+  /** Shared executor for one call shape of this client, see {@link PlannedHttpExecutor}. */
+  public PlannedHttpExecutor plannedExecutor(
+      HttpMethod httpMethod,
+      String pathTemplate,
+      Collection<HttpHeader> httpHeaders,
+      JavaType responseType) {
+    if (Objects.nonNull(responseType)) {
+      responseTypes.add(responseType);
+    }
+    return PlannedHttpExecutor.builder()
+        .httpAppConfiguration(httpAppConfiguration)
+        .httpClient(httpClient)
+        .httpAsyncClient(httpAsyncClient)
+        .objectMapper(objectMapper)
+        .metrics(metrics)
+        .requestPlan(requestPlan(pathTemplate, httpHeaders))
+        .httpMethod(httpMethod)
+        .responseType(responseType)
+        .retryPolicy(retryPolicy)
+        .hedgingPolicy(hedgingPolicy)
+        .concurrencyLimiter(concurrencyLimiter)
+        .bufferPool(bufferPool)
+        .transport(transport)
+        .build();
+  }
+}
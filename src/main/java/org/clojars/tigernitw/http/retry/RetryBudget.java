@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+
+/**
+ * {@link RetryBudget} token bucket shared by all requests of a client. Every request deposits
+ * {@code budgetRatio} of a token and every retry withdraws a whole one, so retries stay a fixed
+ * share of the traffic however many requests fail. A small per-second allowance lets low traffic
+ * clients retry too.
+ */
+public class RetryBudget {
+
+  /** Balances are kept in thousandths of a token to stay on integer arithmetic. */
+  private static final long TOKEN = 1000;
+
+  /** The bucket holds this many seconds worth of the per-second allowance. */
+  private static final int CAPACITY_SECONDS = 10;
+
+  private final long depositPerRequest;
+  private final long refillPerSecond;
+  private final long capacity;
+  private final LongSupplier nanoClock;
+  private final AtomicLong balance;
+  private final AtomicLong lastRefillNanos;
+
+  public RetryBudget(HttpClientConfiguration.RetryConfig retryConfig) {
+    this(retryConfig.getBudgetRatio(), retryConfig.getBudgetMinRetriesPerSecond());
+  }
+
+  /**
+   * @param ratio tokens deposited per request
+   * @param minPerSecond tokens added per second regardless of traffic
+   */
+  public RetryBudget(double ratio, int minPerSecond) {
+    this(ratio, minPerSecond, System::nanoTime);
+  }
+
+  RetryBudget(double ratio, int minPerSecond, LongSupplier nanoClock) {
+    this.depositPerRequest = Math.round(ratio * TOKEN);
+    this.refillPerSecond = minPerSecond * TOKEN;
+    this.capacity = Math.max(minPerSecond, 1) * TOKEN * CAPACITY_SECONDS;
+    this.nanoClock = nanoClock;
+    this.balance = new AtomicLong(refillPerSecond);
+    this.lastRefillNanos = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  /** Called once per request, not per attempt. */
+  public void deposit() {
+    if (depositPerRequest > 0) {
+      add(depositPerRequest);
+    }
+  }
+
+  /** Takes a token for one retry, {@code false} when the budget is exhausted. */
+  public boolean tryWithdraw() {
+    refill();
+    long current;
+    do {
+      current = balance.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  /** Whole retries currently available. */
+  public long getAvailable() {
+    return balance.get() / TOKEN;
+  }
+
+  private void refill() {
+    if (refillPerSecond == 0) {
+      return;
+    }
+    long now = nanoClock.getAsLong();
+    long last = lastRefillNanos.get();
+    long tokens = (long) ((double) (now - last) * refillPerSecond / 1_000_000_000L);
+    // losing the race is fine, the winner credits the same elapsed time
+    if (tokens > 0 && lastRefillNanos.compareAndSet(last, now)) {
+      add(tokens);
+    }
+  }
+
+  private void add(long amount) {
+    balance.accumulateAndGet(amount, (current, delta) -> Math.min(capacity, current + delta));
+  }
+}
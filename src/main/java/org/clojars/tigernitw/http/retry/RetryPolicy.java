@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.retry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Getter;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.util.HttpUtils;
+
+/**
+ * {@link RetryPolicy} decides whether a failed attempt against the client's endpoint is sent again
+ * and how long to back off before. Only idempotent requests with a repeatable body are retried,
+ * POST when opted in, and every retry has to be paid for from the {@link RetryBudget}.
+ */
+public class RetryPolicy {
+
+  @Getter private final int maxAttempts;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+  private final double backoffMultiplier;
+  private final Set<Integer> retryableStatusCodes;
+  private final List<Class<? extends Throwable>> retryableExceptions;
+  private final boolean retryPost;
+  @Getter private final RetryBudget budget;
+
+  public RetryPolicy(HttpClientConfiguration.RetryConfig retryConfig) {
+    this.maxAttempts = retryConfig.getMaxAttempts();
+    this.initialBackoffMs = retryConfig.getInitialBackoffMs();
+    this.maxBackoffMs = Math.max(retryConfig.getMaxBackoffMs(), initialBackoffMs);
+    this.backoffMultiplier = retryConfig.getBackoffMultiplier();
+    this.retryableStatusCodes = Set.copyOf(retryConfig.getRetryableStatusCodes());
+    this.retryableExceptions = List.copyOf(retryConfig.getRetryableExceptions());
+    this.retryPost = retryConfig.isRetryPost();
+    this.budget = new RetryBudget(retryConfig);
+  }
+
+  /** Whether the request may be sent more than once at all. */
+  public boolean isRetryable(HttpUriRequest request) {
+    String method = request.getMethod();
+    return (HttpUtils.isIdempotent(method) || (retryPost && "POST".equals(method)))
+        && HttpUtils.isRepeatable(request);
+  }
+
+  public boolean isRetryable(int statusCode) {
+    return retryableStatusCodes.contains(statusCode);
+  }
+
+  public boolean isRetryable(Throwable e) {
+    // a lease timeout means the pool is saturated, queueing again only makes that worse
+    if (e instanceof ConnectionPoolTimeoutException) {
+      return false;
+    }
+    for (Class<? extends Throwable> type : retryableExceptions) {
+      if (type.isInstance(e)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Full jitter: uniformly random up to the exponential backoff of the attempt, so clients failing
+   * together do not retry together.
+   *
+   * @param attempt the attempt that failed, starting at 1
+   */
+  public long backoffMillis(int attempt) {
+    return ThreadLocalRandom.current().nextLong(maxBackoffMillis(attempt) + 1);
+  }
+
+  /** Longest backoff {@link #backoffMillis} may return for the attempt. */
+  public long maxBackoffMillis(int attempt) {
+    double ceiling = initialBackoffMs * Math.pow(backoffMultiplier, attempt - 1);
+    return (long) Math.min(maxBackoffMs, ceiling);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.transport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+
+/**
+ * {@link ApacheHttpTransport} the Apache HttpClient 4.x clients, the non-blocking one is optional.
+ */
+@Getter
+public class ApacheHttpTransport implements HttpTransport {
+
+  private final CloseableHttpClient httpClient;
+  private final CloseableHttpAsyncClient httpAsyncClient;
+
+  /** Pool of the blocking client, {@code null} when unknown; only used to open connections. */
+  private final HttpClientConnectionManager connectionManager;
+
+  public ApacheHttpTransport(
+      CloseableHttpClient httpClient, CloseableHttpAsyncClient httpAsyncClient) {
+    this(httpClient, httpAsyncClient, null);
+  }
+
+  public ApacheHttpTransport(
+      CloseableHttpClient httpClient,
+      CloseableHttpAsyncClient httpAsyncClient,
+      HttpClientConnectionManager connectionManager) {
+    this.httpClient = httpClient;
+    this.httpAsyncClient = httpAsyncClient;
+    this.connectionManager = connectionManager;
+  }
+
+  /** Transport over the given clients, {@code null} when there are none. */
+  public static ApacheHttpTransport of(
+      CloseableHttpClient httpClient, CloseableHttpAsyncClient httpAsyncClient) {
+    return Objects.isNull(httpClient) && Objects.isNull(httpAsyncClient)
+        ? null
+        : new ApacheHttpTransport(httpClient, httpAsyncClient);
+  }
+
+  @Override
+  public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+    Objects.requireNonNull(httpClient, "client can't be null");
+    return httpClient.execute(request);
+  }
+
+  @Override
+  public Future<HttpResponse> execute(
+      HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+    Objects.requireNonNull(httpAsyncClient, "async client can't be null");
+    return httpAsyncClient.execute(request, callback);
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    return Objects.nonNull(httpAsyncClient);
+  }
+
+  /**
+   * Leases the connections all at once so that each is a different one, connects those not open yet
+   * and releases them to the pool without an expiry; the client's idle eviction and the pool's
+   * stale check still apply.
+   */
+  @Override
+  public int openConnections(HttpRoute route, int connections, int timeoutMs)
+      throws IOException, InterruptedException {
+    if (Objects.isNull(connectionManager)) {
+      return 0;
+    }
+    if (connectionManager instanceof PoolingHttpClientConnectionManager pool) {
+      // more would wait for one of the leased connections until the timeout
+      connections = Math.min(connections, pool.getMaxPerRoute(route));
+    }
+    List<HttpClientConnection> leased = new ArrayList<>(connections);
+    int opened = 0;
+    try {
+      for (int i = 0; i < connections; i++) {
+        var connection =
+            connectionManager.requestConnection(route, null).get(timeoutMs, TimeUnit.MILLISECONDS);
+        leased.add(connection);
+        if (!connection.isOpen()) {
+          var context = HttpClientContext.create();
+          connectionManager.connect(connection, route, timeoutMs, context);
+          connectionManager.routeComplete(connection, route, context);
+          opened++;
+        }
+      }
+    } catch (ExecutionException e) {
+      throw new IOException("can't lease a connection to " + route, e.getCause());
+    } finally {
+      for (var connection : leased) {
+        // connections that failed to open are closed and dropped by the pool
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+      }
+    }
+    return opened;
+  }
+
+  @Override
+  public RequestConfig getDefaultRequestConfig() {
+    // the async client is built with the same timeouts
+    return httpClient instanceof Configurable configurable ? configurable.getConfig() : null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (Objects.nonNull(httpClient)) {
+      httpClient.close();
+    }
+    if (Objects.nonNull(httpAsyncClient)) {
+      httpAsyncClient.close();
+    }
+  }
+}
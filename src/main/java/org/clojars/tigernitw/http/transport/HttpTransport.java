@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Future;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
+
+/**
+ * {@link HttpTransport} engine sending the executors' requests. Requests and responses stay
+ * HttpCore messages, an engine only has to put them on the wire. {@link ApacheHttpTransport} is the
+ * default, {@link JdkHttpTransport} runs on {@code java.net.http.HttpClient}.
+ */
+public interface HttpTransport extends Closeable {
+
+  /**
+   * Sends the request and blocks for the response, whose body is streamed: the caller consumes the
+   * entity or closes the response. {@link HttpUriRequest#abort()} cancels the exchange.
+   */
+  CloseableHttpResponse execute(HttpUriRequest request) throws IOException;
+
+  /**
+   * Sends the request without blocking. The callback gets the response with its body buffered and
+   * still content encoded, decoding is left to the caller. Cancelling the future cancels the
+   * exchange.
+   */
+  Future<HttpResponse> execute(HttpUriRequest request, FutureCallback<HttpResponse> callback);
+
+  /** Whether {@link #execute(HttpUriRequest, FutureCallback)} can be used. */
+  boolean isAsyncSupported();
+
+  /**
+   * Opens up to {@code connections} connections to the route ahead of the first request, TLS
+   * handshake included, and leaves them idle in the blocking pool. Returns how many were opened,
+   * engines that only connect on demand open none.
+   */
+  default int openConnections(HttpRoute route, int connections, int timeoutMs)
+      throws IOException, InterruptedException {
+    return 0;
+  }
+
+  /**
+   * Timeouts of requests without an own config, which a request's config replaces as a whole;
+   * {@code null} when unknown.
+   */
+  default RequestConfig getDefaultRequestConfig() {
+    return null;
+  }
+}
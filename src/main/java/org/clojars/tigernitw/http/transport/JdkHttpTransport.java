@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+
+/**
+ * {@link JdkHttpTransport} runs on {@code java.net.http.HttpClient}, which needs no dependency
+ * beyond the JDK and serves both blocking and non-blocking calls from one client. The JDK keeps its
+ * own unbounded connection pool, so {@code connections} and {@code maxPerRoute} do not apply;
+ * {@code opTimeoutMs} bounds the wait for the response headers. Request bodies are buffered.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+  private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+  /** Headers the JDK client sets itself and refuses to take from the caller. */
+  private static final Set<String> RESTRICTED_HEADERS =
+      Set.of(
+          "connection",
+          "content-length",
+          "expect",
+          "host",
+          "upgrade",
+          "keep-alive",
+          "proxy-connection",
+          "transfer-encoding");
+
+  private final HttpClient httpClient;
+  private final RequestConfig defaultRequestConfig;
+  private final HttpProcessor httpProcessor;
+  private final HttpProcessor asyncHttpProcessor;
+
+  /**
+   * @param http2 prefers HTTP/2, negotiated through ALPN or an h2c upgrade
+   * @param httpProcessor interceptors of blocking calls, such as compression and decoding
+   * @param asyncHttpProcessor interceptors of non-blocking calls, which leave decoding to the
+   *     caller
+   */
+  public JdkHttpTransport(
+      RequestConfig defaultRequestConfig,
+      boolean http2,
+      HttpProcessor httpProcessor,
+      HttpProcessor asyncHttpProcessor) {
+    this.defaultRequestConfig = defaultRequestConfig;
+    this.httpProcessor = httpProcessor;
+    this.asyncHttpProcessor = asyncHttpProcessor;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(defaultRequestConfig.getConnectTimeout()))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .build();
+  }
+
+  @Override
+  public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+    var context = context(request);
+    try {
+      httpProcessor.process(request, context);
+      var exchange =
+          httpClient.sendAsync(toJdkRequest(request, context), BodyHandlers.ofInputStream());
+      if (request instanceof HttpExecutionAware executionAware) {
+        executionAware.setCancellable(() -> exchange.cancel(true));
+      }
+      java.net.http.HttpResponse<InputStream> jdkResponse = await(exchange);
+      InputStream body = jdkResponse.body();
+      if (request instanceof HttpExecutionAware executionAware) {
+        // once the headers are in, an abort has to stop the body
+        executionAware.setCancellable(
+            () -> {
+              closeQuietly(body);
+              return true;
+            });
+      }
+      var response =
+          toResponse(jdkResponse, new InputStreamEntity(body, contentLength(jdkResponse)), body);
+      context.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+      httpProcessor.process(response, context);
+      return response;
+    } catch (HttpException e) {
+      throw new ClientProtocolException(e);
+    }
+  }
+
+  @Override
+  public Future<HttpResponse> execute(
+      HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+    final CompletableFuture<java.net.http.HttpResponse<byte[]>> exchange;
+    try {
+      var context = context(request);
+      asyncHttpProcessor.process(request, context);
+      exchange = httpClient.sendAsync(toJdkRequest(request, context), BodyHandlers.ofByteArray());
+    } catch (IOException | HttpException e) {
+      if (Objects.nonNull(callback)) {
+        callback.failed(e);
+      }
+      return CompletableFuture.failedFuture(e);
+    }
+    final CompletableFuture<HttpResponse> result =
+        new CompletableFuture<>() {
+          @Override
+          public boolean cancel(boolean mayInterruptIfRunning) {
+            exchange.cancel(mayInterruptIfRunning);
+            return super.cancel(mayInterruptIfRunning);
+          }
+        };
+    exchange.whenComplete(
+        (jdkResponse, failure) -> {
+          if (Objects.isNull(failure)) {
+            HttpResponse response =
+                toResponse(jdkResponse, new ByteArrayEntity(body(jdkResponse)), null);
+            if (result.complete(response) && Objects.nonNull(callback)) {
+              callback.completed(response);
+            }
+          } else if (exchange.isCancelled() || result.isCancelled()) {
+            result.cancel(false);
+            if (Objects.nonNull(callback)) {
+              callback.cancelled();
+            }
+          } else {
+            var e = toIOException(unwrap(failure));
+            if (result.completeExceptionally(e) && Objects.nonNull(callback)) {
+              callback.failed(e);
+            }
+          }
+        });
+    return result;
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    return true;
+  }
+
+  @Override
+  public RequestConfig getDefaultRequestConfig() {
+    return defaultRequestConfig;
+  }
+
+  /** The JDK client has no close before Java 21, its threads end once it is unreachable. */
+  @Override
+  public void close() {
+    // nothing to release
+  }
+
+  private HttpClientContext context(HttpUriRequest request) {
+    var context = HttpClientContext.create();
+    context.setRequestConfig(
+        request instanceof Configurable configurable && Objects.nonNull(configurable.getConfig())
+            ? configurable.getConfig()
+            : defaultRequestConfig);
+    context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, URIUtils.extractHost(request.getURI()));
+    return context;
+  }
+
+  private static java.net.http.HttpRequest toJdkRequest(
+      HttpUriRequest request, HttpClientContext context) throws IOException {
+    var builder = java.net.http.HttpRequest.newBuilder(request.getURI());
+    for (Header header : request.getAllHeaders()) {
+      if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase())) {
+        // Apache sends a missing value as an empty one, the JDK refuses null
+        builder.header(header.getName(), Objects.toString(header.getValue(), ""));
+      }
+    }
+    int socketTimeout = context.getRequestConfig().getSocketTimeout();
+    if (socketTimeout > 0) {
+      builder.timeout(Duration.ofMillis(socketTimeout));
+    }
+    return builder.method(request.getMethod(), body(request, builder)).build();
+  }
+
+  /** The entity written out in full, entities such as the compressing ones have no content. */
+  private static BodyPublisher body(
+      HttpUriRequest request, java.net.http.HttpRequest.Builder builder) throws IOException {
+    if (!(request instanceof HttpEntityEnclosingRequest entityEnclosingRequest)
+        || Objects.isNull(entityEnclosingRequest.getEntity())) {
+      return BodyPublishers.noBody();
+    }
+    HttpEntity entity = entityEnclosingRequest.getEntity();
+    if (Objects.nonNull(entity.getContentType()) && !request.containsHeader("Content-Type")) {
+      builder.header("Content-Type", entity.getContentType().getValue());
+    }
+    if (Objects.nonNull(entity.getContentEncoding())
+        && !request.containsHeader("Content-Encoding")) {
+      builder.header("Content-Encoding", entity.getContentEncoding().getValue());
+    }
+    long contentLength = entity.getContentLength();
+    var content =
+        new ByteArrayOutputStream(
+            contentLength >= 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 1024);
+    entity.writeTo(content);
+    return BodyPublishers.ofByteArray(content.toByteArray());
+  }
+
+  private static <T> java.net.http.HttpResponse<T> await(
+      CompletableFuture<java.net.http.HttpResponse<T>> exchange) throws IOException {
+    try {
+      return exchange.get();
+    } catch (InterruptedException e) {
+      exchange.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for the response");
+    } catch (CancellationException e) {
+      throw new RequestAbortedException("Request aborted");
+    } catch (ExecutionException e) {
+      throw toIOException(e.getCause());
+    }
+  }
+
+  private static CloseableHttpResponse toResponse(
+      java.net.http.HttpResponse<?> jdkResponse, AbstractHttpEntity entity, InputStream body) {
+    var response =
+        new JdkResponse(
+            new BasicStatusLine(
+                jdkResponse.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : HttpVersion.HTTP_1_1,
+                jdkResponse.statusCode(),
+                null),
+            body);
+    jdkResponse
+        .headers()
+        .map()
+        .forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    jdkResponse.headers().firstValue("Content-Type").ifPresent(entity::setContentType);
+    jdkResponse.headers().firstValue("Content-Encoding").ifPresent(entity::setContentEncoding);
+    response.setEntity(entity);
+    return response;
+  }
+
+  private static long contentLength(java.net.http.HttpResponse<?> jdkResponse) {
+    return jdkResponse.headers().firstValueAsLong("Content-Length").orElse(-1);
+  }
+
+  private static byte[] body(java.net.http.HttpResponse<byte[]> jdkResponse) {
+    return Objects.nonNull(jdkResponse.body()) ? jdkResponse.body() : new byte[0];
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && Objects.nonNull(failure.getCause())
+        ? failure.getCause()
+        : failure;
+  }
+
+  /** JDK timeouts as the exceptions the retry policy knows from the Apache client. */
+  private static IOException toIOException(Throwable failure) {
+    if (failure instanceof HttpConnectTimeoutException) {
+      var connectTimeout = new ConnectTimeoutException(failure.getMessage());
+      connectTimeout.initCause(failure);
+      return connectTimeout;
+    }
+    if (failure instanceof HttpTimeoutException) {
+      var socketTimeout = new SocketTimeoutException(failure.getMessage());
+      socketTimeout.initCause(failure);
+      return socketTimeout;
+    }
+    return failure instanceof IOException ioException ? ioException : new IOException(failure);
+  }
+
+  private static void closeQuietly(InputStream body) {
+    try {
+      body.close();
+    } catch (IOException e) {
+      // the exchange is being abandoned anyway
+    }
+  }
+
+  /** Closing the response closes the body stream, which gives the connection back to the JDK. */
+  private static final class JdkResponse extends BasicHttpResponse
+      implements CloseableHttpResponse {
+
+    private final InputStream body;
+
+    private JdkResponse(BasicStatusLine statusLine, InputStream body) {
+      super(statusLine);
+      this.body = body;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (Objects.nonNull(body)) {
+        body.close();
+      }
+    }
+  }
+}
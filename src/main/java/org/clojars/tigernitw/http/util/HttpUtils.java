@@ -16,18 +16,28 @@
 
 package org.clojars.tigernitw.http.util;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.clojars.tigernitw.http.config.HttpClientConfiguration;
@@ -38,6 +48,8 @@ public class HttpUtils {
 
   private static final String HTTPS_SCHEME = "https";
   private static final String HTTP_SCHEME = "http";
+  private static final Set<String> IDEMPOTENT_METHODS =
+      Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
 
   public static URI fetchUrl(
       HttpClientConfiguration.EndpointConfig endpoint, String path, List<QueryParam> queryParams)
@@ -66,11 +78,90 @@ public class HttpUtils {
     return uriBuilder.build();
   }
 
+  /** Pool routes the endpoint is reached through, one per target; empty without an endpoint. */
+  public static List<HttpRoute> routes(HttpClientConfiguration.EndpointConfig endpoint) {
+    return targets(endpoint).stream()
+        .map(target -> new HttpRoute(target, null, endpoint.isSecure()))
+        .toList();
+  }
+
+  /**
+   * Hosts the endpoint's requests go to, its {@code targets} when it lists any and otherwise its
+   * {@code host}; empty when no endpoint is configured.
+   */
+  public static List<HttpHost> targets(HttpClientConfiguration.EndpointConfig endpoint) {
+    if (Objects.isNull(endpoint) || Objects.isNull(endpoint.getHost())) {
+      return List.of();
+    }
+    String scheme = endpoint.isSecure() ? HTTPS_SCHEME : HTTP_SCHEME;
+    int defaultPort = endpoint.isSecure() ? 443 : 80;
+    if (CollectionUtils.isNullOrEmpty(endpoint.getTargets())) {
+      int port = endpoint.getPort() > 0 ? endpoint.getPort() : defaultPort;
+      return List.of(new HttpHost(endpoint.getHost(), port, scheme));
+    }
+    List<HttpHost> targets = new ArrayList<>(endpoint.getTargets().size());
+    for (String target : endpoint.getTargets()) {
+      int separator = target.lastIndexOf(':');
+      if (separator == 0 || separator == target.length() - 1) {
+        throw new IllegalArgumentException("target is not host:port: " + target);
+      }
+      targets.add(
+          separator < 0
+              ? new HttpHost(target, defaultPort, scheme)
+              : new HttpHost(
+                  target.substring(0, separator),
+                  Integer.parseInt(target.substring(separator + 1)),
+                  scheme));
+    }
+    return List.copyOf(targets);
+  }
+
   public static byte[] body(HttpEntity entity) throws IOException {
     return Objects.isNull(entity) ? null : EntityUtils.toByteArray(entity);
   }
 
+  /**
+   * Deserializes the entity straight from its content stream, without buffering the body into an
+   * intermediate byte array. Returns {@code null} for an absent or empty body.
+   */
+  public static <T> T readValue(ObjectMapper objectMapper, HttpEntity entity, JavaType type)
+      throws IOException {
+    return readValue(objectMapper.readerFor(type), entity);
+  }
+
+  /** Same as {@link #readValue(ObjectMapper, HttpEntity, JavaType)} with a prepared reader. */
+  public static <T> T readValue(ObjectReader objectReader, HttpEntity entity) throws IOException {
+    if (Objects.isNull(entity)) {
+      return null;
+    }
+    try (InputStream content = entity.getContent()) {
+      if (Objects.isNull(content)) {
+        return null;
+      }
+      PushbackInputStream inputStream = new PushbackInputStream(content, 1);
+      int first = inputStream.read();
+      if (first == -1) {
+        return null;
+      }
+      inputStream.unread(first);
+      return objectReader.readValue(inputStream);
+    }
+  }
+
   public static boolean isSuccessful(int statusCode) {
     return statusCode >= 200 && statusCode < 300;
   }
+
+  public static boolean isIdempotent(String method) {
+    return IDEMPOTENT_METHODS.contains(method);
+  }
+
+  /** Whether the request can be sent again, i.e. it has no body or a repeatable one. */
+  public static boolean isRepeatable(HttpRequest request) {
+    if (request instanceof HttpEntityEnclosingRequest entityEnclosingRequest) {
+      HttpEntity entity = entityEnclosingRequest.getEntity();
+      return Objects.isNull(entity) || entity.isRepeatable();
+    }
+    return true;
+  }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.warmup;
+
+import com.fasterxml.jackson.databind.JavaType;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.util.EntityUtils;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.registry.HttpClientRegistry;
+import org.clojars.tigernitw.http.registry.NamedHttpClient;
+import org.clojars.tigernitw.http.transport.HttpTransport;
+import org.clojars.tigernitw.http.util.HttpUtils;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link HttpClientWarmer} warms the registry clients with {@code warmup} enabled when the
+ * application context starts, so the first requests after a deploy don't pay for DNS, TCP and TLS.
+ * Starting blocks until every client is warm or its {@code timeoutMs} has passed, and Spring Boot
+ * reports readiness only once the context has started.
+ */
+@Slf4j
+public class HttpClientWarmer implements SmartLifecycle {
+
+  /** Ahead of the web server, which starts in the last phases. */
+  public static final int PHASE = Integer.MAX_VALUE - 2048;
+
+  private final HttpClientRegistry httpClientRegistry;
+  private volatile boolean running;
+
+  public HttpClientWarmer(HttpClientRegistry httpClientRegistry) {
+    this.httpClientRegistry = httpClientRegistry;
+  }
+
+  @Override
+  public void start() {
+    warmUp();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return PHASE;
+  }
+
+  /** Warms the clients in parallel, returns whether all of them finished within their budget. */
+  public boolean warmUp() {
+    List<NamedHttpClient> clients =
+        httpClientRegistry.names().stream()
+            .map(httpClientRegistry::get)
+            .filter(client -> isEnabled(client.getConfiguration().getWarmup()))
+            .toList();
+    if (clients.isEmpty()) {
+      return true;
+    }
+    AtomicInteger threads = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread = new Thread(runnable, "http-warmup-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> warmUps = new ArrayList<>(clients.size());
+      for (NamedHttpClient client : clients) {
+        long deadline = start + deadlineNanos(client);
+        warmUps.add(executor.submit(() -> warmUp(client, deadline, executor)));
+      }
+      boolean complete = true;
+      for (int i = 0; i < clients.size(); i++) {
+        complete &= await(clients.get(i), warmUps.get(i), start + deadlineNanos(clients.get(i)));
+      }
+      log.info(
+          "HttpClientWarmer :: warmUp :: {} clients in {} ms, complete: {}",
+          clients.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          complete);
+      return complete;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      // whatever still runs is out of budget
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean await(NamedHttpClient client, Future<?> warmUp, long deadline)
+      throws InterruptedException {
+    try {
+      warmUp.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      log.warn(
+          "HttpClientWarmer :: warmUp :: client {} did not finish within {} ms",
+          client.getName(),
+          client.getConfiguration().getWarmup().getTimeoutMs());
+    } catch (ExecutionException e) {
+      log.warn("HttpClientWarmer :: warmUp :: client {} failed", client.getName(), e.getCause());
+    }
+    return false;
+  }
+
+  private static Void warmUp(NamedHttpClient client, long deadline, ExecutorService executor)
+      throws IOException, InterruptedException, URISyntaxException {
+    var configuration = client.getConfiguration();
+    var warmupConfig = configuration.getWarmup();
+    var endpoint = configuration.getEndpoint();
+
+    int addresses = 0;
+    int opened = 0;
+    HttpTransport transport = client.getTransport();
+    for (HttpRoute route : HttpUtils.routes(endpoint)) {
+      // fills the JVM's address cache ahead of the first connect
+      addresses += InetAddress.getAllByName(route.getTargetHost().getHostName()).length;
+      opened +=
+          transport.openConnections(route, warmupConfig.getConnections(), remainingMs(deadline));
+    }
+
+    int types = warmSerializers(client, warmupConfig);
+
+    int healthy = 0;
+    if (StringUtils.hasText(warmupConfig.getHealthPath())) {
+      URI uri = HttpUtils.fetchUrl(endpoint, warmupConfig.getHealthPath(), null);
+      healthy = healthRequests(transport, uri, warmupConfig.getConnections(), deadline, executor);
+    }
+    log.info(
+        "HttpClientWarmer :: warmUp :: client {}: {} addresses, {} connections opened, {} types, "
+            + "{} healthy responses",
+        client.getName(),
+        addresses,
+        opened,
+        types,
+        healthy);
+    return null;
+  }
+
+  /**
+   * Builds and caches the (de)serializers, the eager fetch of readers and writers does the work.
+   */
+  private static int warmSerializers(
+      NamedHttpClient client, HttpClientConfiguration.WarmupConfig warmupConfig) {
+    var objectMapper = client.getObjectMapper();
+    Set<JavaType> types = new LinkedHashSet<>(client.getResponseTypes());
+    warmupConfig.getResponseTypes().forEach(type -> types.add(objectMapper.constructType(type)));
+    for (JavaType type : types) {
+      objectMapper.readerFor(type);
+      objectMapper.writerFor(type);
+    }
+    return types.size();
+  }
+
+  /**
+   * Sends {@code count} requests at once, so engines that connect on demand open as many
+   * connections, and as many without blocking when the transport can, which fills the pool of the
+   * non-blocking client.
+   */
+  private static int healthRequests(
+      HttpTransport transport, URI uri, int count, long deadline, ExecutorService executor)
+      throws InterruptedException {
+    List<Future<HttpResponse>> responses = new ArrayList<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      HttpGet request = healthRequest(uri, deadline);
+      responses.add(
+          executor.submit(
+              () -> {
+                try (var response = transport.execute(request)) {
+                  EntityUtils.consume(response.getEntity());
+                  return response;
+                }
+              }));
+    }
+    if (transport.isAsyncSupported()) {
+      for (int i = 0; i < count; i++) {
+        responses.add(transport.execute(healthRequest(uri, deadline), null));
+      }
+    }
+    int healthy = 0;
+    for (Future<HttpResponse> response : responses) {
+      try {
+        int statusCode =
+            response
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                .getStatusLine()
+                .getStatusCode();
+        if (HttpUtils.isSuccessful(statusCode)) {
+          healthy++;
+        }
+      } catch (ExecutionException | TimeoutException e) {
+        response.cancel(true);
+        log.debug("HttpClientWarmer :: healthRequests :: {} failed", uri, e);
+      }
+    }
+    return healthy;
+  }
+
+  private static HttpGet healthRequest(URI uri, long deadline) {
+    int timeoutMs = remainingMs(deadline);
+    HttpGet request = new HttpGet(uri);
+    request.setConfig(
+        RequestConfig.custom()
+            .setConnectTimeout(timeoutMs)
+            .setConnectionRequestTimeout(timeoutMs)
+            .setSocketTimeout(timeoutMs)
+            .build());
+    return request;
+  }
+
+  private static boolean isEnabled(HttpClientConfiguration.WarmupConfig warmupConfig) {
+    return Objects.nonNull(warmupConfig) && warmupConfig.isEnabled();
+  }
+
+  private static long deadlineNanos(NamedHttpClient client) {
+    return TimeUnit.MILLISECONDS.toNanos(client.getConfiguration().getWarmup().getTimeoutMs());
+  }
+
+  /** At least a millisecond, a zero timeout would mean none at all. */
+  private static int remainingMs(long deadline) {
+    return (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.cache;
+
+import static org.clojars.tigernitw.http.cache.ResponseCacheTest.response;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.junit.jupiter.api.Test;
+
+/** Freshness and storability of responses under the shared cache rules of {@link CachePolicy}. */
+class CachePolicyTest {
+
+  private static final long NOW = 1_700_000_000_000L;
+  private static final String DATE = DateUtils.formatDate(new Date(NOW));
+
+  @Test
+  void maxAgeGivesLifetime() {
+    assertEquals(60_000, lifetime(response(200, "Cache-Control", "max-age=60")));
+  }
+
+  @Test
+  void sharedMaxAgeOverridesMaxAge() {
+    assertEquals(300_000, lifetime(response(200, "Cache-Control", "max-age=60, s-maxage=300")));
+    assertEquals(
+        10_000,
+        lifetime(response(200, "Cache-Control", "s-maxage=10", "Cache-Control", "max-age=60")));
+  }
+
+  @Test
+  void ageIsSubtracted() {
+    assertEquals(45_000, lifetime(response(200, "Cache-Control", "max-age=60", "Age", "15")));
+    assertEquals(0, lifetime(response(200, "Cache-Control", "max-age=60", "Age", "90")));
+  }
+
+  @Test
+  void maxAgeOverridesExpires() {
+    assertEquals(
+        60_000,
+        lifetime(
+            response(
+                200, "Cache-Control", "max-age=60", "Date", DATE, "Expires", date(NOW + 600_000))));
+  }
+
+  @Test
+  void expiresIsRelativeToDate() {
+    assertEquals(120_000, lifetime(response(200, "Date", DATE, "Expires", date(NOW + 120_000))));
+    assertEquals(
+        100_000,
+        lifetime(response(200, "Date", DATE, "Expires", date(NOW + 120_000), "Age", "20")));
+  }
+
+  @Test
+  void expiresWithoutDateIsRelativeToNow() {
+    assertEquals(30_000, lifetime(response(200, "Expires", date(NOW + 30_000))));
+  }
+
+  @Test
+  void invalidOrPastExpiresIsStale() {
+    assertEquals(0, lifetime(response(200, "Expires", "0")));
+    assertEquals(0, lifetime(response(200, "Date", DATE, "Expires", date(NOW - 1_000))));
+  }
+
+  @Test
+  void withoutFreshnessInformationResponseIsStale() {
+    assertEquals(0, lifetime(response(200)));
+    assertEquals(0, lifetime(response(200, "Cache-Control", "no-cache, max-age=60")));
+  }
+
+  @Test
+  void noStoreAndPrivateAreNotStorable() {
+    assertEquals(CachePolicy.NOT_STORABLE, lifetime(response(200, "Cache-Control", "no-store")));
+    assertEquals(
+        CachePolicy.NOT_STORABLE, lifetime(response(200, "Cache-Control", "private, max-age=60")));
+    assertEquals(
+        CachePolicy.NOT_STORABLE,
+        lifetime(response(200, "Cache-Control", "max-age=60", "Cache-Control", "no-store")));
+  }
+
+  @Test
+  void onlySuccessfulResponsesAreStorable() {
+    assertEquals(CachePolicy.NOT_STORABLE, lifetime(response(404, "Cache-Control", "max-age=60")));
+    assertEquals(CachePolicy.NOT_STORABLE, lifetime(response(304, "Cache-Control", "max-age=60")));
+  }
+
+  @Test
+  void authorizedResponseNeedsExplicitPermission() {
+    var authorized = new HttpGet("http://127.0.0.1/items");
+    authorized.setHeader("Authorization", "Bearer token");
+
+    assertEquals(
+        CachePolicy.NOT_STORABLE,
+        lifetime(authorized, response(200, "Cache-Control", "max-age=60")));
+    assertEquals(
+        60_000, lifetime(authorized, response(200, "Cache-Control", "public, max-age=60")));
+    assertEquals(30_000, lifetime(authorized, response(200, "Cache-Control", "s-maxage=30")));
+    assertEquals(
+        60_000,
+        lifetime(authorized, response(200, "Cache-Control", "must-revalidate, max-age=60")));
+    assertEquals(
+        60_000,
+        lifetime(
+            new HttpGet("http://127.0.0.1/items"), response(200, "Cache-Control", "max-age=60")));
+  }
+
+  @Test
+  void onlyAcceptEncodingVaryIsStorable() {
+    assertEquals(
+        60_000, lifetime(response(200, "Cache-Control", "max-age=60", "Vary", "Accept-Encoding")));
+    assertEquals(
+        CachePolicy.NOT_STORABLE,
+        lifetime(response(200, "Cache-Control", "max-age=60", "Vary", "Accept-Encoding, Cookie")));
+    assertEquals(
+        CachePolicy.NOT_STORABLE,
+        lifetime(response(200, "Cache-Control", "max-age=60", "Vary", "*")));
+  }
+
+  @Test
+  void notModifiedUpdatesStoredHeaders() {
+    var stored =
+        CachePolicy.freshnessHeaders(
+            response(200, "Cache-Control", "max-age=60", "ETag", "\"v1\"", "Age", "10"));
+
+    assertEquals(
+        300_000,
+        CachePolicy.revalidatedLifetime(
+            CachePolicy.updated(response(304, "Cache-Control", "max-age=300"), stored), NOW));
+    // the stored Age described the stored message, not the 304
+    assertEquals(
+        60_000,
+        CachePolicy.revalidatedLifetime(
+            CachePolicy.updated(response(304, "ETag", "\"v1\""), stored), NOW));
+    assertEquals(
+        CachePolicy.NOT_STORABLE,
+        CachePolicy.revalidatedLifetime(
+            CachePolicy.updated(response(304, "Cache-Control", "no-store"), stored), NOW));
+  }
+
+  private static long lifetime(HttpResponse response) {
+    return lifetime(null, response);
+  }
+
+  private static long lifetime(HttpRequest request, HttpResponse response) {
+    return CachePolicy.freshnessLifetime(request, response, NOW);
+  }
+
+  private static String date(long millis) {
+    return DateUtils.formatDate(new Date(millis));
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.junit.jupiter.api.Test;
+
+/** Storing, expiring and revalidating entries of the {@link ResponseCache}. */
+class ResponseCacheTest {
+
+  private static final String KEY = "http://127.0.0.1/items";
+  private static final byte[] BODY = "[1,2,3]".getBytes(StandardCharsets.UTF_8);
+  private static final long NOW = 1_700_000_000_000L;
+
+  private final ResponseCache cache = new ResponseCache(new HttpClientConfiguration.CacheConfig());
+
+  @Test
+  void freshEntryIsAHit() {
+    cache.store(KEY, response(200, "Cache-Control", "max-age=60"), BODY, NOW);
+
+    var entry = cache.lookup(KEY, NOW + 59_000);
+
+    assertNotNull(entry);
+    assertTrue(entry.isFresh(NOW + 59_000));
+    assertArrayEquals(BODY, entry.getBody());
+    assertEquals(1, cache.stats().getHitCount());
+  }
+
+  @Test
+  void staleEntryWithoutValidatorsIsAMiss() {
+    cache.store(KEY, response(200, "Cache-Control", "max-age=60"), BODY, NOW);
+
+    assertNull(cache.lookup(KEY, NOW + 60_000));
+    assertEquals(0, cache.stats().getEntryCount());
+    assertEquals(1, cache.stats().getMissCount());
+  }
+
+  @Test
+  void notModifiedMakesStaleEntryFreshAgain() {
+    cache.store(KEY, validated(response(200, "Cache-Control", "max-age=1")), BODY, NOW);
+    var stale = cache.lookup(KEY, NOW + 5_000);
+    assertNotNull(stale);
+    assertFalse(stale.isFresh(NOW + 5_000));
+
+    var refreshed =
+        cache.revalidated(KEY, stale, response(304, "Cache-Control", "max-age=60"), NOW + 5_000);
+
+    assertTrue(refreshed.isFresh(NOW + 5_000));
+    var hit = cache.lookup(KEY, NOW + 30_000);
+    assertSame(refreshed, hit);
+    assertTrue(hit.isFresh(NOW + 30_000));
+    assertArrayEquals(BODY, hit.getBody());
+    assertEquals(1, cache.stats().getHitCount());
+    assertEquals(1, cache.stats().getRevalidatedCount());
+  }
+
+  @Test
+  void notModifiedWithoutCacheControlKeepsStoredDirectives() {
+    cache.store(KEY, validated(response(200, "Cache-Control", "max-age=60")), BODY, NOW);
+    var stale = cache.lookup(KEY, NOW + 61_000);
+
+    var refreshed = cache.revalidated(KEY, stale, response(304, "ETag", "\"v2\""), NOW + 61_000);
+
+    assertTrue(refreshed.isFresh(NOW + 61_000 + 59_000));
+    assertFalse(refreshed.isFresh(NOW + 61_000 + 60_000));
+    assertEquals("\"v2\"", refreshed.getETag());
+    assertSame(refreshed, cache.lookup(KEY, NOW + 62_000));
+  }
+
+  @Test
+  void notModifiedWithNoStoreDropsEntry() {
+    cache.store(KEY, validated(response(200, "Cache-Control", "max-age=1")), BODY, NOW);
+    var stale = cache.lookup(KEY, NOW + 5_000);
+
+    var served = cache.revalidated(KEY, stale, response(304, "Cache-Control", "no-store"), NOW);
+
+    assertArrayEquals(BODY, served.getBody());
+    assertEquals(0, cache.stats().getEntryCount());
+  }
+
+  @Test
+  void responsesThatMayNotBeStoredAreNot() {
+    assertNull(cache.store(KEY, response(200, "Cache-Control", "no-store"), BODY, NOW));
+    assertNull(cache.store(KEY, response(200), BODY, NOW));
+    assertNull(cache.store(KEY, response(404, "Cache-Control", "max-age=60"), BODY, NOW));
+    var authorized = new HttpGet(KEY);
+    authorized.setHeader("Authorization", "Bearer token");
+    assertNull(
+        cache.store(KEY, authorized, response(200, "Cache-Control", "max-age=60"), BODY, NOW));
+    assertEquals(0, cache.stats().getEntryCount());
+  }
+
+  @Test
+  void oversizedBodiesAreNotStored() {
+    var cacheConfig = new HttpClientConfiguration.CacheConfig();
+    cacheConfig.setMaxEntryBytes(BODY.length - 1);
+    var smallCache = new ResponseCache(cacheConfig);
+
+    assertNull(smallCache.store(KEY, response(200, "Cache-Control", "max-age=60"), BODY, NOW));
+  }
+
+  static HttpResponse response(int status, String... headers) {
+    var response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    for (int i = 0; i < headers.length; i += 2) {
+      response.addHeader(headers[i], headers[i + 1]);
+    }
+    return response;
+  }
+
+  private static HttpResponse validated(HttpResponse response) {
+    response.addHeader("ETag", "\"v1\"");
+    return response;
+  }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.client.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.apache.http.NoHttpResponseException;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.exception.ErrorResponseException;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.registry.NamedHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compiles {@code @HttpApi} interfaces with the {@link HttpApiProcessor} and calls the generated
+ * implementation against a stub server.
+ */
+class HttpApiProcessorTest {
+
+  private static final String ITEMS_API =
+      """
+      package demo;
+
+      import java.io.IOException;
+      import java.util.List;
+      import java.util.Map;
+      import java.util.concurrent.CompletableFuture;
+      import org.clojars.tigernitw.http.client.*;
+
+      @HttpApi("items")
+      public interface ItemsApi {
+
+        @Get(value = "/items/{id}", headers = "Accept: text/plain")
+        String item(
+            @Path("id") String id,
+            @Query("fields") List<String> fields,
+            @Query("limit") int limit,
+            @Query("after") String after,
+            @Header("X-Tenant") String tenant);
+
+        @Get("/items/{id}")
+        CompletableFuture<String> itemAsync(@Path("id") String id);
+
+        @Post("/items")
+        String create(@Body Map<String, Object> item);
+
+        @Put("/items/{id}")
+        void update(@Path("id") long id, @Body Map<String, Object> item);
+
+        @Get("/count")
+        int count();
+
+        @Get("/items")
+        List<Map<String, Object>> list();
+
+        @Get("/broken")
+        String broken() throws IOException;
+
+        @Get("/broken")
+        String brokenUndeclared();
+
+        @Get("/missing")
+        String missing() throws IOException, InterruptedException;
+      }
+      """;
+
+  private static HttpServer server;
+  private static ExecutorService executor;
+  private static HttpClientConfiguration httpConfig;
+  private static volatile String lastRequest;
+
+  @TempDir Path output;
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext(
+        "/",
+        exchange -> {
+          String body;
+          try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+          }
+          URI uri = exchange.getRequestURI();
+          lastRequest =
+              exchange.getRequestMethod()
+                  + " "
+                  + uri
+                  + " "
+                  + exchange.getRequestHeaders().getFirst("Accept")
+                  + " "
+                  + exchange.getRequestHeaders().getFirst("X-Tenant")
+                  + " "
+                  + body;
+          String response =
+              switch (uri.getPath()) {
+                case "/count" -> "42";
+                case "/items" -> "GET".equals(exchange.getRequestMethod())
+                    ? "[{\"id\":1},{\"id\":2}]"
+                    : lastRequest;
+                  // closes the connection without a response
+                case "/broken" -> throw new IllegalStateException("broken");
+                case "/missing" -> null;
+                default -> lastRequest;
+              };
+          byte[] bytes = response == null ? new byte[0] : response.getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(
+              response == null ? 404 : 200, bytes.length == 0 ? -1 : bytes.length);
+          exchange.getResponseBody().write(bytes);
+          exchange.close();
+        });
+    server.start();
+
+    var endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(server.getAddress().getPort());
+    httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+  }
+
+  @AfterAll
+  static void stopServer() throws InterruptedException {
+    server.stop(0);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void generatedClientCompilesWithoutWarnings() throws IOException {
+    var diagnostics = compile(Map.of("demo.ItemsApi", ITEMS_API));
+
+    assertEquals(List.of(), messages(diagnostics, Diagnostic.Kind.ERROR));
+    assertEquals(List.of(), messages(diagnostics, Diagnostic.Kind.WARNING));
+    assertTrue(Files.exists(output.resolve("demo/HttpApi_ItemsApi.class")));
+  }
+
+  @Test
+  void generatedClientBindsArguments() throws Exception {
+    assertEquals(
+        List.of(), messages(compile(Map.of("demo.ItemsApi", ITEMS_API)), Diagnostic.Kind.ERROR));
+    try (var httpClient = ApacheHttpClient.createClient(httpConfig, HttpClientMetrics.NOOP);
+        var httpAsyncClient = ApacheHttpClient.createAsyncClient(httpConfig);
+        var classLoader =
+            new URLClassLoader(new URL[] {output.toUri().toURL()}, getClass().getClassLoader())) {
+      var client =
+          NamedHttpClient.builder()
+              .name("items")
+              .configuration(httpConfig)
+              .httpAppConfiguration(new HttpAppConfiguration())
+              .httpClient(httpClient)
+              .httpAsyncClient(httpAsyncClient)
+              .objectMapper(new ObjectMapper())
+              .build();
+      Object api =
+          classLoader
+              .loadClass("demo.HttpApi_ItemsApi")
+              .getConstructor(NamedHttpClient.class)
+              .newInstance(client);
+
+      assertEquals(
+          "GET /items/a%20b?fields=id&fields=name&limit=5 text/plain acme ",
+          call(api, "item", "a b", Arrays.asList("id", null, "name"), 5, null, "acme"));
+      assertEquals(
+          "GET /items/7 null null ",
+          ((CompletableFuture<?>) call(api, "itemAsync", "7")).get(10, TimeUnit.SECONDS));
+      assertEquals(
+          "POST /items null null {\"name\":\"pen\"}", call(api, "create", Map.of("name", "pen")));
+      assertNull(call(api, "update", 7L, Map.of("name", "ink")));
+      assertEquals("PUT /items/7 null null {\"name\":\"ink\"}", lastRequest);
+      assertEquals(42, call(api, "count"));
+      assertEquals(List.of(Map.of("id", 1), Map.of("id", 2)), call(api, "list"));
+
+      assertInstanceOf(NoHttpResponseException.class, thrown(api, "broken"));
+      var undeclared = thrown(api, "brokenUndeclared");
+      assertInstanceOf(UndeclaredThrowableException.class, undeclared);
+      assertInstanceOf(NoHttpResponseException.class, undeclared.getCause());
+      assertInstanceOf(ErrorResponseException.class, thrown(api, "missing"));
+    }
+  }
+
+  @Test
+  void invalidDeclarationsAreReported() throws IOException {
+    var diagnostics =
+        compile(
+            Map.of(
+                "demo.NotAnInterface",
+                """
+                package demo;
+                @org.clojars.tigernitw.http.client.HttpApi("items")
+                public abstract class NotAnInterface {}
+                """,
+                "demo.GenericApi",
+                """
+                package demo;
+                @org.clojars.tigernitw.http.client.HttpApi("items")
+                public interface GenericApi<T> {}
+                """,
+                "demo.InvalidApi",
+                """
+                package demo;
+                import org.clojars.tigernitw.http.client.*;
+                @HttpApi("items")
+                public interface InvalidApi {
+                  @Get("/items/{id}") String unbound();
+                  @Get("/items/{id}") String unknown(@Path("id") String id, @Path("name") String name);
+                  @Get("/items") String unannotated(String id);
+                  @Post("/items") String noBody();
+                  @Put("/items") String twoBodies(@Body String first, @Body String second);
+                  @Get(value = "/items", headers = "Accept") String badHeader();
+                }
+                """,
+                "demo.UnmappedApi",
+                """
+                package demo;
+                import org.clojars.tigernitw.http.client.*;
+                @HttpApi("items")
+                public interface UnmappedApi {
+                  String unmapped();
+                  @Get("/items/{id}") <T> T generic(@Path("id") String id);
+                }
+                """));
+
+    assertEquals(
+        List.of(
+                "@HttpApi is only supported on interfaces",
+                "@HttpApi interfaces cannot have type parameters",
+                "path variables not bound: [id]",
+                "path template /items/{id} has no variable name",
+                "parameter needs one of @Path, @Query, @Header or @Body",
+                "POST needs exactly one @Body parameter",
+                "PUT needs exactly one @Body parameter",
+                "header is not 'Name: value': Accept",
+                "method needs one of @Get, @Post or @Put",
+                "@HttpApi methods cannot have type parameters")
+            .stream()
+            .sorted()
+            .toList(),
+        messages(diagnostics, Diagnostic.Kind.ERROR).stream().sorted().toList());
+  }
+
+  private DiagnosticCollector<JavaFileObject> compile(Map<String, String> sources)
+      throws IOException {
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    try (var fileManager =
+        compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(output.toFile()));
+      fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, List.of(output.toFile()));
+      fileManager.setLocation(
+          StandardLocation.CLASS_PATH,
+          Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+              .map(File::new)
+              .toList());
+      List<JavaFileObject> units = new ArrayList<>();
+      sources.forEach((name, source) -> units.add(new Source(name, source)));
+      var task =
+          compiler.getTask(null, fileManager, diagnostics, List.of("-Xlint:all"), null, units);
+      task.setProcessors(List.of(new HttpApiProcessor()));
+      task.call();
+    }
+    return diagnostics;
+  }
+
+  private static List<String> messages(
+      DiagnosticCollector<JavaFileObject> diagnostics, Diagnostic.Kind kind) {
+    return diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == kind)
+        .map(diagnostic -> diagnostic.getMessage(null))
+        .collect(Collectors.toList());
+  }
+
+  private static Object call(Object api, String name, Object... arguments) throws Exception {
+    Method method =
+        Arrays.stream(api.getClass().getMethods())
+            .filter(candidate -> candidate.getName().equals(name))
+            .findFirst()
+            .orElseThrow();
+    try {
+      return method.invoke(api, arguments);
+    } catch (InvocationTargetException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+
+  private static Throwable thrown(Object api, String name) {
+    return assertThrows(Exception.class, () -> call(api, name));
+  }
+
+  /** Source file held in memory. */
+  private static final class Source extends SimpleJavaFileObject {
+
+    private final String source;
+
+    Source(String name, String source) {
+      super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.coalescing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.deadline.Deadline;
+import org.clojars.tigernitw.http.exception.RequestRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Callers of the same key share one execution of the {@link RequestCoalescer}. */
+class RequestCoalescerTest {
+
+  private static final int WAITERS = 4;
+
+  private final RequestCoalescer coalescer =
+      new RequestCoalescer(new HttpClientConfiguration.CoalescingConfig());
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void stop() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void waitersShareTheResult() throws Exception {
+    var results = coalesce(() -> "value");
+
+    for (Future<Object> result : results) {
+      assertEquals("value", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, coalescer.getExecutionCount());
+    assertEquals(WAITERS, coalescer.getCoalescedCount());
+  }
+
+  @Test
+  void everyWaiterGetsItsOwnException() throws Exception {
+    var failure = new IOException("connection reset");
+    var results =
+        coalesce(
+            () -> {
+              throw failure;
+            });
+
+    var leader = thrown(results.get(0));
+    assertSame(failure, leader);
+    List<Throwable> waiters = new ArrayList<>();
+    for (Future<Object> result : results.subList(1, results.size())) {
+      var thrown = thrown(result);
+      assertInstanceOf(IOException.class, thrown);
+      assertSame(failure, thrown.getCause());
+      waiters.forEach(other -> assertNotSame(other, thrown));
+      waiters.add(thrown);
+    }
+  }
+
+  @Test
+  void rejectionKeepsItsType() throws Exception {
+    var results =
+        coalesce(
+            () -> {
+              throw new RequestRejectedException(
+                  RequestRejectedException.Reason.CIRCUIT_OPEN, "127.0.0.1");
+            });
+
+    for (Future<Object> result : results.subList(1, results.size())) {
+      var thrown = assertInstanceOf(RequestRejectedException.class, thrown(result));
+      assertEquals(RequestRejectedException.Reason.CIRCUIT_OPEN, thrown.getReason());
+      assertNotSame(thrown(results.get(0)), thrown);
+    }
+  }
+
+  @Test
+  void waiterGivesUpAtItsDeadline() throws Exception {
+    var release = new CountDownLatch(1);
+    var leader =
+        executor.submit(
+            () ->
+                coalescer.execute(
+                    "key",
+                    () -> {
+                      release.await();
+                      return "value";
+                    }));
+    while (coalescer.getExecutionCount() == 0) {
+      Thread.sleep(1);
+    }
+
+    long start = System.nanoTime();
+    var waiter =
+        executor.submit(() -> coalescer.execute("key", Deadline.after(100), () -> "other"));
+
+    assertInstanceOf(TimeoutException.class, thrown(waiter));
+    // far below the default wait timeout of 10 seconds
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+    release.countDown();
+    assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Runs the call as the leader, and as many waiters joining while it runs. The leader's result is
+   * the first one.
+   */
+  private List<Future<Object>> coalesce(Call call) throws Exception {
+    var leaderRunning = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    List<Future<Object>> results = new ArrayList<>();
+    results.add(
+        executor.submit(
+            () ->
+                coalescer.execute(
+                    "key",
+                    () -> {
+                      leaderRunning.countDown();
+                      release.await();
+                      return call.call();
+                    })));
+    leaderRunning.await();
+    for (int i = 0; i < WAITERS; i++) {
+      results.add(executor.submit(() -> coalescer.execute("key", call::call)));
+    }
+    while (coalescer.getCoalescedCount() < WAITERS) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    return results;
+  }
+
+  private static Throwable thrown(Future<?> result) throws Exception {
+    try {
+      result.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+    throw new AssertionError("call did not fail");
+  }
+
+  @FunctionalInterface
+  private interface Call {
+
+    Object call() throws Exception;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Request bodies sent by both clients arrive gzipped and gunzip to exactly what was sent. */
+class RequestCompressionRoundTripTest {
+
+  private static final byte[] BODY = body();
+
+  private static HttpServer server;
+  private static ExecutorService executor;
+  private static String uri;
+  private static HttpClientConfiguration httpConfig;
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    // answers with the gunzipped request body
+    server.createContext(
+        "/echo",
+        exchange -> {
+          byte[] received;
+          try (InputStream body = exchange.getRequestBody()) {
+            received =
+                "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                    ? new GZIPInputStream(body).readAllBytes()
+                    : new byte[0];
+          } catch (IOException e) {
+            received = new byte[0];
+          }
+          exchange.sendResponseHeaders(200, received.length);
+          exchange.getResponseBody().write(received);
+          exchange.close();
+        });
+    server.start();
+    uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/echo";
+
+    var endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(server.getAddress().getPort());
+    var compressionConfig = new HttpClientConfiguration.CompressionConfig();
+    compressionConfig.setEnabled(true);
+    compressionConfig.setAcceptCompressedResponses(false);
+    httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+    httpConfig.setCompression(compressionConfig);
+  }
+
+  @AfterAll
+  static void stopServer() throws InterruptedException {
+    server.stop(0);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void syncClientSendsGzip() throws Exception {
+    try (var httpClient = ApacheHttpClient.createClient(httpConfig, HttpClientMetrics.NOOP)) {
+      for (var entity : entities()) {
+        var request = new HttpPost(uri);
+        request.setEntity(entity);
+        try (var response = httpClient.execute(request)) {
+          assertEchoed(response);
+        }
+      }
+    }
+  }
+
+  @Test
+  void asyncClientSendsGzip() throws Exception {
+    try (var httpAsyncClient = ApacheHttpClient.createAsyncClient(httpConfig)) {
+      // in turn over the same connection, a body left on it would break the next exchange
+      for (var entity : entities()) {
+        var request = new HttpPost(uri);
+        request.setEntity(entity);
+        assertEchoed(httpAsyncClient.execute(request, null).get(10, TimeUnit.SECONDS));
+      }
+    }
+  }
+
+  private static HttpEntity[] entities() {
+    return new HttpEntity[] {
+      new ByteArrayEntity(BODY, ContentType.APPLICATION_JSON),
+      new InputStreamEntity(new ByteArrayInputStream(BODY), -1, ContentType.APPLICATION_JSON),
+      new ByteArrayEntity(BODY, ContentType.APPLICATION_JSON)
+    };
+  }
+
+  private static void assertEchoed(HttpResponse response) throws IOException {
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    assertArrayEquals(BODY, EntityUtils.toByteArray(response.getEntity()));
+  }
+
+  private static byte[] body() {
+    var json = new StringBuilder("{\"items\":[");
+    for (int i = 0; json.length() < 5 * 1024; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"item\"}");
+    }
+    return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Async responses are handled off the I/O dispatch thread of the non-blocking client. */
+class AsyncResponseHandlingTest {
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private HttpClientConfiguration.EndpointConfig endpoint;
+  private CloseableHttpAsyncClient httpAsyncClient;
+
+  @BeforeEach
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext(
+        "/",
+        exchange -> {
+          byte[] body = "\"ok\"".getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(
+              exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200, body.length);
+          exchange.getResponseBody().write(body);
+          exchange.close();
+        });
+    server.start();
+
+    endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(server.getAddress().getPort());
+    var httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+    // a single dispatch thread serves every connection
+    httpConfig.setIoThreads(1);
+    httpAsyncClient = ApacheHttpClient.createAsyncClient(httpConfig);
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    httpAsyncClient.close();
+    server.stop(0);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void slowConsumerDoesNotStallOtherResponses() throws Exception {
+    var consumerRunning = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var consumerThread = new AtomicReference<String>();
+    var slow =
+        get("/missing")
+            .executeAsync(
+                String.class,
+                response -> {
+                  consumerThread.set(Thread.currentThread().getName());
+                  consumerRunning.countDown();
+                  try {
+                    release.await(10, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  return "consumed " + response.getCode();
+                });
+    assertTrue(consumerRunning.await(10, TimeUnit.SECONDS));
+
+    try {
+      assertEquals(
+          "\"ok\"", get("/other").executeAsync(String.class, null).get(5, TimeUnit.SECONDS));
+      assertFalse(slow.isDone());
+    } finally {
+      release.countDown();
+    }
+    assertEquals("consumed 404", slow.get(5, TimeUnit.SECONDS));
+    assertFalse(consumerThread.get().contains("I/O dispatcher"), consumerThread.get());
+  }
+
+  private GetHttpExecutor get(String path) {
+    return GetHttpExecutor.builder()
+        .httpAppConfiguration(new HttpAppConfiguration())
+        .httpAsyncClient(httpAsyncClient)
+        .endpoint(endpoint)
+        .path(path)
+        .objectMapper(new ObjectMapper())
+        .build();
+  }
+}
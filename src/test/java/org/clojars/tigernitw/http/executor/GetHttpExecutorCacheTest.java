@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.cache.ResponseCache;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** GET calls served from the {@link ResponseCache}, revalidated with the origin or fetched. */
+class GetHttpExecutorCacheTest {
+
+  private static final String BODY = "[1,2,3]";
+  private static final String ETAG = "\"v1\"";
+
+  private final AtomicInteger validatedRequests = new AtomicInteger();
+  private final AtomicInteger conditionalRequests = new AtomicInteger();
+  private final AtomicInteger uncacheableRequests = new AtomicInteger();
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private HttpClientConfiguration.EndpointConfig endpoint;
+  private CloseableHttpClient httpClient;
+  private ResponseCache responseCache;
+
+  @BeforeEach
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    // stale right away, confirmed by a 304 that makes it fresh for a minute
+    server.createContext(
+        "/validated",
+        exchange -> {
+          validatedRequests.incrementAndGet();
+          if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            conditionalRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+          }
+          exchange.getResponseHeaders().add("Cache-Control", "max-age=0");
+          exchange.getResponseHeaders().add("ETag", ETAG);
+          respond(exchange);
+        });
+    server.createContext(
+        "/uncacheable",
+        exchange -> {
+          uncacheableRequests.incrementAndGet();
+          exchange.getResponseHeaders().add("Cache-Control", "no-store");
+          respond(exchange);
+        });
+    server.start();
+
+    endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(server.getAddress().getPort());
+    var httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+    httpClient = ApacheHttpClient.createClient(httpConfig, HttpClientMetrics.NOOP);
+    responseCache = new ResponseCache(new HttpClientConfiguration.CacheConfig());
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    httpClient.close();
+    server.stop(0);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void revalidatedEntryIsServedFromCache() throws Exception {
+    assertEquals(BODY, get("/validated"));
+    assertEquals(BODY, get("/validated"));
+    assertEquals(BODY, get("/validated"));
+
+    assertEquals(2, validatedRequests.get());
+    assertEquals(1, conditionalRequests.get());
+    var stats = responseCache.stats();
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getRevalidatedCount());
+    assertEquals(1, stats.getHitCount());
+  }
+
+  @Test
+  void uncacheableResponseIsAlwaysFetched() throws Exception {
+    assertEquals(BODY, get("/uncacheable"));
+    assertEquals(BODY, get("/uncacheable"));
+
+    assertEquals(2, uncacheableRequests.get());
+    var stats = responseCache.stats();
+    assertEquals(2, stats.getMissCount());
+    assertEquals(0, stats.getHitCount());
+    assertEquals(0, stats.getEntryCount());
+  }
+
+  private String get(String path) throws Exception {
+    return GetHttpExecutor.builder()
+        .httpAppConfiguration(new HttpAppConfiguration())
+        .httpClient(httpClient)
+        .endpoint(endpoint)
+        .path(path)
+        .objectMapper(new ObjectMapper())
+        .responseCache(responseCache)
+        .build()
+        .execute(String.class, null);
+  }
+
+  private static void respond(HttpExchange exchange) throws IOException {
+    byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, body.length);
+    exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+}
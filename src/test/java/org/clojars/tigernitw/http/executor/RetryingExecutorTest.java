@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.clojars.tigernitw.http.ApacheHttpClient;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.exception.ErrorResponseException;
+import org.clojars.tigernitw.http.metrics.HttpClientMetrics;
+import org.clojars.tigernitw.http.model.HttpRequestData;
+import org.clojars.tigernitw.http.retry.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Failed attempts retried by the blocking and the non-blocking exchange of the executors. */
+class RetryingExecutorTest {
+
+  /** Requests seen per path, each path fails its first request. */
+  private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private HttpClientConfiguration.EndpointConfig endpoint;
+  private CloseableHttpClient httpClient;
+  private CloseableHttpAsyncClient httpAsyncClient;
+
+  @BeforeEach
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext(
+        "/",
+        exchange -> {
+          try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+          }
+          String path = exchange.getRequestURI().getPath();
+          int count = requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+          if (count == 1 && path.startsWith("/dropped")) {
+            // closes the connection without a response
+            throw new IllegalStateException("dropped");
+          }
+          byte[] body = (count == 1 ? "unavailable" : "ok").getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(count == 1 ? 503 : 200, body.length);
+          exchange.getResponseBody().write(body);
+          exchange.close();
+        });
+    server.start();
+
+    endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(server.getAddress().getPort());
+    var httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+    // the executors retry, not the client
+    httpConfig.setRetry(retryConfig(false));
+    httpClient = ApacheHttpClient.createClient(httpConfig, HttpClientMetrics.NOOP);
+    httpAsyncClient = ApacheHttpClient.createAsyncClient(httpConfig);
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    httpClient.close();
+    httpAsyncClient.close();
+    server.stop(0);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void unavailableGetIsRetried() throws Exception {
+    assertEquals("ok", get("/unavailable", retryPolicy(false)).execute(String.class, null));
+    assertEquals(2, requests.get("/unavailable").get());
+  }
+
+  @Test
+  void unavailableAsyncGetIsRetried() throws Exception {
+    assertEquals(
+        "ok",
+        get("/unavailable-async", retryPolicy(false))
+            .executeAsync(String.class, null)
+            .get(10, TimeUnit.SECONDS));
+    assertEquals(2, requests.get("/unavailable-async").get());
+  }
+
+  @Test
+  void droppedConnectionIsRetried() throws Exception {
+    assertEquals("ok", get("/dropped", retryPolicy(false)).execute(String.class, null));
+    assertEquals(2, requests.get("/dropped").get());
+  }
+
+  @Test
+  void postIsNotRetried() {
+    var error =
+        assertThrows(
+            ErrorResponseException.class,
+            () -> post("/post", retryPolicy(false)).execute(String.class, null));
+
+    assertEquals(503, error.getStatusCode());
+    assertEquals(1, requests.get("/post").get());
+  }
+
+  @Test
+  void postIsRetriedWhenOptedIn() throws Exception {
+    assertEquals("ok", post("/post-opted-in", retryPolicy(true)).execute(String.class, null));
+    assertEquals(2, requests.get("/post-opted-in").get());
+  }
+
+  @Test
+  void withoutPolicyNothingIsRetried() {
+    assertThrows(
+        ErrorResponseException.class, () -> get("/once", null).execute(String.class, null));
+    assertEquals(1, requests.get("/once").get());
+  }
+
+  private GetHttpExecutor get(String path, RetryPolicy retryPolicy) {
+    return GetHttpExecutor.builder()
+        .httpAppConfiguration(new HttpAppConfiguration())
+        .httpClient(httpClient)
+        .httpAsyncClient(httpAsyncClient)
+        .endpoint(endpoint)
+        .path(path)
+        .objectMapper(new ObjectMapper())
+        .retryPolicy(retryPolicy)
+        .build();
+  }
+
+  private PostHttpExecutor post(String path, RetryPolicy retryPolicy) {
+    return PostHttpExecutor.builder()
+        .httpAppConfiguration(new HttpAppConfiguration())
+        .httpClient(httpClient)
+        .endpoint(endpoint)
+        .path(path)
+        .httpRequestData(
+            HttpRequestData.builder()
+                .data(Map.of("name", "pen"))
+                .contentType(ContentType.APPLICATION_JSON)
+                .build())
+        .objectMapper(new ObjectMapper())
+        .retryPolicy(retryPolicy)
+        .build();
+  }
+
+  private static RetryPolicy retryPolicy(boolean retryPost) {
+    return new RetryPolicy(retryConfig(retryPost));
+  }
+
+  private static HttpClientConfiguration.RetryConfig retryConfig(boolean retryPost) {
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    retryConfig.setEnabled(true);
+    retryConfig.setInitialBackoffMs(1);
+    retryConfig.setMaxBackoffMs(5);
+    retryConfig.setRetryPost(retryPost);
+    return retryConfig;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.junit.jupiter.api.Test;
+
+/** State transitions of the {@link CircuitBreaker} on a manual clock. */
+class CircuitBreakerTest {
+
+  private static final long OPEN_DURATION_MS = 1000;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(config(), "127.0.0.1", nanos::get);
+
+  @Test
+  void staysClosedBelowMinimumCalls() {
+    record(0, 9);
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void opensWhenFailureRateReachesThreshold() {
+    record(6, 4);
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+    // the oldest success leaves the window, 5 of the last 10 calls failed
+    circuitBreaker.onResult(true);
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void halfOpensAfterOpenDuration() {
+    open();
+
+    advance(OPEN_DURATION_MS - 1);
+    assertFalse(circuitBreaker.tryAcquire());
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    advance(1);
+    assertTrue(circuitBreaker.tryAcquire());
+    assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  void halfOpenLetsTrialCallsThroughAndCloses() {
+    halfOpen();
+
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+    circuitBreaker.onResult(false);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    circuitBreaker.onResult(false);
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    // the window starts over
+    record(0, 9);
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void failedTrialOpensAgain() {
+    halfOpen();
+
+    circuitBreaker.onResult(true);
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+    advance(OPEN_DURATION_MS);
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void ignoredTrialReturnsItsPermit() {
+    halfOpen();
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+
+    circuitBreaker.onIgnored();
+
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void ignoredCallsNeverExceedTrialCalls() {
+    halfOpen();
+    circuitBreaker.onIgnored();
+    circuitBreaker.onIgnored();
+    circuitBreaker.onIgnored();
+
+    assertTrue(circuitBreaker.tryAcquire());
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+    circuitBreaker.onResult(false);
+    circuitBreaker.onIgnored();
+    circuitBreaker.onIgnored();
+    // one trial succeeded, one more is left
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void ignoredCallWhileClosedChangesNothing() {
+    circuitBreaker.onIgnored();
+    record(6, 4);
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+
+  private void open() {
+    record(0, 10);
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+  }
+
+  /** Half open with one of the two trial permits taken. */
+  private void halfOpen() {
+    open();
+    advance(OPEN_DURATION_MS);
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  private void record(int successes, int failures) {
+    for (int i = 0; i < successes; i++) {
+      circuitBreaker.onResult(false);
+    }
+    for (int i = 0; i < failures; i++) {
+      circuitBreaker.onResult(true);
+    }
+  }
+
+  private void advance(long millis) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private static HttpClientConfiguration.CircuitBreakerConfig config() {
+    var config = new HttpClientConfiguration.CircuitBreakerConfig();
+    config.setEnabled(true);
+    config.setWindowSize(10);
+    config.setMinimumCalls(10);
+    config.setFailureRateThreshold(50);
+    config.setOpenDurationMs(OPEN_DURATION_MS);
+    config.setHalfOpenCalls(2);
+    return config;
+  }
+}
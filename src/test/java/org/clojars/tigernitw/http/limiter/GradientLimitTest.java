@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.junit.jupiter.api.Test;
+
+/** How the {@link GradientLimit} follows latency and drops. */
+class GradientLimitTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  void growsWhileLatencyIsSteady() {
+    var limit = new GradientLimit(config(20));
+
+    sample(limit, FAST, 50);
+
+    assertTrue(limit.getLimit() > 40, "limit " + limit.getLimit());
+  }
+
+  @Test
+  void shrinksWhenLatencyRises() {
+    var limit = new GradientLimit(config(20));
+    sample(limit, FAST, 20);
+    int before = limit.getLimit();
+
+    sample(limit, SLOW, 10);
+
+    assertTrue(limit.getLimit() < before * 0.75, before + " -> " + limit.getLimit());
+  }
+
+  @Test
+  void recoversFromLastingSlowdown() {
+    var limit = new GradientLimit(config(20));
+    sample(limit, FAST, 20);
+    sample(limit, SLOW, 20);
+    int slowed = limit.getLimit();
+
+    sample(limit, SLOW, 1000);
+
+    assertTrue(limit.getLimit() > slowed, slowed + " -> " + limit.getLimit());
+  }
+
+  @Test
+  void ignoresSamplesFarBelowTheLimit() {
+    var limit = new GradientLimit(config(20));
+
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(SLOW, 9, false);
+    }
+
+    assertEquals(20, limit.getLimit());
+  }
+
+  @Test
+  void dropCutsTheLimitByATenth() {
+    var limit = new GradientLimit(config(100));
+
+    limit.onSample(FAST, 100, true);
+    assertEquals(90, limit.getLimit());
+    limit.onSample(FAST, 100, true);
+    assertEquals(81, limit.getLimit());
+  }
+
+  @Test
+  void staysWithinBounds() {
+    var limit = new GradientLimit(config(20));
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(FAST, 20, true);
+    }
+    assertEquals(2, limit.getLimit());
+
+    sample(limit, FAST, 1000);
+    assertEquals(200, limit.getLimit());
+    assertEquals(200, new GradientLimit(config(500)).getLimit());
+  }
+
+  /** Samples taken with the limit fully used. */
+  private static void sample(GradientLimit limit, long rttNanos, int samples) {
+    for (int i = 0; i < samples; i++) {
+      limit.onSample(rttNanos, limit.getLimit(), false);
+    }
+  }
+
+  private static HttpClientConfiguration.LimiterConfig config(int initialLimit) {
+    var config = new HttpClientConfiguration.LimiterConfig();
+    config.setInitialLimit(initialLimit);
+    config.setMinLimit(2);
+    config.setMaxLimit(200);
+    config.setRttTolerance(1.5);
+    return config;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.model.QueryParam;
+import org.clojars.tigernitw.http.util.HttpUtils;
+import org.junit.jupiter.api.Test;
+
+/** URIs of a {@link RequestPlan} are the ones {@link HttpUtils#fetchUrl} builds. */
+class RequestPlanTest {
+
+  private static final int[] PORTS = {-1, 0, 80, 8443};
+
+  private static final String[] PATHS = {
+    "", "/", "items", "/items", "/items/", "//items", "/a b/ü/%2F", "/x;y=1/:@!$&'()*+,=~"
+  };
+
+  private static final List<List<QueryParam>> QUERIES =
+      List.of(
+          List.of(),
+          List.of(new QueryParam("a b", "c&d=e+f ü"), new QueryParam("flag", null)),
+          List.of(new QueryParam("", "")));
+
+  @Test
+  void literalPathsMatchFetchUrl() throws Exception {
+    for (boolean secure : new boolean[] {false, true}) {
+      for (int port : PORTS) {
+        var endpoint = endpoint(port, secure);
+        for (String path : PATHS) {
+          var plan = plan(endpoint, path);
+          for (List<QueryParam> queryParams : QUERIES) {
+            assertEquals(
+                HttpUtils.fetchUrl(endpoint, path, queryParams),
+                plan.uri(new Object[0], queryParams),
+                "port " + port + " path '" + path + "' query " + queryParams);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void missingPathMatchesFetchUrl() throws Exception {
+    var endpoint = endpoint(8080, false);
+
+    assertEquals(
+        HttpUtils.fetchUrl(endpoint, null, null), plan(endpoint, null).uri(new Object[0], null));
+  }
+
+  @Test
+  void expandedVariablesMatchFetchUrlOfTheExpandedPath() throws Exception {
+    var endpoint = endpoint(8080, false);
+    var plan = plan(endpoint, "/items/{id}/parts/{part}");
+    var queryParams = List.of(new QueryParam("limit", "10"));
+
+    assertEquals(List.of("id", "part"), plan.getVariableNames());
+    assertEquals(
+        HttpUtils.fetchUrl(endpoint, "/items/a b/parts/ü", queryParams),
+        plan.uri(Map.of("id", "a b", "part", "ü"), queryParams));
+  }
+
+  @Test
+  void variableValuesAreSingleSegments() {
+    var plan = plan(endpoint(8080, false), "/items/{id}");
+
+    assertEquals(
+        URI.create("http://localhost:8080/items/a%2Fb"), plan.uri(new Object[] {"a/b"}, null));
+  }
+
+  @Test
+  void variablesAreRequired() {
+    var plan = plan(endpoint(8080, false), "/items/{id}");
+
+    assertThrows(IllegalArgumentException.class, () -> plan.uri(new Object[0], null));
+    assertThrows(NullPointerException.class, () -> plan.uri(new Object[] {null}, null));
+    assertThrows(IllegalArgumentException.class, () -> plan(endpoint(8080, false), "/items/{id"));
+  }
+
+  private static RequestPlan plan(HttpClientConfiguration.EndpointConfig endpoint, String path) {
+    return RequestPlan.builder()
+        .httpAppConfiguration(new HttpAppConfiguration())
+        .endpoint(endpoint)
+        .pathTemplate(path)
+        .build();
+  }
+
+  private static HttpClientConfiguration.EndpointConfig endpoint(int port, boolean secure) {
+    var endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("localhost");
+    endpoint.setPort(port);
+    endpoint.setSecure(secure);
+    return endpoint;
+  }
+}
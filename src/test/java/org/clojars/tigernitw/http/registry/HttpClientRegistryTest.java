@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.clojars.tigernitw.http.config.HttpAppConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.clojars.tigernitw.http.config.HttpClientRegistryConfiguration;
+import org.clojars.tigernitw.http.metrics.HttpClientMetricsFactory;
+import org.junit.jupiter.api.Test;
+
+/** A registry that fails to build closes the clients it built before the failure. */
+class HttpClientRegistryTest {
+
+  @Test
+  void closesTheBuiltClientsWhenALaterClientFails() throws InterruptedException {
+    long dispatchersBefore = dispatchers();
+
+    var registryConfiguration = new HttpClientRegistryConfiguration();
+    var first = client();
+    first.setAsyncEnabled(true);
+    first.setIoThreads(2);
+    registryConfiguration.getClients().put("first", first);
+    var second = client();
+    second.setSharedPool("missing");
+    registryConfiguration.getClients().put("second", second);
+
+    var failure =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                new HttpClientRegistry(
+                    registryConfiguration,
+                    new HttpAppConfiguration(),
+                    HttpClientMetricsFactory.NOOP,
+                    new ObjectMapper()));
+    assertEquals("client second refers to unknown pool missing", failure.getMessage());
+
+    // the first client's I/O reactor shuts its dispatch threads down
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (dispatchers() > dispatchersBefore && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+    assertEquals(dispatchersBefore, dispatchers());
+  }
+
+  private static HttpClientConfiguration client() {
+    var endpoint = new HttpClientConfiguration.EndpointConfig();
+    endpoint.setHost("127.0.0.1");
+    endpoint.setPort(1);
+    var httpConfig = new HttpClientConfiguration();
+    httpConfig.setEndpoint(endpoint);
+    return httpConfig;
+  }
+
+  private static long dispatchers() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(thread -> thread.isAlive() && thread.getName().startsWith("I/O dispatcher"))
+        .count();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Token arithmetic of the {@link RetryBudget} on a manual clock. */
+class RetryBudgetTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  void startsWithOneSecondOfAllowance() {
+    var budget = new RetryBudget(0.1, 3, nanos::get);
+
+    assertEquals(3, budget.getAvailable());
+    assertTrue(budget.tryWithdraw());
+    assertTrue(budget.tryWithdraw());
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  void requestsDepositTheirRatio() {
+    var budget = new RetryBudget(0.1, 0, nanos::get);
+    assertFalse(budget.tryWithdraw());
+
+    for (int i = 0; i < 9; i++) {
+      budget.deposit();
+    }
+    assertFalse(budget.tryWithdraw());
+    budget.deposit();
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  void zeroRatioDepositsNothing() {
+    var budget = new RetryBudget(0, 0, nanos::get);
+
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+    }
+    assertEquals(0, budget.getAvailable());
+  }
+
+  @Test
+  void allowanceRefillsOverTime() {
+    var budget = new RetryBudget(0, 2, nanos::get);
+    assertTrue(budget.tryWithdraw());
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+    assertEquals(0, budget.getAvailable());
+    assertFalse(budget.tryWithdraw());
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  void balanceIsCappedAtTenSecondsOfAllowance() {
+    var budget = new RetryBudget(1.0, 2, nanos::get);
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+    assertTrue(budget.tryWithdraw());
+    assertEquals(19, budget.getAvailable());
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+    }
+    assertEquals(20, budget.getAvailable());
+  }
+
+  @Test
+  void quietClientCanHoldTenRetries() {
+    var budget = new RetryBudget(1.0, 0, nanos::get);
+
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+    }
+    assertEquals(10, budget.getAvailable());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2023 Shiva Samadhiya <shiva94.nitw@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.clojars.tigernitw.http.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Set;
+import org.apache.http.HttpEntity;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.clojars.tigernitw.http.config.HttpClientConfiguration;
+import org.junit.jupiter.api.Test;
+
+/** What the {@link RetryPolicy} retries and how long it backs off. */
+class RetryPolicyTest {
+
+  private static final String URI = "http://127.0.0.1/items";
+
+  @Test
+  void idempotentRequestsAreRetryable() {
+    var policy = new RetryPolicy(new HttpClientConfiguration.RetryConfig());
+
+    assertTrue(policy.isRetryable(new HttpGet(URI)));
+    assertTrue(policy.isRetryable(new HttpDelete(URI)));
+    assertTrue(policy.isRetryable(put(new StringEntity("{}", "UTF-8"))));
+    assertFalse(policy.isRetryable(new HttpPatch(URI)));
+  }
+
+  @Test
+  void postIsOnlyRetryableWhenOptedIn() {
+    var post = new HttpPost(URI);
+    post.setEntity(new StringEntity("{}", "UTF-8"));
+    assertFalse(new RetryPolicy(new HttpClientConfiguration.RetryConfig()).isRetryable(post));
+
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    retryConfig.setRetryPost(true);
+    assertTrue(new RetryPolicy(retryConfig).isRetryable(post));
+  }
+
+  @Test
+  void nonRepeatableBodyIsNotRetryable() {
+    var policy = new RetryPolicy(new HttpClientConfiguration.RetryConfig());
+
+    assertFalse(
+        policy.isRetryable(put(new InputStreamEntity(new ByteArrayInputStream(new byte[8])))));
+  }
+
+  @Test
+  void configuredStatusCodesAreRetryable() {
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    retryConfig.setRetryableStatusCodes(Set.of(429, 503));
+    var policy = new RetryPolicy(retryConfig);
+
+    assertTrue(policy.isRetryable(429));
+    assertTrue(policy.isRetryable(503));
+    assertFalse(policy.isRetryable(500));
+    assertFalse(policy.isRetryable(200));
+  }
+
+  @Test
+  void connectionFailuresAreRetryable() {
+    var policy = new RetryPolicy(new HttpClientConfiguration.RetryConfig());
+
+    assertTrue(policy.isRetryable(new ConnectException()));
+    assertTrue(policy.isRetryable(new ConnectTimeoutException()));
+    assertTrue(policy.isRetryable(new NoHttpResponseException("closed")));
+    assertTrue(policy.isRetryable(new SocketTimeoutException()));
+    assertFalse(policy.isRetryable(new IOException("broken")));
+  }
+
+  @Test
+  void poolTimeoutIsNotRetryable() {
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    // a pool timeout is a ConnectTimeoutException, it is still excluded
+    retryConfig.setRetryableExceptions(List.of(ConnectTimeoutException.class));
+    var policy = new RetryPolicy(retryConfig);
+
+    assertFalse(policy.isRetryable(new ConnectionPoolTimeoutException()));
+  }
+
+  @Test
+  void backoffGrowsUpToTheMaximum() {
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    retryConfig.setInitialBackoffMs(100);
+    retryConfig.setBackoffMultiplier(3);
+    retryConfig.setMaxBackoffMs(1000);
+    var policy = new RetryPolicy(retryConfig);
+
+    assertEquals(100, policy.maxBackoffMillis(1));
+    assertEquals(300, policy.maxBackoffMillis(2));
+    assertEquals(900, policy.maxBackoffMillis(3));
+    assertEquals(1000, policy.maxBackoffMillis(4));
+    assertEquals(1000, policy.maxBackoffMillis(10));
+  }
+
+  @Test
+  void backoffIsJitteredWithinBounds() {
+    var policy = new RetryPolicy(new HttpClientConfiguration.RetryConfig());
+
+    for (int attempt = 1; attempt <= 8; attempt++) {
+      for (int i = 0; i < 200; i++) {
+        long backoff = policy.backoffMillis(attempt);
+        assertTrue(backoff >= 0 && backoff <= policy.maxBackoffMillis(attempt), "" + backoff);
+      }
+    }
+  }
+
+  @Test
+  void maxBackoffIsNeverBelowInitialBackoff() {
+    var retryConfig = new HttpClientConfiguration.RetryConfig();
+    retryConfig.setInitialBackoffMs(500);
+    retryConfig.setMaxBackoffMs(100);
+
+    assertEquals(500, new RetryPolicy(retryConfig).maxBackoffMillis(3));
+  }
+
+  private static HttpPut put(HttpEntity entity) {
+    var put = new HttpPut(URI);
+    put.setEntity(entity);
+    return put;
+  }
+}